@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold;
+
+import android.content.res.AssetManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.cobo.coinlib.utils.Coins;
+import com.cobo.coinlib.v8.ScriptLoader;
+import com.eclipsesource.v8.V8;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * Cold creation of a runtime for every coin bundle: the previous loader
+ * (bundleMap.json parsed on every load, script read line by line) versus
+ * {@link ScriptLoader}. J2V8 has no startup snapshot, so both paths compile
+ * and evaluate the full bundle; the numbers are logged, not asserted.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ScriptLoaderBenchmark {
+
+    private static final String TAG = "ScriptLoaderBenchmark";
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void coldStart() throws JSONException {
+        AssetManager am = InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getAssets();
+        for (Coins.Coin coin : Coins.SUPPORTED_COINS) {
+            String coinCode = coin.coinCode();
+
+            long previous = 0;
+            long current = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                V8 v8 = V8.createV8Runtime("window");
+                JSONObject bundleMap = new JSONObject(readLines(am, "bundleMap.json"));
+                v8.executeVoidScript(readLines(am, "script/" + bundleMap.getString(coinCode)));
+                v8.executeObjectScript("new " + coinCode + "()").release();
+                previous += SystemClock.elapsedRealtimeNanos() - start;
+                v8.release(false);
+
+                start = SystemClock.elapsedRealtimeNanos();
+                v8 = ScriptLoader.sInstance.loadByCoinCode(coinCode);
+                v8.executeObjectScript("new " + coinCode + "()").release();
+                current += SystemClock.elapsedRealtimeNanos() - start;
+                v8.release(false);
+            }
+
+            Log.i(TAG, String.format("%s: previous loader %.2fms, ScriptLoader %.2fms", coinCode,
+                    previous / ROUNDS / 1e6, current / ROUNDS / 1e6));
+        }
+    }
+
+    private static String readLines(AssetManager am, String fileName) {
+        StringBuilder stringBuilder = new StringBuilder();
+        try (InputStream inputStream = am.open(fileName);
+             BufferedReader bf = new BufferedReader(new InputStreamReader(inputStream))) {
+            String line;
+            while ((line = bf.readLine()) != null) {
+                stringBuilder.append(line).append("\r\n");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import com.cobo.coinlib.coins.AbsTx;
+import com.cobo.coinlib.coins.BTC.Btc;
+import com.cobo.coinlib.coins.BTC.BtcImpl;
+import com.cobo.coinlib.interfaces.SignCallback;
+import com.cobo.coinlib.interfaces.Signer;
+import com.cobo.coinlib.v8.V8Converter;
+import com.cobo.cold.encryption.signature.Signature;
+import com.eclipsesource.v8.V8;
+import com.eclipsesource.v8.V8Array;
+import com.eclipsesource.v8.V8Object;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.digests.RIPEMD160Digest;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
+import org.spongycastle.crypto.params.ECDomainParameters;
+import org.spongycastle.crypto.params.ECPrivateKeyParameters;
+import org.spongycastle.crypto.signers.ECDSASigner;
+import org.spongycastle.util.BigIntegers;
+import org.spongycastle.util.encoders.Hex;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BTC transactions with 1/50/500 inputs.
+ * <p>
+ * {@link #conversion()} times metaData stringified and JSON.parse'd inside V8
+ * versus built directly with {@link V8Converter}. {@link #parseToSign()} times
+ * the whole path from parsing to the signed transaction returned by the sign
+ * script. Signing on the secure element needs the device and an auth token,
+ * so a software secp256k1 signer stands in for ChipSigner; its own time is
+ * reported separately so the script and bridge cost can be read off.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TxDataConversionBenchmark {
+
+    private static final String TAG = "TxDataConversionBenchmark";
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void conversion() throws JSONException {
+        SoftwareSigner signer = new SoftwareSigner(BigInteger.valueOf(0xc0b0));
+        V8 v8 = V8.createV8Runtime("window");
+        try {
+            for (int inputs : new int[]{1, 50, 500}) {
+                String json = btcTx(inputs, signer).toString();
+
+                long parse = 0;
+                long stringify = 0;
+                long bridge = 0;
+                for (int i = 0; i < ROUNDS; i++) {
+                    long start = SystemClock.elapsedRealtimeNanos();
+                    AbsTx tx = AbsTx.newInstance(new JSONObject(json));
+                    parse += SystemClock.elapsedRealtimeNanos() - start;
+                    assertNotNull(tx);
+
+                    start = SystemClock.elapsedRealtimeNanos();
+                    V8Array params = new V8Array(v8).push(tx.getMetaData().toString());
+                    V8Object jsonObject = v8.getObject("JSON");
+                    V8Object parsed = jsonObject.executeObjectFunction("parse", params);
+                    stringify += SystemClock.elapsedRealtimeNanos() - start;
+
+                    start = SystemClock.elapsedRealtimeNanos();
+                    V8Object built = V8Converter.toV8Object(v8, tx.getMetaData());
+                    bridge += SystemClock.elapsedRealtimeNanos() - start;
+
+                    V8Array parsedInputs = parsed.getArray("inputs");
+                    V8Array builtInputs = built.getArray("inputs");
+                    assertEquals(parsedInputs.length(), builtInputs.length());
+
+                    parsedInputs.release();
+                    builtInputs.release();
+                    params.release();
+                    jsonObject.release();
+                    parsed.release();
+                    built.release();
+                }
+
+                Log.i(TAG, String.format("%d inputs: parse %.2fms, JSON.parse %.2fms, bridge %.2fms",
+                        inputs, parse / ROUNDS / 1e6, stringify / ROUNDS / 1e6, bridge / ROUNDS / 1e6));
+            }
+        } finally {
+            v8.release(false);
+        }
+    }
+
+    @Test
+    public void parseToSign() throws JSONException {
+        SoftwareSigner signer = new SoftwareSigner(BigInteger.valueOf(0xc0b0));
+        Btc btc = new Btc(new BtcImpl());
+        for (int inputs : new int[]{1, 50, 500}) {
+            String json = btcTx(inputs, signer).toString();
+
+            long parse = 0;
+            long sign = 0;
+            signer.nanos = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                AbsTx tx = AbsTx.newInstance(new JSONObject(json));
+                parse += SystemClock.elapsedRealtimeNanos() - start;
+                assertNotNull(tx);
+
+                Result result = new Result();
+                start = SystemClock.elapsedRealtimeNanos();
+                btc.generateTransaction(tx, result, signer);
+                sign += SystemClock.elapsedRealtimeNanos() - start;
+                assertTrue(result.signed);
+            }
+
+            Log.i(TAG, String.format("%d inputs: parse %.2fms, sign %.2fms (signer %.2fms)",
+                    inputs, parse / ROUNDS / 1e6, sign / ROUNDS / 1e6, signer.nanos / ROUNDS / 1e6));
+        }
+    }
+
+    private static JSONObject btcTx(int inputCount, SoftwareSigner signer) throws JSONException {
+        String publicKey = signer.getPublicKey();
+        // P2SH-P2WPKH: OP_HASH160 hash160(OP_0 hash160(publicKey)) OP_EQUAL
+        byte[] redeemScript = new byte[22];
+        redeemScript[1] = 0x14;
+        System.arraycopy(hash160(Hex.decode(publicKey)), 0, redeemScript, 2, 20);
+        String script = "a914" + Hex.toHexString(hash160(redeemScript)) + "87";
+
+        JSONArray inputs = new JSONArray();
+        for (int i = 0; i < inputCount; i++) {
+            inputs.put(new JSONObject()
+                    .put("hash", String.format("%064x", i + 1))
+                    .put("index", i % 4)
+                    .put("ownerKeyPath", "M/49'/0'/0'/0/" + i)
+                    .put("utxo", new JSONObject()
+                            .put("publicKey", publicKey)
+                            .put("script", script)
+                            .put("value", 100000)));
+        }
+        JSONArray outputs = new JSONArray()
+                .put(new JSONObject()
+                        .put("address", "3Kd5rjiLtvpHv5nhYQNTTeRLgrz4om32PJ")
+                        .put("value", 100000L * inputCount - 10000)
+                        .put("isChange", false));
+        return new JSONObject()
+                .put("coinCode", "BTC")
+                .put("signId", "benchmark")
+                .put("timestamp", 0)
+                .put("decimal", 8)
+                .put("btcTx", new JSONObject()
+                        .put("fee", 10000)
+                        .put("dustThreshold", 546)
+                        .put("memo", "")
+                        .put("inputs", inputs)
+                        .put("outputs", outputs));
+    }
+
+    private static byte[] hash160(byte[] data) {
+        return digest(new RIPEMD160Digest(), digest(new SHA256Digest(), data));
+    }
+
+    private static byte[] digest(Digest digest, byte[] data) {
+        byte[] out = new byte[digest.getDigestSize()];
+        digest.update(data, 0, data.length);
+        digest.doFinal(out, 0);
+        return out;
+    }
+
+    private static class Result implements SignCallback {
+        boolean signed;
+
+        @Override
+        public void startSign() {
+        }
+
+        @Override
+        public void onFail() {
+            signed = false;
+        }
+
+        @Override
+        public void onSuccess(String txId, String signedTx) {
+            signed = true;
+        }
+
+        @Override
+        public void postProgress(int progress) {
+        }
+    }
+
+    /**
+     * secp256k1 signer with a fixed key, answering like ChipSigner: R + S + recId in hex
+     */
+    private static class SoftwareSigner extends Signer {
+        private static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+        private static final ECDomainParameters CURVE = new ECDomainParameters(
+                CURVE_PARAMS.getCurve(), CURVE_PARAMS.getG(), CURVE_PARAMS.getN(), CURVE_PARAMS.getH());
+
+        private final BigInteger privateKey;
+        long nanos;
+
+        SoftwareSigner(BigInteger privateKey) {
+            super(Hex.toHexString(CURVE.getG().multiply(privateKey).normalize().getEncoded(true)));
+            this.privateKey = privateKey;
+        }
+
+        @Override
+        public String sign(String hex) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            byte[] message = Hex.decode(hex);
+            ECDSASigner signer = new ECDSASigner();
+            signer.init(true, new ECPrivateKeyParameters(privateKey, CURVE));
+            byte[] signBytes = new byte[64];
+            // the secure element only returns low-s signatures with 32 byte R and S,
+            // keep drawing nonces until this one qualifies like it does
+            do {
+                BigInteger[] rs = signer.generateSignature(message);
+                BigInteger s = rs[1].compareTo(CURVE.getN().shiftRight(1)) > 0
+                        ? CURVE.getN().subtract(rs[1]) : rs[1];
+                System.arraycopy(BigIntegers.asUnsignedByteArray(32, rs[0]), 0, signBytes, 0, 32);
+                System.arraycopy(BigIntegers.asUnsignedByteArray(32, s), 0, signBytes, 32, 32);
+            } while (!isCanonical(signBytes));
+            String signed = Hex.toHexString(Signature.appendRecoveryId(
+                    Hex.decode(getPublicKey()), signBytes, message));
+            nanos += SystemClock.elapsedRealtimeNanos() - start;
+            return signed;
+        }
+
+        private static boolean isCanonical(byte[] sigs) {
+            return (sigs[0] & 0x80) == 0
+                    && !(sigs[0] == 0 && ((sigs[1] & 0x80) == 0))
+                    && (sigs[32] & 0x80) == 0
+                    && !(sigs[32] == 0 && ((sigs[33] & 0x80) == 0));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.db;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Opens a version 2 database from the exported schema, runs
+ * {@link AppDatabase#MIGRATION_2_3} on it and checks the indices the vault
+ * filtered queries rely on. The version 3 schema is exported by the room
+ * compiler on the next build, the migration is not validated against it here.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    private static final String[] INDICES = {
+            "index_coins_belongTo_coinId",
+            "index_addresses_coinId_belongTo",
+            "index_addresses_path_belongTo",
+            "index_txs_coinId_belongTo_timeStamp",
+            "index_white_list_addr_belongTo",
+            "index_white_list_belongTo",
+            "index_accounts_coinId",
+    };
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(),
+            AppDatabase.class.getCanonicalName(),
+            new FrameworkSQLiteOpenHelperFactory());
+
+    @Test
+    public void migrate2To3() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2);
+        db.execSQL("INSERT INTO coins (coinId, name, iconResId, show, addressCount, "
+                + "coinCode, exPub, belongTo, `index`) "
+                + "VALUES ('bitcoin', 'Bitcoin', 0, 1, 1, 'BTC', 'xpub', 'vault', 0)");
+
+        AppDatabase.MIGRATION_2_3.migrate(db);
+
+        Set<String> indices = new HashSet<>();
+        try (Cursor cursor = db.query("SELECT name FROM sqlite_master WHERE type = 'index'")) {
+            while (cursor.moveToNext()) {
+                indices.add(cursor.getString(0));
+            }
+        }
+        for (String index : INDICES) {
+            assertTrue(index + " missing", indices.contains(index));
+        }
+
+        try (Cursor cursor = db.query("SELECT coinId FROM coins WHERE belongTo = 'vault'")) {
+            assertTrue("v2 rows must survive the migration", cursor.moveToFirst());
+        }
+        db.close();
+    }
+}
@@ -18,6 +18,7 @@
 package com.cobo.cold;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
@@ -31,9 +32,7 @@ import com.cobo.cold.db.entity.TxEntity;
 import com.cobo.cold.db.entity.WhiteListEntity;
 import com.cobo.cold.model.Coin;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class DataRepository {
     private static DataRepository sInstance;
@@ -41,16 +40,24 @@ public class DataRepository {
     private final AppDatabase mDb;
     private final MediatorLiveData<List<CoinEntity>> mObservableCoins;
     private final Context context;
+    private LiveData<List<CoinEntity>> mCoinsSource;
+    private String mCoinsBelongTo;
+
+    // held here since SharedPreferences only keeps a weak reference to its listeners
+    private final SharedPreferences.OnSharedPreferenceChangeListener mBelongToListener =
+            (sp, key) -> {
+                if (Utilities.PREFERENCE_KEY_BELONG_TO.equals(key)) {
+                    loadCoins();
+                }
+            };
 
     private DataRepository(Context context, final AppDatabase database) {
         mDb = database;
         this.context = context;
         mObservableCoins = new MediatorLiveData<>();
-        mObservableCoins.addSource(mDb.coinDao().loadAllCoins(), coins -> {
-            if (mDb.getDatabaseCreated().getValue() != null) {
-                mObservableCoins.postValue(filterByBelongTo(coins));
-            }
-        });
+        loadCoins();
+        context.getSharedPreferences(Utilities.PREFERENCE_SECRET, Context.MODE_PRIVATE)
+                .registerOnSharedPreferenceChangeListener(mBelongToListener);
     }
 
     public String getBelongTo() {
@@ -69,21 +76,36 @@ public class DataRepository {
     }
 
     public LiveData<List<CoinEntity>> loadCoins() {
+        // the observed coins follow the vault, which changes when a passphrase is entered;
+        // also called from the belongTo preference listener so observers switch without reloading
+        String belongTo = getBelongTo();
+        if (!belongTo.equals(mCoinsBelongTo)) {
+            if (mCoinsSource != null) {
+                mObservableCoins.removeSource(mCoinsSource);
+            }
+            mCoinsBelongTo = belongTo;
+            mCoinsSource = mDb.coinDao().loadAllCoins(belongTo);
+            mObservableCoins.addSource(mCoinsSource, coins -> {
+                if (mDb.getDatabaseCreated().getValue() != null) {
+                    mObservableCoins.postValue(coins);
+                }
+            });
+        }
         return mObservableCoins;
     }
 
     public LiveData<List<CoinEntity>> reloadCoins() {
         MediatorLiveData<List<CoinEntity>> coins = new MediatorLiveData<>();
-        coins.addSource(mDb.coinDao().loadAllCoins(), coinEntities -> {
+        coins.addSource(mDb.coinDao().loadAllCoins(getBelongTo()), coinEntities -> {
             if (mDb.getDatabaseCreated().getValue() != null) {
-                coins.postValue(filterByBelongTo(coinEntities));
+                coins.postValue(coinEntities);
             }
         });
         return coins;
     }
 
     public List<CoinEntity> loadCoinsSync() {
-        return filterByBelongTo(mDb.coinDao().loadAllCoinsSync());
+        return mDb.coinDao().loadAllCoinsSync(getBelongTo());
     }
 
     public void updateCoin(Coin coin) {
@@ -123,15 +145,15 @@ public class DataRepository {
     }
 
     public LiveData<List<TxEntity>> loadTxs(String coinId) {
-        return mDb.txDao().loadTxs(coinId);
+        return mDb.txDao().loadTxs(coinId, getBelongTo());
     }
 
     public List<TxEntity> loadElectrumTxsSync(String coinId) {
-        return mDb.txDao().loadElectrumTxsSync(coinId);
+        return mDb.txDao().loadElectrumTxsSync(coinId, getBelongTo());
     }
 
     public List<TxEntity> loadAllTxSync(String coinId) {
-        return mDb.txDao().loadTxsSync(coinId);
+        return mDb.txDao().loadTxsSync(coinId, getBelongTo());
     }
 
     public LiveData<TxEntity> loadTx(String txId) {
@@ -150,6 +172,10 @@ public class DataRepository {
         mDb.runInTransaction(() -> mDb.coinDao().insertAll(coins));
     }
 
+    public void runInTransaction(Runnable body) {
+        mDb.runInTransaction(body);
+    }
+
     public long insertCoin(CoinEntity coin) {
         return mDb.coinDao().insert(coin);
     }
@@ -158,18 +184,8 @@ public class DataRepository {
         mDb.clearAllTables();
     }
 
-    private List<CoinEntity> filterByBelongTo(List<CoinEntity> coins) {
-        String belongTo = Utilities.getCurrentBelongTo(context);
-        return coins.isEmpty() ? Collections.emptyList()
-                :
-                coins.stream()
-                        .filter(coin -> belongTo.equals(coin.getBelongTo()))
-                        .collect(Collectors.toList());
-    }
-
-
     public LiveData<List<WhiteListEntity>> loadWhiteList() {
-        return mDb.whiteListDao().load();
+        return mDb.whiteListDao().load(getBelongTo());
     }
 
     public void insertWhiteList(WhiteListEntity entity) {
@@ -181,7 +197,7 @@ public class DataRepository {
     }
 
     public WhiteListEntity queryWhiteList(String address) {
-        return mDb.whiteListDao().queryAddress(address, Utilities.getCurrentBelongTo(context));
+        return mDb.whiteListDao().queryAddress(address, getBelongTo());
     }
 
     public void insertAccount(AccountEntity account) {
@@ -29,9 +29,13 @@ import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 
+import com.cobo.coinlib.coins.DerivationEngine;
 import com.cobo.coinlib.v8.ScriptLoader;
+import com.cobo.coinlib.v8.V8RuntimePool;
 import com.cobo.cold.db.AppDatabase;
 import com.cobo.cold.encryption.EncryptionCoreProvider;
+import com.cobo.cold.encryption.ResponseCache;
+import com.cobo.cold.encryption.VaultChangeNotifier;
 import com.cobo.cold.logging.FileLogger;
 import com.cobo.cold.service.AttackCheckingService;
 import com.cobo.cold.ui.MainActivity;
@@ -61,6 +65,8 @@ public class MainApplication extends Application {
     public void onCreate() {
         super.onCreate();
         mAppExecutors = AppExecutors.getInstance();
+        VaultChangeNotifier.register(ResponseCache.getInstance()::invalidate);
+        VaultChangeNotifier.register(DerivationEngine.sInstance::clear);
         EncryptionCoreProvider.getInstance().initialize(this);
         mAppExecutors.diskIO().execute(() -> {
             FileLogger.init(this);
@@ -146,6 +152,7 @@ public class MainApplication extends Application {
         public void onReceive(Context context, Intent intent) {
             String action = intent.getAction();
             if (Intent.ACTION_SCREEN_OFF.equals(action)) {
+                V8RuntimePool.sInstance.releaseAll();
                 Activity activity = topActivity.get();
                 if (!(activity instanceof UnlockActivity)
                         && Utilities.hasVaultCreated(activity)
@@ -28,6 +28,7 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.FragmentActivity;
 
+import com.cobo.cold.encryption.VaultChangeNotifier;
 import com.cobo.cold.ui.modal.ModalDialog;
 
 import static android.content.Context.MODE_PRIVATE;
@@ -57,6 +58,8 @@ public class Utilities {
     public static final String ATTACK_DETECTED = "attack_detected";
     public static final String INPUT_SETTINGS_CLEARED = "input_settings_cleared";
 
+    private static volatile String sCurrentBelongTo;
+
     public static void alert(AppCompatActivity activity,
                              @Nullable String title, @NonNull String message,
                              String buttonText, Runnable action) {
@@ -132,12 +135,23 @@ public class Utilities {
 
     public static void setCurrentBelongTo(Context context, String s) {
         SharedPreferences sp = context.getSharedPreferences(PREFERENCE_SECRET, MODE_PRIVATE);
+        if (!s.equals(sp.getString(PREFERENCE_KEY_BELONG_TO, ""))) {
+            VaultChangeNotifier.notifyVaultChanged();
+        }
+        // set before the write so preference listeners already read the new vault
+        sCurrentBelongTo = s;
         sp.edit().putString(PREFERENCE_KEY_BELONG_TO, s).apply();
     }
 
+    // read by every database query, so kept in memory after the first read
     public static String getCurrentBelongTo(Context context) {
-        SharedPreferences sp = context.getSharedPreferences(PREFERENCE_SECRET, MODE_PRIVATE);
-        return sp.getString(PREFERENCE_KEY_BELONG_TO, "");
+        String belongTo = sCurrentBelongTo;
+        if (belongTo == null) {
+            SharedPreferences sp = context.getSharedPreferences(PREFERENCE_SECRET, MODE_PRIVATE);
+            belongTo = sp.getString(PREFERENCE_KEY_BELONG_TO, "");
+            sCurrentBelongTo = belongTo;
+        }
+        return belongTo;
     }
 
     public static void setPasswordRetryTimes(Context context, int times) {
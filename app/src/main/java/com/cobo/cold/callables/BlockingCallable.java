@@ -21,52 +21,77 @@ import androidx.annotation.NonNull;
 
 import com.cobo.cold.encryption.EncryptionCoreProvider;
 import com.cobo.cold.encryptioncore.base.Packet;
-import com.cobo.cold.encryptioncore.interfaces.Callback;
 import com.cobo.cold.encryptioncore.interfaces.JobScheduler;
 
 import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class BlockingCallable implements Callable<Packet> {
+    // deadline of requests the user is waiting on, covering the queue wait and the exchange
+    public static final long INTERACTIVE_DEADLINE_SECONDS = 20;
+
     private final Packet mPacket;
+    private final long mDeadline;
+    private final TimeUnit mUnit;
 
     public BlockingCallable(@NonNull Packet packet) {
+        this(packet, 0, TimeUnit.MILLISECONDS);
+    }
+
+    public BlockingCallable(@NonNull Packet packet, long deadline, @NonNull TimeUnit unit) {
         mPacket = packet;
+        mDeadline = deadline;
+        mUnit = unit;
     }
 
+    /**
+     * queue the packet without blocking, the response code is already checked when the future completes
+     */
     @NonNull
-    @Override
-    public Packet call() throws Exception {
+    public CompletableFuture<Packet> submit() {
         final JobScheduler jobScheduler = EncryptionCoreProvider.getInstance().getImpl();
+        return jobScheduler.submit(mPacket, mDeadline, mUnit);
+    }
 
-        final CountDownLatch mLatch = new CountDownLatch(1);
-        final AtomicReference<Object> reference = new AtomicReference<>();
-
-        jobScheduler.offer(mPacket, new Callback() {
-            @Override
-            public void onSuccess(@NonNull Packet packet) {
-                reference.set(packet);
-                mLatch.countDown();
-            }
-
-            @Override
-            public void onFail(@NonNull Exception exception) {
-                reference.set(exception);
-                mLatch.countDown();
+    /**
+     * map the response of a submitted packet, cancelling the result also cancels the queued packet
+     */
+    @NonNull
+    static <T> CompletableFuture<T> transform(@NonNull CompletableFuture<Packet> source,
+                                              @NonNull Function<Packet, T> function) {
+        final CompletableFuture<T> result = source.thenApply(function);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                source.cancel(false);
             }
         });
+        return result;
+    }
 
-        mLatch.await();
-
-        final Object result = reference.get();
+    @NonNull
+    @Override
+    public Packet call() throws Exception {
+        return await(submit());
+    }
 
-        if (result instanceof Packet) {
-            return (Packet) result;
-        } else if (result instanceof Exception) {
-            throw (Exception) result;
-        } else {
-            throw new IllegalStateException("zero result");
+    /**
+     * block on a future from {@link #submit()} or composed from it, the job is cancelled if the waiting thread is interrupted
+     */
+    static <T> T await(@NonNull CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
         }
     }
-}
\ No newline at end of file
+}
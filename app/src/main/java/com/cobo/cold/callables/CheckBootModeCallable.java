@@ -31,7 +31,8 @@ public class CheckBootModeCallable implements Callable<Boolean> {
     public Boolean call() {
         try {
             final Callable<Packet> callable = new BlockingCallable(
-                    new Packet.Builder(CONSTANTS.METHODS.GET_FIRMWARE_STATUS).build());
+                    new Packet.Builder(CONSTANTS.METHODS.GET_FIRMWARE_STATUS)
+                            .setPriority(Packet.PRIORITY_HIGH).build());
             final Packet result = callable.call();
             final Payload payload = result.getPayload(CONSTANTS.TAGS.BOOT_VERSION);
             return payload != null;
@@ -17,30 +17,47 @@
 
 package com.cobo.cold.callables;
 
+import androidx.annotation.NonNull;
+
 import com.cobo.cold.encryption.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class GetMessageCallable implements Callable<String> {
-    @Override
-    public String call() {
-        try {
 
-            final Packet packet = new Packet.Builder(CONSTANTS.METHODS.GET_MESSAGE)
-                    .build();
-            final Callable<Packet> callable = new BlockingCallable(packet);
-            final Packet result = callable.call();
+    /**
+     * queue the request without blocking
+     *
+     * @return the message to be signed for fingerprint verification, in hex
+     */
+    @NonNull
+    public CompletableFuture<String> submit() {
+        final Packet packet = new Packet.Builder(CONSTANTS.METHODS.GET_MESSAGE)
+                .setPriority(Packet.PRIORITY_HIGH)
+                .build();
+        final BlockingCallable callable = new BlockingCallable(packet,
+                BlockingCallable.INTERACTIVE_DEADLINE_SECONDS, TimeUnit.SECONDS);
+        return BlockingCallable.transform(callable.submit(), result -> {
             final Payload payload = result.getPayload(CONSTANTS.TAGS.MESSAGE);
-
             if (payload != null) {
                 return payload.toHex();
             }
+            return null;
+        });
+    }
+
+    @Override
+    public String call() {
+        try {
+            return BlockingCallable.await(submit());
         } catch (Exception e) {
             e.printStackTrace();
         }
 
         return null;
     }
-}
\ No newline at end of file
+}
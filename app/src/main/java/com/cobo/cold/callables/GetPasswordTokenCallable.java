@@ -24,6 +24,8 @@ import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class GetPasswordTokenCallable implements Callable<String> {
 
@@ -33,19 +35,33 @@ public class GetPasswordTokenCallable implements Callable<String> {
         this.password = password;
     }
 
-    @Override
-    public String call() {
-        final Callable<Packet> callable = new BlockingCallable(
+    /**
+     * queue the request without blocking
+     *
+     * @return the auth token, null if the firmware did not return one
+     */
+    @NonNull
+    public CompletableFuture<String> submit() {
+        final BlockingCallable callable = new BlockingCallable(
                 new Packet.Builder(CONSTANTS.METHODS.VERIFY_USER_PASSWORD)
+                        .setPriority(Packet.PRIORITY_HIGH)
                         .addHexPayload(CONSTANTS.TAGS.CURRENT_PASSWORD, password)
                         .addBytePayload(CONSTANTS.TAGS.NEED_TOKEN, 1)
-                        .build());
-        try {
-            Packet packet = callable.call();
+                        .build(),
+                BlockingCallable.INTERACTIVE_DEADLINE_SECONDS, TimeUnit.SECONDS);
+        return BlockingCallable.transform(callable.submit(), packet -> {
             final Payload payload = packet.getPayload(CONSTANTS.TAGS.AUTH_TOKEN);
             if (payload != null) {
                 return payload.toHex();
             }
+            return null;
+        });
+    }
+
+    @Override
+    public String call() {
+        try {
+            return BlockingCallable.await(submit());
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -33,6 +33,7 @@ public class GetVaultIdCallable implements Callable<String> {
     public String call() {
         final Callable<Packet> callable = new BlockingCallable(
                 new Packet.Builder(CONSTANTS.METHODS.GET_EXTENDED_PUBLICKEY)
+                        .setPriority(Packet.PRIORITY_HIGH)
                         .addTextPayload(CONSTANTS.TAGS.PATH, pubKeyPath).build());
         final Packet result;
         String xPubKey = null;
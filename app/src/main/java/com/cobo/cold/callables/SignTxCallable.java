@@ -17,21 +17,15 @@
 
 package com.cobo.cold.callables;
 
-import androidx.annotation.NonNull;
-
 import com.cobo.coinlib.utils.Coins;
 import com.cobo.cold.encryption.interfaces.CONSTANTS;
-import com.cobo.cold.encryption.signature.Signature;
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
-import com.cobo.cold.encryptioncore.utils.ByteFormatter;
-
-import org.spongycastle.util.encoders.Hex;
 
-import java.math.BigInteger;
-import java.util.Arrays;
-import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static com.cobo.cold.db.PresetData.getCurveByPath;
 
 public class SignTxCallable implements Callable<String> {
 
@@ -47,51 +41,20 @@ public class SignTxCallable implements Callable<String> {
         this.authToken = authToken;
     }
 
-    private static boolean isCanonical(byte[] sigs) {
-        return (sigs[0] & 0x80) == 0
-                && !(sigs[0] == 0 && ((sigs[1] & 0x80) == 0))
-                && (sigs[32] & 0x80) == 0
-                && !(sigs[32] == 0 && ((sigs[33] & 0x80) == 0));
-    }
-
-    private void postIntercept(@NonNull Packet packet) {
-        final String publicKey = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.PUBLIC_KEY_HASH)).toHex();
-        final String signed = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.SIGNED)).toHex();
-
-        final byte[] signBytes = ByteFormatter.hex2bytes(signed);
-        if (!isCanonical(signBytes)) {
-            throw new RuntimeException("couldn't find a canonical signature");
-        }
-
-        final byte[] signR = Arrays.copyOf(signBytes, 32);
-        final byte[] signS = Arrays.copyOfRange(signBytes, 32, 64);
-
-        final BigInteger publicKeyInt = new BigInteger(publicKey, 16);
-        final int recId = Signature.getRecoverIdFromSignature(publicKeyInt, new BigInteger(1, signR), new BigInteger(1, signS), Hex.decode(hash));
-        final byte[] signBytesWithRecId = new byte[signBytes.length + 1];
-
-        System.arraycopy(signBytes, 0, signBytesWithRecId, 0, signBytes.length);
-        signBytesWithRecId[signBytesWithRecId.length - 1] = (byte) recId;
-
-        packet.getPayloads().put(CONSTANTS.TAGS.SIGNED, new Payload(signBytesWithRecId));
-    }
-
     @Override
     public String call() {
         try {
             final Callable<Packet> callable = new BlockingCallable(
                     new Packet.Builder(CONSTANTS.METHODS.SIGN)
+                            .setPriority(Packet.PRIORITY_HIGH)
                             .addTextPayload(CONSTANTS.TAGS.PATH, hdPath)
-                            .addBytePayload(CONSTANTS.TAGS.CURVE, getCurveTag())
+                            .addBytePayload(CONSTANTS.TAGS.CURVE, getCurveTag(curve))
                             .addHexPayload(CONSTANTS.TAGS.AUTH_TOKEN, authToken)
-                            .addHexPayload(CONSTANTS.TAGS.TX_HASH, hash).build());
+                            .addHexPayload(CONSTANTS.TAGS.TX_HASH, hash).build(),
+                    BlockingCallable.INTERACTIVE_DEADLINE_SECONDS, TimeUnit.SECONDS);
+            // secp256k1 signatures come back with the recovery id appended by Secp256k1SignIntercept
             final Packet result = callable.call();
 
-            // secp256k1 should calculate recovery id
-            if (curve == Coins.CURVE.SECP256K1) {
-                postIntercept(result);
-            }
-
             final Payload payload = result.getPayload(CONSTANTS.TAGS.SIGNED);
             if (payload != null) {
                 return payload.toHex();
@@ -102,27 +65,16 @@ public class SignTxCallable implements Callable<String> {
         return null;
     }
 
-    private Coins.CURVE getCurveByPath(String pubKeyPath) {
-        String[] strs = pubKeyPath.split("/");
-        int coinIndex;
-        if (strs[2].endsWith("'")) {
-            coinIndex = Integer.parseInt(strs[2].substring(0, strs[2].length() - 1));
-        } else {
-            coinIndex = Integer.parseInt(strs[2]);
-        }
-        return Coins.curveFromCoinCode(Coins.coinCodeOfIndex(coinIndex));
-    }
-
-    private int getCurveTag() {
-        int value = 0;
+    private static int getCurveTag(Coins.CURVE curve) {
+        int value = CONSTANTS.VALS.CURVE_SECP256K1;
         switch (curve) {
             case SECP256K1:
                 break;
             case SECP256R1:
-                value = 1;
+                value = CONSTANTS.VALS.CURVE_SECP256R1;
                 break;
             case ED25519:
-                value = 2;
+                value = CONSTANTS.VALS.CURVE_ED25519;
                 break;
         }
 
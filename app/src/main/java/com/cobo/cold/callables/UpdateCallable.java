@@ -29,6 +29,9 @@ import com.cobo.cold.encryptioncore.utils.Preconditions;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 public class UpdateCallable implements Callable<Void> {
@@ -46,6 +49,7 @@ public class UpdateCallable implements Callable<Void> {
 
     private final byte[] mUpdateData;
     private String password;
+    private ProgressListener mProgressListener;
 
     public UpdateCallable(@NonNull byte[] updateData, String password) {
         mUpdateData = updateData;
@@ -84,11 +88,13 @@ public class UpdateCallable implements Callable<Void> {
 
         if (!prepareUpdate()) return null;
 
+        final List<Page> pages = splitPages(mUpdateData.length);
+
         for (int i = 1; ; ++i) {
             boolean updateSuccess = true;
 
             try {
-                updating();
+                updating(pages);
             } catch (Exception e) {
                 e.printStackTrace();
 
@@ -100,49 +106,76 @@ public class UpdateCallable implements Callable<Void> {
             } else if (i == UPDATE_RETRY_TIMES) {
                 throw new RuntimeException("update serial out of retry times");
             }
+
+            // WRITE_UPDATE_BYTES carries no offset and the bootloader's cursor can't be
+            // queried, so a page whose reply was lost may already have been written;
+            // every attempt restarts the image from the START page
+            Log.w(TAG, "restart from the first page");
         }
 
         return null;
     }
 
-    private void updating() throws Exception {
-        final byte[] readBuffer = new byte[CONSTANTS.CONFIG.PAGE_SIZE];
+    public UpdateCallable setProgressListener(ProgressListener listener) {
+        mProgressListener = listener;
+        return this;
+    }
 
-        try (InputStream inputStream = new ByteArrayInputStream(mUpdateData)) {
-            byte[] header = new byte[METADATA_SIZE];
-            // skip metadata
-            inputStream.read(header);
+    static List<Page> splitPages(int dataLength) {
+        final int pageSize = CONSTANTS.CONFIG.PAGE_SIZE;
+        final int packageSize = dataLength - METADATA_SIZE;
+        final List<Page> pages = new ArrayList<>((packageSize + pageSize - 1) / pageSize);
 
-            int read;
-            final int packageSize = mUpdateData.length - METADATA_SIZE;
-            int packageIndex = 0;
-            int readPosition = 0;
+        for (int position = 0; position < packageSize; position += pageSize) {
+            final int length = Math.min(pageSize, packageSize - position);
+            pages.add(new Page(pages.size(), METADATA_SIZE + position, length,
+                    calculatePackageType(packageSize, position, length)));
+        }
+        return pages;
+    }
 
-            while ((read = inputStream.read(readBuffer)) > 0) {
-                final byte[] availableBuffer = fitBuffer(readBuffer, read);
-                final int type = calculatePackageType(packageSize, readPosition, read);
-                for (int i = 1; i <= PACKET_RETRY_TIMES; ++i) {
-                    if (writeUpdateBytes(packageIndex, availableBuffer, type, i)) break;
-                }
-                readPosition += read;
-                ++packageIndex;
-            }
+    private void updating(List<Page> pages) throws Exception {
+        // pages + header
+        final int total = pages.size() + 1;
+
+        for (Page page : pages) {
+            final Packet packet = buildPagePacket(page.type,
+                    Arrays.copyOfRange(mUpdateData, page.offset, page.offset + page.length));
             for (int i = 1; i <= PACKET_RETRY_TIMES; ++i) {
-                if (writeHeaderBytes(header)) break;
+                if (writeUpdateBytes(page.index, packet, i)) break;
             }
+            notifyProgress(page.index + 1, total);
+        }
+
+        final Packet header = buildPagePacket(TYPE_PACKAGE_HEADER,
+                Arrays.copyOfRange(mUpdateData, 0, METADATA_SIZE));
+        for (int i = 1; i <= PACKET_RETRY_TIMES; ++i) {
+            if (writeHeaderBytes(header)) break;
         }
+        notifyProgress(total, total);
 
         Thread.sleep(APP_BOOT_SWITCH_TIME);
         Preconditions.checkState(!new CheckBootModeCallable().call(),
                 "update fail, se has still stayed in boot mode");
     }
 
-    private boolean writeHeaderBytes(byte[] header) {
-        final Packet.Builder builder = new Packet.Builder(CONSTANTS.METHODS.WRITE_UPDATE_BYTES)
-                .addBytePayload(CONSTANTS.TAGS.UPDATING_PACKAGE_TYPE, TYPE_PACKAGE_HEADER)
+    private void notifyProgress(int acked, int total) {
+        if (mProgressListener != null) {
+            mProgressListener.onProgress(acked, total);
+        }
+    }
+
+    private Packet buildPagePacket(int type, byte[] data) {
+        return new Packet.Builder(CONSTANTS.METHODS.WRITE_UPDATE_BYTES)
+                .setPriority(Packet.PRIORITY_BULK)
+                .addBytePayload(CONSTANTS.TAGS.UPDATING_PACKAGE_TYPE, type)
                 .addHexPayload(CONSTANTS.TAGS.CURRENT_PASSWORD, password)
-                .addBytesPayload(CONSTANTS.TAGS.UPDATING_PACKAGE, header);
-        final Callable callable = new BlockingCallable(builder.build());
+                .addBytesPayload(CONSTANTS.TAGS.UPDATING_PACKAGE, data)
+                .build();
+    }
+
+    private boolean writeHeaderBytes(Packet header) {
+        final Callable callable = new BlockingCallable(header);
         try {
             callable.call();
             return true;
@@ -152,14 +185,9 @@ public class UpdateCallable implements Callable<Void> {
         return false;
     }
 
-    private boolean writeUpdateBytes(int packageIndex, byte[] availableBuffer, int type, int i) {
+    private boolean writeUpdateBytes(int packageIndex, Packet packet, int i) {
         boolean writeSuccess = true;
-        final Packet.Builder builder = new Packet.Builder(CONSTANTS.METHODS.WRITE_UPDATE_BYTES)
-                .addBytePayload(CONSTANTS.TAGS.UPDATING_PACKAGE_TYPE, type)
-                .addHexPayload(CONSTANTS.TAGS.CURRENT_PASSWORD, password)
-                .addBytesPayload(CONSTANTS.TAGS.UPDATING_PACKAGE, availableBuffer);
-
-        final Callable callable = new BlockingCallable(builder.build());
+        final Callable callable = new BlockingCallable(packet);
 
         try {
             Log.w(TAG, String.format("write the %sth package", packageIndex));
@@ -201,4 +229,29 @@ public class UpdateCallable implements Callable<Void> {
     private boolean requestUpdate() {
         return new RequestUpdateCallable(mUpdateData, password).call();
     }
-}
\ No newline at end of file
+
+    public interface ProgressListener {
+        /**
+         * called on the updating thread once a page is acknowledged by the se
+         *
+         * @param acked pages acknowledged so far in the current attempt, including the
+         *              header page; a retried attempt starts again from the first page
+         * @param total pages of the whole image, including the header page
+         */
+        void onProgress(int acked, int total);
+    }
+
+    static class Page {
+        final int index;
+        final int offset;
+        final int length;
+        final int type;
+
+        Page(int index, int offset, int length, int type) {
+            this.index = index;
+            this.offset = offset;
+            this.length = length;
+            this.type = type;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.cobo.cold.AppExecutors;
@@ -40,11 +41,32 @@ import com.cobo.cold.db.entity.TxEntity;
 import com.cobo.cold.db.entity.WhiteListEntity;
 
 @Database(entities = {CoinEntity.class, AddressEntity.class,
-        TxEntity.class, WhiteListEntity.class, AccountEntity.class}, version = 2)
+        TxEntity.class, WhiteListEntity.class, AccountEntity.class}, version = 3)
 public abstract class AppDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "cobo-vault-db";
     private static AppDatabase sInstance;
 
+    // every query is filtered by the vault the data belongs to
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_coins_belongTo_coinId` "
+                    + "ON `coins` (`belongTo`, `coinId`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_addresses_coinId_belongTo` "
+                    + "ON `addresses` (`coinId`, `belongTo`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_addresses_path_belongTo` "
+                    + "ON `addresses` (`path`, `belongTo`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_txs_coinId_belongTo_timeStamp` "
+                    + "ON `txs` (`coinId`, `belongTo`, `timeStamp`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_white_list_addr_belongTo` "
+                    + "ON `white_list` (`addr`, `belongTo`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_white_list_belongTo` "
+                    + "ON `white_list` (`belongTo`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_accounts_coinId` "
+                    + "ON `accounts` (`coinId`)");
+        }
+    };
+
     public abstract CoinDao coinDao();
 
     public abstract AddressDao addressDao();
@@ -85,7 +107,8 @@ public abstract class AppDatabase extends RoomDatabase {
                         });
                     }
                 })
-                .fallbackToDestructiveMigration()
+                .addMigrations(MIGRATION_2_3)
+                .fallbackToDestructiveMigrationFrom(1)
                 .build();
     }
 
@@ -19,7 +19,9 @@ package com.cobo.cold.db;
 
 import android.content.Context;
 
+import com.cobo.coinlib.exception.InvalidPathException;
 import com.cobo.coinlib.path.CoinPath;
+import com.cobo.coinlib.path.HdPath;
 import com.cobo.coinlib.utils.Coins;
 import com.cobo.cold.Utilities;
 import com.cobo.cold.db.entity.AccountEntity;
@@ -60,13 +62,11 @@ public class PresetData {
     }
 
     public static Coins.CURVE getCurveByPath(String pubKeyPath) {
-        String[] strs = pubKeyPath.split("/");
-        int coinIndex;
-        if (strs[2].endsWith("'")) {
-            coinIndex = Integer.parseInt(strs[2].substring(0, strs[2].length() - 1));
-        } else {
-            coinIndex = Integer.parseInt(strs[2]);
+        try {
+            int coinIndex = HdPath.parse(pubKeyPath).getCoinType();
+            return Coins.curveFromCoinCode(Coins.coinCodeOfIndex(coinIndex));
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException(e.getMessage());
         }
-        return Coins.curveFromCoinCode(Coins.coinCodeOfIndex(coinIndex));
     }
 }
@@ -30,11 +30,11 @@ import java.util.List;
 
 @Dao
 public interface CoinDao {
-    @Query("SELECT * FROM coins")
-    LiveData<List<CoinEntity>> loadAllCoins();
+    @Query("SELECT * FROM coins WHERE belongTo = :belongTo")
+    LiveData<List<CoinEntity>> loadAllCoins(String belongTo);
 
-    @Query("SELECT * FROM coins")
-    List<CoinEntity> loadAllCoinsSync();
+    @Query("SELECT * FROM coins WHERE belongTo = :belongTo")
+    List<CoinEntity> loadAllCoinsSync(String belongTo);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<CoinEntity> coins);
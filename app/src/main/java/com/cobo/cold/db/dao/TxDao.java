@@ -30,14 +30,15 @@ import java.util.List;
 
 @Dao
 public interface TxDao {
-    @Query("SELECT * FROM txs where coinId = :coinId ORDER BY timeStamp DESC")
-    LiveData<List<TxEntity>> loadTxs(String coinId);
+    @Query("SELECT * FROM txs where coinId = :coinId and belongTo = :belongTo ORDER BY timeStamp DESC")
+    LiveData<List<TxEntity>> loadTxs(String coinId, String belongTo);
 
-    @Query("SELECT * FROM txs where coinId = :coinId and signId = 'electrum_sign_id' ORDER BY timeStamp DESC")
-    List<TxEntity> loadElectrumTxsSync(String coinId);
+    @Query("SELECT * FROM txs where coinId = :coinId and belongTo = :belongTo and signId = 'electrum_sign_id' "
+            + "ORDER BY timeStamp DESC")
+    List<TxEntity> loadElectrumTxsSync(String coinId, String belongTo);
 
-    @Query("SELECT * FROM txs where coinId = :coinId")
-    List<TxEntity> loadTxsSync(String coinId);
+    @Query("SELECT * FROM txs where coinId = :coinId and belongTo = :belongTo")
+    List<TxEntity> loadTxsSync(String coinId, String belongTo);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(TxEntity tx);
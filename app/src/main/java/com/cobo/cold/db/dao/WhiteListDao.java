@@ -32,8 +32,8 @@ import java.util.List;
 @Dao
 public interface WhiteListDao {
 
-    @Query("select * from white_list")
-    LiveData<List<WhiteListEntity>> load();
+    @Query("select * from white_list where belongTo = :belongTo")
+    LiveData<List<WhiteListEntity>> load(String belongTo);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(WhiteListEntity entity);
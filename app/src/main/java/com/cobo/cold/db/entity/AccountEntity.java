@@ -21,6 +21,7 @@ import androidx.annotation.NonNull;
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import static androidx.room.ForeignKey.CASCADE;
@@ -28,7 +29,8 @@ import static androidx.room.ForeignKey.CASCADE;
 @Entity(tableName = "accounts",
         foreignKeys = @ForeignKey(entity = CoinEntity.class,
                 parentColumns = "id",
-                childColumns = "coinId", onDelete = CASCADE))
+                childColumns = "coinId", onDelete = CASCADE),
+        indices = {@Index("coinId")})
 
 public class AccountEntity {
 
@@ -30,7 +30,8 @@ import com.cobo.cold.model.Coin;
 import java.util.ArrayList;
 import java.util.List;
 
-@Entity(tableName = "coins", indices = {@Index("id")})
+@Entity(tableName = "coins", indices = {@Index("id"),
+        @Index({"belongTo", "coinId"})})
 public class CoinEntity implements Coin, FilterableItem {
 
     @PrimaryKey(autoGenerate = true)
@@ -26,7 +26,8 @@ import androidx.room.PrimaryKey;
 
 import com.cobo.cold.model.Tx;
 
-@Entity(tableName = "txs", indices = {@Index("txId")})
+@Entity(tableName = "txs", indices = {@Index("txId"),
+        @Index({"coinId", "belongTo", "timeStamp"})})
 
 public class TxEntity implements Tx, FilterableItem {
 
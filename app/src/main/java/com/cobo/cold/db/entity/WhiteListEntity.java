@@ -18,9 +18,11 @@
 package com.cobo.cold.db.entity;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "white_list")
+@Entity(tableName = "white_list", indices = {@Index({"addr", "belongTo"}),
+        @Index("belongTo")})
 
 public class WhiteListEntity {
 
@@ -21,8 +21,12 @@ import android.content.Context;
 import android.os.Looper;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.cobo.cold.encryption.exception.EncryptionCoreException;
+import com.cobo.cold.encryption.interception.Intercept;
+import com.cobo.cold.encryption.interception.InterceptManager;
+import com.cobo.cold.encryption.interception.InterceptManagerGroup;
 import com.cobo.cold.encryption.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
@@ -31,6 +35,9 @@ import com.cobo.cold.encryptioncore.interfaces.JobScheduler;
 import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 public class EncryptionCoreProvider {
     private static final EncryptionCoreProvider sInstance = new EncryptionCoreProvider();
     private JobScheduler mImpl;
@@ -77,6 +84,47 @@ public class EncryptionCoreProvider {
         return Preconditions.checkNotNull(mImpl, "should initialize first");
     }
 
+    /**
+     * keep the response cache consistent once a request has been answered
+     *
+     * @param request    the request sent to the secure element
+     * @param response   the checked response, or null if the request failed
+     * @param generation cache generation when the request was sent
+     */
+    private static void onResponse(@NonNull Packet request, @Nullable Packet response, int generation) {
+        final ResponseCache cache = ResponseCache.getInstance();
+
+        if (ResponseCache.isVaultChanging(request.getId())) {
+            onVaultChanging();
+        } else if (response != null && ResponseCache.isCacheable(request.getId())) {
+            cache.put(request, response, generation);
+        }
+    }
+
+    /**
+     * drop everything derived from the keys of the current vault, eg: on reset or passphrase change
+     */
+    private static void onVaultChanging() {
+        VaultChangeNotifier.notifyVaultChanged();
+    }
+
+    /**
+     * create the post-processing stage registered for the packet, and let it see the request
+     *
+     * @param request the request about to be sent
+     * @return the intercept, or null if none is registered for the method
+     */
+    @Nullable
+    private static Intercept intercept(@NonNull Packet request) {
+        final InterceptManager manager = InterceptManagerGroup.get(request.getId());
+        if (manager == null) {
+            return null;
+        }
+        final Intercept intercept = manager.getIntercept();
+        intercept.preIntercept(request);
+        return intercept;
+    }
+
     private static class JobSchedulerWrapper implements JobScheduler {
         private final JobScheduler mBase;
 
@@ -84,18 +132,75 @@ public class EncryptionCoreProvider {
             mBase = Preconditions.checkNotNull(base);
         }
 
+        @Nullable
+        private static Packet lookup(@NonNull Packet packet) {
+            final ResponseCache cache = ResponseCache.getInstance();
+
+            if (ResponseCache.isCacheable(packet.getId())) {
+                return cache.get(packet);
+            }
+            if (ResponseCache.isVaultChanging(packet.getId())) {
+                onVaultChanging();
+            }
+            return null;
+        }
+
         @Override
         public void offer(@NonNull Packet packet, @NonNull Callback callback) {
-            mBase.offer(packet, new CallbackWrapper(packet.getId(), callback));
+            final Packet cached = lookup(packet);
+            if (cached != null) {
+                callback.onSuccess(cached);
+                return;
+            }
+            final int generation = ResponseCache.getInstance().generation();
+            mBase.offer(packet, new CallbackWrapper(packet, generation, intercept(packet), callback));
+        }
+
+        @NonNull
+        @Override
+        public CompletableFuture<Packet> submit(@NonNull Packet packet, long deadline, @NonNull TimeUnit unit) {
+            final Packet cached = lookup(packet);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            final int generation = ResponseCache.getInstance().generation();
+            final Intercept intercept = intercept(packet);
+            final CompletableFuture<Packet> base = mBase.submit(packet, deadline, unit);
+            final CompletableFuture<Packet> checked = base.thenApply(result -> {
+                checkRawResponse(packet.getId(), result);
+                if (intercept != null) {
+                    intercept.postIntercept(result);
+                }
+                return result;
+            });
+            // dependent stages do not cancel their source, forward it so the queued job is dropped
+            checked.whenComplete((result, error) -> {
+                if (checked.isCancelled()) {
+                    base.cancel(false);
+                }
+                onResponse(packet, result, generation);
+            });
+            return checked;
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return mBase.getQueueDepth();
         }
     }
 
     private static class CallbackWrapper implements Callback {
-        private final int mId;
+        private final Packet mRequest;
+        private final int mGeneration;
+        @Nullable
+        private final Intercept mIntercept;
         private final Callback mBase;
 
-        private CallbackWrapper(int id, @NonNull Callback base) {
-            mId = id;
+        private CallbackWrapper(@NonNull Packet request, int generation, @Nullable Intercept intercept,
+                                @NonNull Callback base) {
+            mRequest = request;
+            mGeneration = generation;
+            mIntercept = intercept;
             mBase = Preconditions.checkNotNull(base);
         }
 
@@ -103,17 +208,22 @@ public class EncryptionCoreProvider {
         public void onSuccess(@NonNull Packet packet) {
 
             try {
-                checkRawResponse(mId, packet);
+                checkRawResponse(mRequest.getId(), packet);
+                if (mIntercept != null) {
+                    mIntercept.postIntercept(packet);
+                }
             } catch (Exception e) {
                 onFail(e);
                 return;
             }
 
+            onResponse(mRequest, packet, mGeneration);
             mBase.onSuccess(packet);
         }
 
         @Override
         public void onFail(@NonNull Exception exception) {
+            onResponse(mRequest, null, mGeneration);
             mBase.onFail(exception);
         }
     }
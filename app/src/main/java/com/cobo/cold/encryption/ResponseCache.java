@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryption;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+
+import com.cobo.cold.encryption.interfaces.CONSTANTS;
+import com.cobo.cold.encryptioncore.base.Packet;
+import com.cobo.cold.encryptioncore.base.Payload;
+import com.cobo.cold.encryptioncore.utils.ByteFormatter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the responses of secure element reads that cannot change while the
+ * same vault is loaded, keyed by method id and request payloads.
+ * <p>
+ * Everything is dropped when a request that replaces the seed or passphrase
+ * is sent, and when the app switches between the main and the hidden vault.
+ * A read that was in flight across such a change is not stored.
+ * <p>
+ * Packets are mutable, eg: intercepts replace payloads in place, so a snapshot
+ * of the response is stored and every caller gets its own copy of it.
+ */
+public class ResponseCache {
+    private static final String TAG = "Vault.ResponseCache";
+    private static final ResponseCache sInstance = new ResponseCache();
+
+    private final ConcurrentHashMap<String, Packet> mResponses = new ConcurrentHashMap<>();
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+
+    @NonNull
+    public static ResponseCache getInstance() {
+        return sInstance;
+    }
+
+    static boolean isCacheable(int id) {
+        return id == CONSTANTS.METHODS.GET_EXTENDED_PUBLICKEY;
+    }
+
+    static boolean isVaultChanging(int id) {
+        switch (id) {
+            case CONSTANTS.METHODS.RESET:
+            case CONSTANTS.METHODS.WRITE_MNEMONIC:
+            case CONSTANTS.METHODS.UPDATE_PASSPHRASE:
+            case CONSTANTS.METHODS.REQUEST_UPDATE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @NonNull
+    private static String keyOf(@NonNull Packet request) {
+        final StringBuilder builder = new StringBuilder(ByteFormatter.addHexPrefix(request.getId()));
+        final SparseArrayCompat<Payload> payloads = request.getPayloads();
+
+        for (int i = 0, size = payloads.size(); i < size; ++i) {
+            final Payload payload = payloads.valueAt(i);
+            builder.append(':').append(payloads.keyAt(i)).append('=');
+            if (payload != null) {
+                builder.append(ByteFormatter.bytes2hex(payload.getValue()));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return the cached response, or null if the request has to go to the secure element
+     */
+    @Nullable
+    Packet get(@NonNull Packet request) {
+        final Packet response = mResponses.get(keyOf(request));
+        if (response != null) {
+            mHits.incrementAndGet();
+            return copyOf(response);
+        }
+        mMisses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @return the generation to pass to {@link #put(Packet, Packet, int)} once the response arrives
+     */
+    int generation() {
+        return mGeneration.get();
+    }
+
+    void put(@NonNull Packet request, @NonNull Packet response, int generation) {
+        final String key = keyOf(request);
+        final Packet snapshot = copyOf(response);
+        mResponses.put(key, snapshot);
+        // invalidated while the request was in flight, the response may belong to the old vault
+        if (mGeneration.get() != generation) {
+            mResponses.remove(key, snapshot);
+        }
+    }
+
+    /**
+     * copy a packet with its own payload map and values, detached from the received frame
+     */
+    @NonNull
+    private static Packet copyOf(@NonNull Packet packet) {
+        final Packet.Builder builder = new Packet.Builder(packet.getId())
+                .setRetryTimes(packet.getRetryTimes())
+                .setTimeout(packet.getTimeout())
+                .setPriority(packet.getPriority());
+        final SparseArrayCompat<Payload> payloads = packet.getPayloads();
+
+        for (int i = 0, size = payloads.size(); i < size; ++i) {
+            final Payload payload = payloads.valueAt(i);
+            if (payload != null) {
+                builder.addBytesPayload(payloads.keyAt(i), payload.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * drop every cached response, eg: after reset, passphrase change or a switch to the hidden vault
+     */
+    public void invalidate() {
+        mGeneration.incrementAndGet();
+        mResponses.clear();
+        Log.i(TAG, "invalidated, hits " + mHits.get() + " misses " + mMisses.get());
+    }
+
+    public long getHitCount() {
+        return mHits.get();
+    }
+
+    public long getMissCount() {
+        return mMisses.get();
+    }
+}
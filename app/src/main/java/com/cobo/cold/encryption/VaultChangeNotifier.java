@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryption;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tells whoever holds state derived from the keys of the loaded vault that it is
+ * no longer valid: on reset, on a passphrase change and when the app switches
+ * between the main and the hidden vault. Listeners run on the thread raising the
+ * event, so they should only drop what they hold.
+ */
+public final class VaultChangeNotifier {
+
+    public interface OnVaultChangedListener {
+        void onVaultChanged();
+    }
+
+    private static final List<OnVaultChangedListener> sListeners = new CopyOnWriteArrayList<>();
+
+    private VaultChangeNotifier() {
+    }
+
+    public static void register(@NonNull OnVaultChangedListener listener) {
+        sListeners.add(listener);
+    }
+
+    public static void unregister(@NonNull OnVaultChangedListener listener) {
+        sListeners.remove(listener);
+    }
+
+    public static void notifyVaultChanged() {
+        for (OnVaultChangedListener listener : sListeners) {
+            listener.onVaultChanged();
+        }
+    }
+}
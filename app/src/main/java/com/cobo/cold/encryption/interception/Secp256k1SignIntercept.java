@@ -23,23 +23,15 @@ import com.cobo.cold.encryption.interfaces.CONSTANTS;
 import com.cobo.cold.encryption.signature.Signature;
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
-import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 
-import org.spongycastle.util.encoders.Hex;
-
-import java.math.BigInteger;
-import java.util.Arrays;
 import java.util.Objects;
 
+/**
+ * Appends the recovery id to secp256k1 signatures answered for SIGN packets,
+ * other curves pass through untouched.
+ */
 class Secp256k1SignIntercept implements InterceptManager {
 
-    private static boolean isCanonical(byte[] sigs) {
-        return (sigs[0] & 0x80) == 0
-                && !(sigs[0] == 0 && ((sigs[1] & 0x80) == 0))
-                && (sigs[32] & 0x80) == 0
-                && !(sigs[32] == 0 && ((sigs[33] & 0x80) == 0));
-    }
-
     @Override
     public int getId() {
         return CONSTANTS.METHODS.SIGN;
@@ -52,36 +44,26 @@ class Secp256k1SignIntercept implements InterceptManager {
     }
 
     private static final class InterceptImpl implements Intercept {
-        private String txHash;
+        private byte[] txHash;
 
         @Override
         public void preIntercept(@NonNull Packet packet) {
-            txHash = Objects.requireNonNull(
-                    Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.TX_HASH))
-                            .toHex());
+            final Payload curve = packet.getPayload(CONSTANTS.TAGS.CURVE);
+            if (curve == null || curve.toInt() == CONSTANTS.VALS.CURVE_SECP256K1) {
+                txHash = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.TX_HASH)).getValue();
+            }
         }
 
         @Override
         public void postIntercept(@NonNull Packet packet) {
-            final String publicKey = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.PUBLIC_KEY_HASH)).toHex();
-            final String signed = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.SIGNED)).toHex();
-
-            final byte[] signBytes = ByteFormatter.hex2bytes(signed);
-            if (!isCanonical(signBytes)) {
-                throw new RuntimeException("couldn't find a canonical signature");
+            if (txHash == null) {
+                return;
             }
+            final byte[] publicKey = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.PUBLIC_KEY_HASH)).getValue();
+            final byte[] signBytes = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.SIGNED)).getValue();
 
-            final byte[] signR = Arrays.copyOf(signBytes, 32);
-            final byte[] signS = Arrays.copyOfRange(signBytes, 32, 64);
-
-            final BigInteger publicKeyInt = new BigInteger(publicKey, 16);
-            final int recId = Signature.getRecoverIdFromSignature(publicKeyInt, new BigInteger(1, signR), new BigInteger(1, signS), Hex.decode(txHash));
-            final byte[] signBytesWithRecId = new byte[signBytes.length + 1];
-
-            System.arraycopy(signBytes, 0, signBytesWithRecId, 0, signBytes.length);
-            signBytesWithRecId[signBytesWithRecId.length - 1] = (byte) recId;
-
-            packet.getPayloads().put(CONSTANTS.TAGS.SIGNED, new Payload(signBytesWithRecId));
+            packet.getPayloads().put(CONSTANTS.TAGS.SIGNED,
+                    new Payload(Signature.appendRecoveryId(publicKey, signBytes, txHash)));
         }
 
     }
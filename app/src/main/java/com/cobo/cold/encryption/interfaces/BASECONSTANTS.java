@@ -93,5 +93,8 @@ public abstract class BASECONSTANTS {
         int SUCCESS_RESPONSE = 0x0000;
         int READ_UPDATE_KEY = 0x01;
         int UPDATE_FLASH_START_POSITION = 0x10000000;
+        int CURVE_SECP256K1 = 0x00;
+        int CURVE_SECP256R1 = 0x01;
+        int CURVE_ED25519 = 0x02;
     }
 }
\ No newline at end of file
@@ -27,7 +27,6 @@ import org.spongycastle.crypto.ec.CustomNamedCurves;
 import org.spongycastle.crypto.params.ECDomainParameters;
 import org.spongycastle.math.ec.ECAlgorithms;
 import org.spongycastle.math.ec.ECPoint;
-import org.spongycastle.math.ec.custom.sec.SecP256K1Curve;
 
 import java.math.BigInteger;
 import java.util.Arrays;
@@ -40,31 +39,91 @@ public class Signature {
     private static final ECDomainParameters CURVE = new ECDomainParameters(
             CURVE_PARAMS.getCurve(), CURVE_PARAMS.getG(), CURVE_PARAMS.getN(), CURVE_PARAMS.getH());
 
+    private static boolean isCanonical(byte[] sigs) {
+        return (sigs[0] & 0x80) == 0
+                && !(sigs[0] == 0 && ((sigs[1] & 0x80) == 0))
+                && (sigs[32] & 0x80) == 0
+                && !(sigs[32] == 0 && ((sigs[33] & 0x80) == 0));
+    }
+
+    /**
+     * append the recovery id to a secp256k1 signature
+     *
+     * @param publicKey public key of the signing key, uncompressed without prefix
+     * @param signBytes signature in format R + S
+     * @param message   the signed hash
+     * @return signature in format R + S + recId
+     */
+    @NonNull
+    public static byte[] appendRecoveryId(@NonNull byte[] publicKey, @NonNull byte[] signBytes, @NonNull byte[] message) {
+        Preconditions.checkArgument(signBytes.length == 64, "signature should be 64 bytes");
+        if (!isCanonical(signBytes)) {
+            throw new RuntimeException("couldn't find a canonical signature");
+        }
+
+        final BigInteger signR = new BigInteger(1, Arrays.copyOf(signBytes, 32));
+        final BigInteger signS = new BigInteger(1, Arrays.copyOfRange(signBytes, 32, 64));
+        final int recId = getRecoverId(decodePublicKey(publicKey), signR, signS, message);
+        final byte[] signBytesWithRecId = Arrays.copyOf(signBytes, signBytes.length + 1);
+
+        signBytesWithRecId[signBytesWithRecId.length - 1] = (byte) recId;
+        return signBytesWithRecId;
+    }
+
     public static int getRecoverIdFromSignature(final BigInteger publicKey, @NonNull BigInteger signR, @NonNull BigInteger signS, @NonNull byte[] message) {
         Preconditions.checkNotNull(publicKey, "public key cannot be null");
-        Preconditions.checkArgument(signR.signum() >= 0, "r must be positive");
-        Preconditions.checkArgument(signS.signum() >= 0, "s must be positive");
-        Preconditions.checkNotNull(message, "message cannot be null");
-
-        int recId = -1;
+        final byte[] encoded = new X9IntegerConverter().integerToBytes(publicKey, 64);
+        return getRecoverId(decodePublicKey(encoded), signR, signS, message);
+    }
 
-        for (int i = 0; i < 4; ++i) {
-            final BigInteger k = recoverFromSignature(i, signR, signS, message);
+    /**
+     * The recovery id only encodes the y parity of the nonce point R and whether its x
+     * overflowed the curve order, so instead of trying the four candidate keys R is computed
+     * once from the known public key Q as R = s^-1 * (e * G + r * Q), which doubles as a
+     * verification of the signature.
+     */
+    private static int getRecoverId(@NonNull ECPoint publicKey, @NonNull BigInteger signR, @NonNull BigInteger signS, @NonNull byte[] message) {
+        final BigInteger n = CURVE.getN();
+        Preconditions.checkArgument(signR.signum() > 0 && signR.compareTo(n) < 0, "r out of range");
+        Preconditions.checkArgument(signS.signum() > 0 && signS.compareTo(n) < 0, "s out of range");
+        Preconditions.checkNotNull(message, "message cannot be null");
 
-            if (k != null && k.equals(publicKey)) {
-                recId = i;
-                break;
-            }
+        final BigInteger e = new BigInteger(1, message);
+        final BigInteger sInv = signS.modInverse(n);
+        final BigInteger u1 = e.multiply(sInv).mod(n);
+        final BigInteger u2 = signR.multiply(sInv).mod(n);
+
+        // the wNAF table of G is precomputed by the first call and cached on the point
+        final ECPoint point = ECAlgorithms.sumOfTwoMultiplies(CURVE.getG(), u1, publicKey, u2)
+                .normalize();
+        if (point.isInfinity()) {
+            throw new RuntimeException(
+                    "Could not construct a recoverable key. This should never happen.");
         }
 
-        if (recId == -1) {
+        final BigInteger x = point.getAffineXCoord().toBigInteger();
+        if (!x.mod(n).equals(signR)) {
             throw new RuntimeException(
                     "Could not construct a recoverable key. This should never happen.");
         }
 
+        int recId = point.getAffineYCoord().testBitZero() ? 1 : 0;
+        if (x.compareTo(n) >= 0) {
+            recId |= 2;
+        }
         return recId;
     }
 
+    private static ECPoint decodePublicKey(@NonNull byte[] publicKey) {
+        if (publicKey.length == 64) {
+            final byte[] encoded = new byte[65];
+            encoded[0] = 0x04;
+            System.arraycopy(publicKey, 0, encoded, 1, 64);
+            return CURVE.getCurve().decodePoint(encoded);
+        }
+        return CURVE.getCurve().decodePoint(publicKey);
+    }
+
     public static byte[] decompress(@NonNull final byte[] compressedBytes) {
         Preconditions.checkNotNull(compressedBytes, "key array should not be null");
         Preconditions.checkArgument(compressedBytes.length == 33, String.format("Illegal key bytes length, need 33 but get %s", compressedBytes.length));
@@ -75,97 +134,4 @@ public class Signature {
 
         return Arrays.copyOfRange(unCompressedBytes, 1, unCompressedBytes.length);
     }
-
-    /**
-     * <p>Given the components of a signature and a selector value, recover and return the public
-     * key that generated the signature according to the algorithm in SEC1v2 section 4.1.6.</p>
-     * <p>
-     * <p>The recId is an index from 0 to 3 which indicates which of the 4 possible keys is the
-     * correct one. Because the key recovery operation yields multiple potential keys, the correct
-     * key must either be stored alongside the
-     * signature, or you must be willing to try each recId in turn until you find one that outputs
-     * the key you are expecting.</p>
-     * <p>
-     * <p>If this method returns null it means recovery was not possible and recId should be
-     * iterated.</p>
-     * <p>
-     * <p>Given the above two points, a correct usage of this method is inside a for loop from
-     * 0 to 3, and if the output is null OR a key that is not the one you expect, you try again
-     * with the next recId.</p>
-     *
-     * @param recId   Which possible key to recover.
-     * @param signR   the R components of the signature.
-     * @param signS   the  S components of the signature.
-     * @param message Hash of the data that was signed.
-     * @return An ECKey containing only the public part, or null if recovery wasn't possible.
-     */
-    private static BigInteger recoverFromSignature(final int recId, @NonNull BigInteger signR, @NonNull BigInteger signS, @NonNull byte[] message) {
-        // 1.0 For j from 0 to h   (h == recId here and the loop is outside this function)
-        //   1.1 Let x = r + jn
-        final BigInteger n = CURVE.getN();  // Curve order.
-        final BigInteger i = BigInteger.valueOf((long) recId / 2);
-        final BigInteger x = signR.add(i.multiply(n));
-        //   1.2. Convert the integer x to an octet string X of length mlen using the conversion
-        //        routine specified in Section 2.3.7, where mlen = ⌈(log2 p)/8⌉ or mlen = ⌈m/8⌉.
-        //   1.3. Convert the octet string (16 set binary digits)||X to an elliptic curve point R
-        //        using the conversion routine specified in Section 2.3.4. If this conversion
-        //        routine outputs "invalid", then do another iteration of Step 1.
-        //
-        // More concisely, what these points mean is to use X as a compressed public key.
-
-        final BigInteger prime = SecP256K1Curve.q;
-        if (x.compareTo(prime) >= 0) {
-            // Cannot have point co-ordinates larger than this as everything takes place modulo Q.
-            return null;
-        }
-
-        // Compressed keys require you to know an extra bit of data about the y-coord as there are
-        // two possibilities. So it's encoded in the recId.
-        final ECPoint R = decompressKey(x, (recId & 1) == 1);
-
-        //   1.4. If nR != point at infinity, then do another iteration of Step 1 (callers
-        //        responsibility).
-        if (!R.multiply(n).isInfinity()) {
-            return null;
-        }
-
-        //   1.5. Compute e from M using Steps 2 and 3 of ECDSA signature verification.
-        final BigInteger e = new BigInteger(1, message);
-
-        //   1.6. For k from 1 to 2 do the following.   (loop is outside this function via
-        //        iterating recId)
-        //   1.6.1. Compute a candidate public key as:
-        //               Q = mi(r) * (sR - eG)
-        //
-        // Where mi(x) is the modular multiplicative inverse. We transform this into the following:
-        //               Q = (mi(r) * s ** R) + (mi(r) * -e ** G)
-        // Where -e is the modular additive inverse of e, that is z such that z + e = 0 (mod n).
-        // In the above equation ** is point multiplication and + is point addition (the EC group
-        // operator).
-        //
-        // We can find the additive inverse by subtracting e from zero then taking the mod. For
-        // example the additive inverse of 3 modulo 11 is 8 because 3 + 8 mod 11 = 0, and
-        // -3 mod 11 = 8.
-        final BigInteger eInv = BigInteger.ZERO.subtract(e).mod(n);
-        final BigInteger rInv = signR.modInverse(n);
-        final BigInteger srInv = rInv.multiply(signS).mod(n);
-        final BigInteger eInvrInv = rInv.multiply(eInv).mod(n);
-        final ECPoint q = ECAlgorithms.sumOfTwoMultiplies(CURVE.getG(), eInvrInv, R, srInv);
-        final byte[] qBytes = q.getEncoded(false);
-
-        // We remove the prefix
-        return new BigInteger(1, Arrays.copyOfRange(qBytes, 1, qBytes.length));
-    }
-
-    /**
-     * Decompress a compressed public key (x co-ord and low-bit of y-coord).
-     */
-    private static ECPoint decompressKey(BigInteger xBN, boolean yBit) {
-        final X9IntegerConverter x9 = new X9IntegerConverter();
-        final byte[] compEnc = x9.integerToBytes(xBN, 1 + x9.getByteLength(CURVE.getCurve()));
-
-        compEnc[0] = (byte) (yBit ? 0x03 : 0x02);
-
-        return CURVE.getCurve().decodePoint(compEnc);
-    }
 }
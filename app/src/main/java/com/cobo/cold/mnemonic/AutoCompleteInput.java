@@ -26,7 +26,6 @@ import android.view.View;
 import android.view.inputmethod.CompletionInfo;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.AdapterView;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.ScrollView;
 
@@ -34,17 +33,12 @@ import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.widget.AppCompatAutoCompleteTextView;
-import androidx.collection.ArraySet;
 
-import com.cobo.coinlib.WordList;
+import com.cobo.coinlib.WordIndex;
 import com.cobo.cold.R;
 
-import java.util.Arrays;
-import java.util.Set;
-
 public class AutoCompleteInput extends AppCompatAutoCompleteTextView {
 
-    private static final Set<String> sWordsSet = new ArraySet<>(Arrays.asList(WordList.words));
     @ColorInt
     private static int sNormalTextColor;
     @ColorInt
@@ -59,7 +53,7 @@ public class AutoCompleteInput extends AppCompatAutoCompleteTextView {
         sNormalTextColor = context.getColor(R.color.text);
         sWrongTextColor = context.getColor(R.color.text_wrong);
         InputServant mInputServant = new InputServant(this);
-        setAdapter(new ArrayAdapter<>(context, R.layout.mnemonic_dropdowm_item, WordList.words));
+        setAdapter(new WordAdapter(context));
         setFilterCompleteCallback(mInputServant);
         setOnFocusChangeListener(mInputServant);
         setOnItemClickListener(mInputServant);
@@ -189,7 +183,7 @@ public class AutoCompleteInput extends AppCompatAutoCompleteTextView {
         public void onFocusChange(View v, boolean hasFocus) {
             if (!hasFocus) {
                 final String text = mHost.getText().toString();
-                final boolean valid = sWordsSet.contains(text);
+                final boolean valid = WordIndex.contains(text);
                 mHost.setTextColor(valid ? sNormalTextColor : sWrongTextColor);
             } else {
                 mHost.adjustScroll();
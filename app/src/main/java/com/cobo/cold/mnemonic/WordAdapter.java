@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.mnemonic;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+import android.widget.TextView;
+
+import com.cobo.coinlib.WordIndex;
+import com.cobo.cold.R;
+
+/**
+ * Drop down adapter over the BIP39 word list. Words sharing a prefix are contiguous
+ * in the list, so a filter result is just a range of it looked up in {@link WordIndex}
+ * instead of a scan and copy of all 2048 words as {@link android.widget.ArrayAdapter} does.
+ */
+class WordAdapter extends BaseAdapter implements Filterable {
+
+    private final LayoutInflater mInflater;
+    private final WordFilter mFilter = new WordFilter();
+    private int mStart = 0;
+    private int mCount = WordIndex.WORD_COUNT;
+
+    WordAdapter(Context context) {
+        mInflater = LayoutInflater.from(context);
+    }
+
+    @Override
+    public int getCount() {
+        return mCount;
+    }
+
+    @Override
+    public String getItem(int position) {
+        return WordIndex.word(mStart + position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mStart + position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        TextView view = (TextView) (convertView != null ? convertView
+                : mInflater.inflate(R.layout.mnemonic_dropdowm_item, parent, false));
+        view.setText(getItem(position));
+        return view;
+    }
+
+    @Override
+    public Filter getFilter() {
+        return mFilter;
+    }
+
+    private class WordFilter extends Filter {
+
+        @Override
+        protected FilterResults performFiltering(CharSequence prefix) {
+            FilterResults results = new FilterResults();
+            if (prefix == null || prefix.length() == 0) {
+                results.values = 0;
+                results.count = WordIndex.WORD_COUNT;
+            } else {
+                results.count = WordIndex.prefixCount(prefix);
+                results.values = results.count > 0 ? WordIndex.prefixStart(prefix) : 0;
+            }
+            return results;
+        }
+
+        @Override
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            mStart = (int) results.values;
+            mCount = results.count;
+            if (mCount > 0) {
+                notifyDataSetChanged();
+            } else {
+                notifyDataSetInvalidated();
+            }
+        }
+    }
+}
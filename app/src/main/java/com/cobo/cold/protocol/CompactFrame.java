@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.protocol;
+
+import com.cobo.coinlib.utils.Base43;
+import com.cobo.cold.protocol.fountain.FountainPart;
+
+import java.util.Locale;
+
+/**
+ * Animated qrcode frame written with qrcode alphanumeric characters only, so the
+ * qrcode is encoded in alphanumeric mode at 5.5 bits per character instead of
+ * byte mode at 8. Data is carried in Base43, whose alphabet is a subset of the
+ * alphanumeric set, header fields are separated by '%' which Base43 never uses.
+ * <p>
+ * {@code CV1%<kind>%<flags>%<index or seq>%<total>%<length>%<checksum>%<base43 data>}
+ */
+public class CompactFrame {
+
+    public static final String PREFIX = "CV1%";
+    public static final char KIND_FIXED = 'F';
+    public static final char KIND_FOUNTAIN = 'R';
+    public static final int CHECKSUM_LENGTH = 8;
+
+    private static final char SEPARATOR = '%';
+    private static final int FLAG_COMPRESS = 1;
+    private static final int FLAG_PROTOBUF = 2;
+    private static final String VALUE_TYPE_PROTOBUF = "protobuf";
+    // header of the longest frame we expect to show, fountain sequence numbers keep growing
+    private static final int MAX_HEADER_LENGTH = (PREFIX + "R%3%999999%" + FountainPart.MAX_TOTAL
+            + SEPARATOR + FountainPart.MAX_LENGTH + "%%").length() + CHECKSUM_LENGTH;
+    private static final double BITS_PER_CHAR = Math.log(43) / Math.log(2);
+
+    public final char kind;
+    public final int index;
+    public final int total;
+    public final int length;
+    public final String checkSum;
+    public final boolean compress;
+    public final String valueType;
+    public final byte[] data;
+
+    public CompactFrame(char kind, int index, int total, int length, String checkSum,
+                        boolean compress, String valueType, byte[] data) {
+        this.kind = kind;
+        this.index = index;
+        this.total = total;
+        this.length = length;
+        this.checkSum = checkSum;
+        this.compress = compress;
+        this.valueType = valueType;
+        this.data = data;
+    }
+
+    public static CompactFrame of(FountainPart part) {
+        return new CompactFrame(KIND_FOUNTAIN, part.seq, part.total, part.length, part.checkSum,
+                part.compress, part.valueType, part.data);
+    }
+
+    public FountainPart toFountainPart() {
+        return new FountainPart(index, total, length, checkSum, data, compress, valueType);
+    }
+
+    public static boolean isCompactFrame(String text) {
+        return text.startsWith(PREFIX);
+    }
+
+    /**
+     * @param checkSum hex checksum of the whole message
+     * @return the prefix of it carried by every frame
+     */
+    public static String shortCheckSum(String checkSum) {
+        return checkSum.substring(0, Math.min(CHECKSUM_LENGTH, checkSum.length()))
+                .toUpperCase(Locale.US);
+    }
+
+    /**
+     * @param chars alphanumeric characters a qrcode can hold
+     * @return bytes of data a frame of that size can carry
+     */
+    public static int maxDataLength(int chars) {
+        return Math.max(1, (int) ((chars - MAX_HEADER_LENGTH) * BITS_PER_CHAR / 8) - 1);
+    }
+
+    public static CompactFrame parse(String text) throws IllegalArgumentException {
+        if (!isCompactFrame(text)) {
+            throw new IllegalArgumentException("not a compact frame");
+        }
+        String[] fields = text.substring(PREFIX.length()).split(String.valueOf(SEPARATOR), -1);
+        if (fields.length != 7 || fields[0].length() != 1) {
+            throw new IllegalArgumentException("malformed compact frame");
+        }
+        char kind = fields[0].charAt(0);
+        int flags = Integer.parseInt(fields[1]);
+        int index = Integer.parseInt(fields[2]);
+        int total = Integer.parseInt(fields[3]);
+        int length = Integer.parseInt(fields[4]);
+        String checkSum = fields[5];
+        byte[] data = Base43.decode(fields[6]);
+        boolean valid = kind == KIND_FIXED
+                ? index >= 0 && index < total
+                : kind == KIND_FOUNTAIN && index >= 1 && (long) total * data.length >= length;
+        if (!valid || !FountainPart.isInBounds(total, length) || checkSum.isEmpty()) {
+            throw new IllegalArgumentException("invalid compact frame");
+        }
+        return new CompactFrame(kind, index, total, length, checkSum,
+                (flags & FLAG_COMPRESS) != 0,
+                (flags & FLAG_PROTOBUF) != 0 ? VALUE_TYPE_PROTOBUF : "",
+                data);
+    }
+
+    public String encode() {
+        int flags = (compress ? FLAG_COMPRESS : 0)
+                | (VALUE_TYPE_PROTOBUF.equals(valueType) ? FLAG_PROTOBUF : 0);
+        return PREFIX + kind + SEPARATOR + flags + SEPARATOR + index + SEPARATOR + total
+                + SEPARATOR + length + SEPARATOR + checkSum + SEPARATOR + Base43.encode(data);
+    }
+}
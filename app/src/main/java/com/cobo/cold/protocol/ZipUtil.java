@@ -26,32 +26,32 @@ import java.util.zip.GZIPOutputStream;
 public class ZipUtil {
     public static byte[] zip(byte[] data) {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
-        GZIPOutputStream gzip;
-        try {
-            gzip = new GZIPOutputStream(out);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
             gzip.write(data);
-            gzip.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
         return out.toByteArray();
     }
 
+    /**
+     * @param bytes gzip data
+     * @return the unzipped data, null if it is corrupted
+     */
     public static byte[] unzip(byte[] bytes) {
         if (bytes == null || bytes.length == 0) {
             return null;
         }
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        ByteArrayInputStream in = new ByteArrayInputStream(bytes);
-        try {
-            GZIPInputStream ungzip = new GZIPInputStream(in);
-            byte[] buffer = new byte[256];
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+        try (GZIPInputStream ungzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[4096];
             int n;
             while ((n = ungzip.read(buffer)) >= 0) {
                 out.write(buffer, 0, n);
             }
         } catch (IOException e) {
             e.printStackTrace();
+            return null;
         }
 
         return out.toByteArray();
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.protocol.fountain;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Peeling decoder for {@link FountainEncoder} parts. Each received part is
+ * reduced by the fragments already known, a part left with one fragment solves
+ * it and the solution is propagated through the parts still waiting.
+ */
+public class FountainDecoder {
+
+    private String checkSum;
+    private int length;
+    private int fragmentLength;
+    private boolean compress;
+    private String valueType;
+    private byte[][] fragments;
+    private int solved;
+    private final Set<Integer> received = new HashSet<>();
+    private final List<Mixed> pending = new ArrayList<>();
+
+    /**
+     * @param part a scanned part, a part of another message restarts the decoding
+     * @return false if the part was a duplicate, out of bounds or does not fit the message
+     */
+    public boolean receive(FountainPart part) {
+        if (!FountainPart.isInBounds(part.total, part.length)) {
+            return false;
+        }
+        if (!part.checkSum.equals(checkSum) || part.total != fragments.length) {
+            reset(part);
+        }
+        if (isComplete() || part.data.length != fragmentLength || !received.add(part.seq)) {
+            return false;
+        }
+
+        BitSet indexes = new BitSet(fragments.length);
+        for (int index : part.indexes()) {
+            indexes.set(index);
+        }
+        byte[] data = part.data.clone();
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            if (fragments[i] != null) {
+                xorInto(data, fragments[i]);
+                indexes.clear(i);
+            }
+        }
+        int degree = indexes.cardinality();
+        if (degree == 1) {
+            solve(indexes.nextSetBit(0), data);
+        } else if (degree > 1) {
+            pending.add(new Mixed(indexes, data));
+        }
+        return true;
+    }
+
+    public boolean isComplete() {
+        return fragments != null && solved == fragments.length;
+    }
+
+    public int getFragmentCount() {
+        return fragments == null ? 0 : fragments.length;
+    }
+
+    public int getSolvedCount() {
+        return solved;
+    }
+
+    public String getCheckSum() {
+        return checkSum;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public String getValueType() {
+        return valueType;
+    }
+
+    /**
+     * @return the reassembled message, null until {@link #isComplete()}
+     */
+    public byte[] getMessage() {
+        if (!isComplete()) {
+            return null;
+        }
+        byte[] message = new byte[length];
+        int size = fragmentLength;
+        for (int i = 0, offset = 0; offset < length; i++, offset += size) {
+            System.arraycopy(fragments[i], 0, message, offset, Math.min(size, length - offset));
+        }
+        return message;
+    }
+
+    private void reset(FountainPart part) {
+        checkSum = part.checkSum;
+        length = part.length;
+        compress = part.compress;
+        valueType = part.valueType;
+        fragments = new byte[part.total][];
+        solved = 0;
+        received.clear();
+        pending.clear();
+        fragmentLength = part.data.length;
+    }
+
+    private void solve(int index, byte[] data) {
+        ArrayDeque<Integer> indexes = new ArrayDeque<>();
+        ArrayDeque<byte[]> values = new ArrayDeque<>();
+        indexes.add(index);
+        values.add(data);
+        while (!indexes.isEmpty()) {
+            int i = indexes.poll();
+            byte[] value = values.poll();
+            if (fragments[i] != null) {
+                continue;
+            }
+            fragments[i] = value;
+            solved++;
+            Iterator<Mixed> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                Mixed mixed = iterator.next();
+                if (!mixed.indexes.get(i)) {
+                    continue;
+                }
+                xorInto(mixed.data, value);
+                mixed.indexes.clear(i);
+                int remaining = mixed.indexes.cardinality();
+                if (remaining <= 1) {
+                    iterator.remove();
+                }
+                if (remaining == 1) {
+                    indexes.add(mixed.indexes.nextSetBit(0));
+                    values.add(mixed.data);
+                }
+            }
+        }
+        if (isComplete()) {
+            pending.clear();
+        }
+    }
+
+    static void xorInto(byte[] target, byte[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] ^= source[i];
+        }
+    }
+
+    private static class Mixed {
+        final BitSet indexes;
+        final byte[] data;
+
+        Mixed(BitSet indexes, byte[] data) {
+            this.indexes = indexes;
+            this.data = data;
+        }
+    }
+}
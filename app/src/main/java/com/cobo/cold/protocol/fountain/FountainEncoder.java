@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.protocol.fountain;
+
+/**
+ * Rateless encoder for animated qrcodes. The message is cut into equal
+ * fragments, the first parts carry them in order and every later part XORs a
+ * pseudo random subset of them, so a scanner can finish from any large enough
+ * set of parts instead of waiting for one specific frame to come round again.
+ */
+public class FountainEncoder {
+
+    private final byte[][] fragments;
+    private final int length;
+    private final String checkSum;
+    private final boolean compress;
+    private final String valueType;
+    private int seq;
+
+    /**
+     * @param message        the bytes to transfer
+     * @param fragmentLength max bytes carried by one part
+     * @param checkSum       checksum of the message, identifies it across parts
+     */
+    public FountainEncoder(byte[] message, int fragmentLength, String checkSum,
+                           boolean compress, String valueType) {
+        int count = Math.max(1, (message.length + fragmentLength - 1) / fragmentLength);
+        // spread the bytes evenly so the last fragment carries little padding
+        int size = (message.length + count - 1) / count;
+        fragments = new byte[count][size];
+        for (int i = 0; i < count; i++) {
+            int from = i * size;
+            int to = Math.min(from + size, message.length);
+            if (from < to) {
+                System.arraycopy(message, from, fragments[i], 0, to - from);
+            }
+        }
+        this.length = message.length;
+        this.checkSum = checkSum;
+        this.compress = compress;
+        this.valueType = valueType;
+    }
+
+    public int getFragmentCount() {
+        return fragments.length;
+    }
+
+    public FountainPart nextPart() {
+        seq++;
+        int[] indexes = FountainRandom.chooseFragments(seq, fragments.length, checkSum);
+        byte[] data = fragments[indexes[0]].clone();
+        for (int i = 1; i < indexes.length; i++) {
+            FountainDecoder.xorInto(data, fragments[indexes[i]]);
+        }
+        return new FountainPart(seq, fragments.length, length, checkSum, data, compress, valueType);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.protocol.fountain;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.spongycastle.util.encoders.Base64;
+
+/**
+ * One frame of a fountain coded animated qrcode. It keeps the json envelope of
+ * the fixed frames, with {@code seq} in place of {@code index} so that scanners
+ * can tell the two apart.
+ */
+public class FountainPart {
+    // bounds of a scanned header, the decoder sizes its buffers from these fields
+    public static final int MAX_TOTAL = 9999;
+    public static final int MAX_LENGTH = 1024 * 1024;
+
+    public final int seq;
+    public final int total;
+    public final int length;
+    public final String checkSum;
+    public final byte[] data;
+    public final boolean compress;
+    public final String valueType;
+
+    public FountainPart(int seq, int total, int length, String checkSum, byte[] data,
+                 boolean compress, String valueType) {
+        this.seq = seq;
+        this.total = total;
+        this.length = length;
+        this.checkSum = checkSum;
+        this.data = data;
+        this.compress = compress;
+        this.valueType = valueType;
+    }
+
+    public static boolean isFountainPart(JSONObject object) {
+        return object.has("seq");
+    }
+
+    public static FountainPart fromJson(JSONObject object) throws JSONException {
+        int seq = object.getInt("seq");
+        int total = object.getInt("total");
+        int length = object.getInt("length");
+        String checkSum = object.getString("checkSum");
+        byte[] data;
+        try {
+            data = Base64.decode(object.getString("value"));
+        } catch (RuntimeException e) {
+            throw new JSONException("value is not base64");
+        }
+        if (seq < 1 || !isInBounds(total, length) || checkSum.isEmpty()
+                || (long) total * data.length < length) {
+            throw new JSONException("invalid fountain part");
+        }
+        return new FountainPart(seq, total, length, checkSum, data,
+                object.getBoolean("compress"), object.optString("valueType"));
+    }
+
+    public static boolean isInBounds(int total, int length) {
+        return total >= 1 && total <= MAX_TOTAL && length >= 0 && length <= MAX_LENGTH;
+    }
+
+    public JSONObject toJson() throws JSONException {
+        JSONObject object = new JSONObject();
+        object.put("seq", seq);
+        object.put("total", total);
+        object.put("length", length);
+        object.put("checkSum", checkSum);
+        object.put("value", Base64.toBase64String(data));
+        object.put("compress", compress);
+        object.put("valueType", valueType);
+        return object;
+    }
+
+    int[] indexes() {
+        return FountainRandom.chooseFragments(seq, total, checkSum);
+    }
+}
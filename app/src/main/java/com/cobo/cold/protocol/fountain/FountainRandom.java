@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.protocol.fountain;
+
+import java.util.Arrays;
+
+/**
+ * Deterministic choice of the fragments mixed into a fountain part, both the
+ * encoder and the decoder derive it from the sequence number and checksum alone.
+ * <p>
+ * The first {@code count} parts carry one fragment each in order, later parts
+ * draw a degree from the ideal soliton distribution and XOR that many distinct
+ * fragments, picked by a SplitMix64 generator seeded with the sequence number.
+ */
+final class FountainRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    private FountainRandom(int seq, String checkSum) {
+        state = seed(checkSum) ^ (seq * GOLDEN_GAMMA);
+    }
+
+    static int[] chooseFragments(int seq, int count, String checkSum) {
+        if (seq <= count) {
+            return new int[]{seq - 1};
+        }
+        FountainRandom random = new FountainRandom(seq, checkSum);
+        int degree = random.nextDegree(count);
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = i;
+        }
+        for (int i = 0; i < degree; i++) {
+            int j = i + random.nextInt(count - i);
+            int tmp = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = tmp;
+        }
+        return Arrays.copyOf(indexes, degree);
+    }
+
+    private static long seed(String checkSum) {
+        try {
+            return Long.parseUnsignedLong(checkSum.substring(0, Math.min(16, checkSum.length())), 16);
+        } catch (NumberFormatException e) {
+            return checkSum.hashCode();
+        }
+    }
+
+    private long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private int nextInt(int bound) {
+        return (int) ((nextLong() >>> 1) % bound);
+    }
+
+    // inverse of the ideal soliton cdf, P(d <= D) = 1 / count + 1 - 1 / D
+    private int nextDegree(int count) {
+        double u = (nextLong() >>> 11) * 0x1.0p-53;
+        if (u < 1.0 / count) {
+            return 1;
+        }
+        int degree = (int) (1 / (1 + 1.0 / count - u)) + 1;
+        return Math.min(degree, count);
+    }
+}
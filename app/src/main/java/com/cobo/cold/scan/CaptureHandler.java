@@ -18,27 +18,37 @@ package com.cobo.cold.scan;
 
 import android.os.Handler;
 import android.os.Message;
+import android.util.Log;
 
+import com.cobo.cold.encryptioncore.utils.ByteFormatter;
+import com.cobo.cold.protocol.CompactFrame;
+import com.cobo.cold.protocol.fountain.FountainDecoder;
+import com.cobo.cold.protocol.fountain.FountainPart;
 import com.cobo.cold.scan.camera.CameraManager;
 import com.cobo.cold.scan.common.Constant;
 import com.cobo.cold.scan.decode.DecodeThread;
+import com.cobo.cold.update.utils.Digest;
 import com.google.zxing.Result;
 
 import org.json.JSONException;
 import org.json.JSONObject;
-
-import java.util.Arrays;
-import java.util.Objects;
+import org.spongycastle.util.encoders.Base64;
 
 public final class CaptureHandler extends Handler {
 
+    private static final String TAG = "Vault.Qrcode.CaptureHandler";
+
     private final Host host;
     private final DecodeThread decodeThread;
     private State state;
     private final CameraManager cameraManager;
 
     private StringBuilder result = new StringBuilder();
-    private ScannedData[] mScannedDatas;
+    private final FrameAssembler mAssembler = new FrameAssembler();
+    private FountainDecoder mFountainDecoder;
+    private CompactFrame[] mCompactFrames;
+    private String mCompactCheckSum;
+    private int mCompactCount;
 
     private enum State {
         PREVIEW, SUCCESS, DONE
@@ -64,54 +74,140 @@ public final class CaptureHandler extends Handler {
                 restartPreviewAndDecode();
                 break;
             case Constant.DECODE_SUCCEEDED:
+                // frames keep streaming to the workers, results of frames decoded after the last one are dropped
+                if (state != State.PREVIEW) {
+                    break;
+                }
                 String text = ((Result) message.obj).getText();
+                ScannedData[] res;
                 try {
-                    JSONObject obj = new JSONObject(text);
-                    ScannedData data = ScannedData.fromJson(obj);
-                    if (mScannedDatas == null) {
-                        mScannedDatas = new ScannedData[data.total];
-                    }
-                    if (mScannedDatas[data.index] == null) {
-                        mScannedDatas[data.index] = data;
+                    if (CompactFrame.isCompactFrame(text)) {
+                        res = receiveCompact(text);
+                    } else if (mAssembler.isDuplicate(text)) {
+                        // a frame shown again by the animation, skip the json parsing
+                        res = null;
+                    } else {
+                        JSONObject obj = new JSONObject(text);
+                        if (FountainPart.isFountainPart(obj)) {
+                            res = receive(FountainPart.fromJson(obj));
+                        } else {
+                            res = receive(ScannedData.fromJson(obj));
+                        }
                     }
-                    publishProgress();
                 } catch (JSONException e) {
                     e.printStackTrace();
                     //not json return
                     state = State.SUCCESS;
+                    cameraManager.cancelPreviewFrames();
                     host.handleDecode(text);
                     return;
                 }
 
-                if (Arrays.stream(mScannedDatas).anyMatch(Objects::isNull)) {
-                    state = State.PREVIEW;
-                    cameraManager.requestPreviewFrame(decodeThread.getHandler(),
-                            Constant.DECODE);
-                } else {
+                if (res != null) {
                     state = State.SUCCESS;
-                    host.handleDecode(mScannedDatas);
+                    cameraManager.cancelPreviewFrames();
+                    Log.i(TAG, cameraManager.getMetrics().toString());
+                    host.handleDecode(res);
                 }
 
                 break;
-            case Constant.DECODE_FAILED:
-                state = State.PREVIEW;
-                cameraManager.requestPreviewFrame(decodeThread.getHandler(),
-                        Constant.DECODE);
-                break;
             case Constant.RETURN_SCAN_RESULT:
                 break;
         }
     }
 
-    private void publishProgress() {
-        int scan;
-        scan = (int) Arrays.stream(mScannedDatas).filter(Objects::nonNull).count();
-        host.handleProgress(mScannedDatas.length, scan);
+    private ScannedData[] receive(ScannedData data) {
+        mAssembler.receive(data);
+        host.handleProgress(mAssembler.getTotal(), mAssembler.getReceivedCount());
+        if (!mAssembler.isComplete()) {
+            return null;
+        }
+        return new ScannedData[]{mAssembler.getResult()};
+    }
+
+    // fountain parts may arrive in any order, the message is complete once every fragment is solved
+    private ScannedData[] receive(FountainPart part) {
+        if (mFountainDecoder == null) {
+            mFountainDecoder = new FountainDecoder();
+        }
+        mFountainDecoder.receive(part);
+        host.handleProgress(mFountainDecoder.getFragmentCount(), mFountainDecoder.getSolvedCount());
+        if (!mFountainDecoder.isComplete()) {
+            return null;
+        }
+        ScannedData data = toScannedData(mFountainDecoder.getMessage(), mFountainDecoder.getCheckSum(),
+                mFountainDecoder.isCompress(), mFountainDecoder.getValueType());
+        if (data == null) {
+            mFountainDecoder = null;
+            return null;
+        }
+        return new ScannedData[]{data};
+    }
+
+    private ScannedData[] receiveCompact(String text) {
+        try {
+            return receive(CompactFrame.parse(text));
+        } catch (IllegalArgumentException e) {
+            // a misread frame, keep scanning for the next one
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private ScannedData[] receive(CompactFrame frame) {
+        if (frame.kind == CompactFrame.KIND_FOUNTAIN) {
+            return receive(frame.toFountainPart());
+        }
+        // frames of another message restart the collection
+        if (mCompactFrames == null || mCompactFrames.length != frame.total
+                || !frame.checkSum.equals(mCompactCheckSum)) {
+            mCompactFrames = new CompactFrame[frame.total];
+            mCompactCheckSum = frame.checkSum;
+            mCompactCount = 0;
+        }
+        if (mCompactFrames[frame.index] == null) {
+            mCompactFrames[frame.index] = frame;
+            mCompactCount++;
+        }
+        host.handleProgress(frame.total, mCompactCount);
+        if (mCompactCount < frame.total) {
+            return null;
+        }
+
+        byte[] message = new byte[frame.length];
+        int offset = 0;
+        for (CompactFrame f : mCompactFrames) {
+            if (offset + f.data.length > message.length) {
+                mCompactFrames = null;
+                return null;
+            }
+            System.arraycopy(f.data, 0, message, offset, f.data.length);
+            offset += f.data.length;
+        }
+        ScannedData data = offset == message.length
+                ? toScannedData(message, frame.checkSum, frame.compress, frame.valueType) : null;
+        if (data == null) {
+            mCompactFrames = null;
+            return null;
+        }
+        return new ScannedData[]{data};
+    }
+
+    // the frames checksum is over the base64 value the json frames would have carried
+    private static ScannedData toScannedData(byte[] message, String checkSum, boolean compress,
+                                             String valueType) {
+        String value = Base64.toBase64String(message);
+        String actualCheckSum = ByteFormatter.bytes2hex(Digest.MD5.checksum(value));
+        if (!actualCheckSum.regionMatches(true, 0, checkSum, 0, checkSum.length())) {
+            return null;
+        }
+        return ScannedData.fromMessage(actualCheckSum, message, compress, valueType);
     }
 
 
     public void quitSynchronously() {
         state = State.DONE;
+        Log.i(TAG, cameraManager.getMetrics().toString());
         cameraManager.stopPreview();
         Message quit = Message.obtain(decodeThread.getHandler(), Constant.QUIT);
         quit.sendToTarget();
@@ -125,14 +221,15 @@ public final class CaptureHandler extends Handler {
 
         // Be absolutely sure we don't send any queued up messages
         removeMessages(Constant.DECODE_SUCCEEDED);
-        removeMessages(Constant.DECODE_FAILED);
     }
 
     public void restartPreviewAndDecode() {
         if (state == State.SUCCESS) {
             state = State.PREVIEW;
-            mScannedDatas = null;
-            cameraManager.requestPreviewFrame(decodeThread.getHandler(),
+            mAssembler.reset();
+            mFountainDecoder = null;
+            mCompactFrames = null;
+            cameraManager.requestPreviewFrames(decodeThread.getHandler(),
                     Constant.DECODE);
         }
     }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.cobo.cold.scan;
+
+import com.cobo.cold.encryptioncore.utils.ByteFormatter;
+
+import org.spongycastle.util.encoders.Base64Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.BitSet;
+
+/**
+ * Reassembles the json frames of a multi-part qrcode while they are scanned.
+ * Frames are decoded as soon as every frame before them is known, so the
+ * payload and its digest are ready right after the last frame is seen.
+ */
+final class FrameAssembler {
+
+    private String checkSum;
+    private String checkSumHeader;
+    private int total;
+    private boolean compress;
+    private String valueType;
+    private boolean base64;
+
+    private final BitSet received = new BitSet();
+    private int receivedCount;
+    // values of frames received ahead of the first missing one
+    private String[] pending;
+    private int next;
+
+    private final Base64Encoder base64Encoder = new Base64Encoder();
+    private final byte[] carry = new byte[4];
+    private int carryLength;
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    private MessageDigest digest;
+    private boolean broken;
+
+    void reset() {
+        checkSum = null;
+        checkSumHeader = null;
+        total = 0;
+        received.clear();
+        receivedCount = 0;
+        pending = null;
+        next = 0;
+        carryLength = 0;
+        payload.reset();
+        digest = null;
+        broken = false;
+    }
+
+    /**
+     * Cheap check of the frame header, done before the frame is parsed as json.
+     *
+     * @param text the scanned text
+     * @return true if the frame belongs to the current message and was already received
+     */
+    boolean isDuplicate(String text) {
+        if (checkSum == null) {
+            return false;
+        }
+        int index = headerInt(text, "\"index\":");
+        return index >= 0 && index < total && received.get(index)
+                && text.contains(checkSumHeader);
+    }
+
+    /**
+     * @param frame a scanned frame, a frame of another message restarts the assembling
+     */
+    void receive(ScannedData frame) {
+        if (!frame.checkSum.equals(checkSum) || frame.total != total) {
+            start(frame);
+        }
+        if (received.get(frame.index)) {
+            return;
+        }
+        received.set(frame.index);
+        receivedCount++;
+        pending[frame.index] = frame.value;
+        while (next < total && pending[next] != null) {
+            append(pending[next]);
+            pending[next++] = null;
+        }
+    }
+
+    int getTotal() {
+        return total;
+    }
+
+    int getReceivedCount() {
+        return receivedCount;
+    }
+
+    boolean isComplete() {
+        return total > 0 && next == total;
+    }
+
+    /**
+     * @return the assembled message, its data is null if the frames could not be
+     * decoded or do not match their checksum
+     */
+    ScannedData getResult() {
+        if (!isComplete()) {
+            return null;
+        }
+        byte[] data = broken || carryLength > 0 ? null : payload.toByteArray();
+        String actualCheckSum = ByteFormatter.bytes2hex(digest.digest());
+        // only protobuf payloads have always been checked against their checksum
+        if ("protobuf".equals(valueType) && !checkSum.equals(actualCheckSum)) {
+            data = null;
+        }
+        return ScannedData.fromMessage(checkSum, data, compress, valueType);
+    }
+
+    private void start(ScannedData frame) {
+        reset();
+        checkSum = frame.checkSum;
+        checkSumHeader = "\"checkSum\":\"" + checkSum + "\"";
+        total = frame.total;
+        compress = frame.compress;
+        valueType = frame.valueType;
+        base64 = compress || "protobuf".equals(valueType);
+        pending = new String[total];
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void append(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(bytes);
+        if (!base64) {
+            payload.write(bytes, 0, bytes.length);
+            return;
+        }
+        if (broken) {
+            return;
+        }
+        // frames are not split on base64 quanta, a partial quantum is completed by the next frame
+        int offset = Math.min(carry.length - carryLength, bytes.length);
+        System.arraycopy(bytes, 0, carry, carryLength, offset);
+        carryLength += offset;
+        if (carryLength < carry.length) {
+            return;
+        }
+        int length = (bytes.length - offset) / 4 * 4;
+        try {
+            base64Encoder.decode(carry, 0, carry.length, payload);
+            if (length > 0) {
+                base64Encoder.decode(bytes, offset, length, payload);
+            }
+        } catch (IOException e) {
+            broken = true;
+            return;
+        }
+        carryLength = bytes.length - offset - length;
+        System.arraycopy(bytes, offset + length, carry, 0, carryLength);
+    }
+
+    // reads a non-negative int value following the key, -1 if it is not found
+    private static int headerInt(String text, String key) {
+        int start = text.indexOf(key);
+        if (start < 0) {
+            return -1;
+        }
+        int value = -1;
+        for (int i = start + key.length(); i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = (value < 0 ? 0 : value * 10) + (c - '0');
+            if (value >= 100000) {
+                return -1;
+            }
+        }
+        return value;
+    }
+}
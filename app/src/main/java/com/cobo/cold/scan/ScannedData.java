@@ -17,8 +17,6 @@
 
 package com.cobo.cold.scan;
 
-import android.text.TextUtils;
-
 import androidx.annotation.NonNull;
 
 import org.json.JSONException;
@@ -30,19 +28,20 @@ public class ScannedData {
     public final String checkSum;
     public final String value;
     public final boolean compress;
-    public final String rawString;
     public final String valueType;
+    // the assembled payload, base64 decoded, still compressed if compress is set
+    public final byte[] data;
 
 
     private ScannedData(int index, int total, String checkSum, String value, boolean compress,
-                        String rawString, String valueType) {
+                        String valueType, byte[] data) {
         this.index = index;
         this.total = total;
         this.checkSum = checkSum;
         this.value = value;
         this.compress = compress;
-        this.rawString = rawString;
         this.valueType = valueType;
+        this.data = data;
     }
 
     static ScannedData fromJson(JSONObject jsonObject) throws JSONException {
@@ -52,10 +51,14 @@ public class ScannedData {
         String value = jsonObject.getString("value");
         String valueType = jsonObject.optString("valueType");
         boolean compress = jsonObject.getBoolean("compress");
-        if (index < 0 || total < 1 || index >= total || TextUtils.isEmpty(checkSum)) {
+        if (index < 0 || total < 1 || index >= total || checkSum.isEmpty()) {
             throw new JSONException("");
         }
-        return new ScannedData(index, total, checkSum, value, compress, jsonObject.toString(), valueType);
+        return new ScannedData(index, total, checkSum, value, compress, valueType, null);
+    }
+
+    static ScannedData fromMessage(String checkSum, byte[] data, boolean compress, String valueType) {
+        return new ScannedData(0, 1, checkSum, null, compress, valueType, data);
     }
 
     @NonNull
@@ -67,8 +70,8 @@ public class ScannedData {
                 ", checkSum='" + checkSum + '\'' +
                 ", value='" + value + '\'' +
                 ", compress=" + compress +
-                ", rawString='" + rawString + '\'' +
                 ", valueType='" + valueType + '\'' +
+                ", data=" + (data == null ? 0 : data.length) + " bytes" +
                 '}';
     }
 
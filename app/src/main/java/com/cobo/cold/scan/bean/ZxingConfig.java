@@ -27,15 +27,24 @@ public class ZxingConfig implements Serializable {
     private final int frameColor;
     @ColorRes
     private final int frameLineColor;
+    private final boolean isAnimatedScan;
 
 
     public ZxingConfig(boolean isFullScreenScan,
                        int reactColor,
                        int frameLineColor) {
+        this(isFullScreenScan, reactColor, frameLineColor, false);
+    }
+
+    public ZxingConfig(boolean isFullScreenScan,
+                       int reactColor,
+                       int frameLineColor,
+                       boolean isAnimatedScan) {
 
         this.isFullScreenScan = isFullScreenScan;
         this.frameColor = reactColor;
         this.frameLineColor = frameLineColor;
+        this.isAnimatedScan = isAnimatedScan;
     }
 
     public int getFrameLineColor() {
@@ -50,4 +59,11 @@ public class ZxingConfig implements Serializable {
         return isFullScreenScan;
     }
 
+    /**
+     * @return whether the camera is tuned for reading animated qrcodes rather than for display
+     */
+    public boolean isAnimatedScan() {
+        return isAnimatedScan;
+    }
+
 }
@@ -23,6 +23,7 @@ public class ZxingConfigBuilder {
     private boolean isFullScreenScan = false;
     private int frameColor = R.color.colorAccent;
     private int frameLineColor = -1;
+    private boolean isAnimatedScan = false;
 
     public ZxingConfigBuilder setIsFullScreenScan(boolean isFullScreenScan) {
         this.isFullScreenScan = isFullScreenScan;
@@ -39,7 +40,12 @@ public class ZxingConfigBuilder {
         return this;
     }
 
+    public ZxingConfigBuilder setAnimatedScan(boolean isAnimatedScan) {
+        this.isAnimatedScan = isAnimatedScan;
+        return this;
+    }
+
     public ZxingConfig createZxingConfig() {
-        return new ZxingConfig(isFullScreenScan, frameColor, frameLineColor);
+        return new ZxingConfig(isFullScreenScan, frameColor, frameLineColor, isAnimatedScan);
     }
 }
\ No newline at end of file
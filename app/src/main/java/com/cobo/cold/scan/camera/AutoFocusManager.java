@@ -21,6 +21,8 @@ import android.hardware.Camera;
 import android.os.AsyncTask;
 import android.util.Log;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.concurrent.RejectedExecutionException;
 
 
@@ -30,6 +32,14 @@ final class AutoFocusManager implements Camera.AutoFocusCallback {
 
     private static final long AUTO_FOCUS_INTERVAL_MS = 3000L;
 
+    // continuous modes focus by themselves, a triggered focus would only blur the frames
+    private static final Collection<String> FOCUS_MODES_CALLING_AF = new ArrayList<>(2);
+
+    static {
+        FOCUS_MODES_CALLING_AF.add(Camera.Parameters.FOCUS_MODE_AUTO);
+        FOCUS_MODES_CALLING_AF.add(Camera.Parameters.FOCUS_MODE_MACRO);
+    }
+
     private boolean stopped;
     private boolean focusing;
     private final boolean useAutoFocus;
@@ -38,7 +48,9 @@ final class AutoFocusManager implements Camera.AutoFocusCallback {
 
     AutoFocusManager(Camera camera) {
         this.camera = camera;
-        useAutoFocus = true;
+        String currentFocusMode = camera.getParameters().getFocusMode();
+        useAutoFocus = FOCUS_MODES_CALLING_AF.contains(currentFocusMode);
+        Log.i(TAG, "Current focus mode '" + currentFocusMode + "'; use auto focus? " + useAutoFocus);
         start();
     }
 
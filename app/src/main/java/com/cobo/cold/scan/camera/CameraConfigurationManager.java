@@ -18,10 +18,13 @@ package com.cobo.cold.scan.camera;
 
 import android.content.Context;
 import android.graphics.Point;
+import android.graphics.Rect;
 import android.hardware.Camera;
 import android.util.Log;
 import android.view.SurfaceHolder;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 
 final class CameraConfigurationManager {
@@ -31,6 +34,11 @@ final class CameraConfigurationManager {
     private static final int TEN_DESIRED_ZOOM = 5;
     private static final int DESIRED_SHARPNESS = 30;
 
+    // short side of the preview when scanning animated qrcodes, enough to resolve
+    // the modules in the scan window while keeping the frames cheap to decode
+    private static final int DECODE_PREVIEW_SHORT_SIDE = 720;
+    private static final float MAX_ASPECT_DISTORTION = 0.15f;
+
     private static final Pattern COMMA_PATTERN = Pattern.compile(",");
 
     private Point screenResolution;
@@ -40,7 +48,7 @@ final class CameraConfigurationManager {
     CameraConfigurationManager(Context context) {
     }
 
-    void initFromCameraParameters(Camera camera, SurfaceHolder holder) {
+    void initFromCameraParameters(Camera camera, SurfaceHolder holder, boolean animatedScan) {
         Camera.Parameters parameters = camera.getParameters();
 
         screenResolution = new Point(holder.getSurfaceFrame().width(),
@@ -57,17 +65,29 @@ final class CameraConfigurationManager {
             screenResolutionForCamera.y = screenResolution.x;
         }
 
-        cameraResolution = getCameraResolution(parameters, screenResolutionForCamera);
+        if (animatedScan) {
+            cameraResolution = findDecodePreviewSize(parameters, screenResolutionForCamera);
+        }
+        if (cameraResolution == null) {
+            cameraResolution = getCameraResolution(parameters, screenResolutionForCamera);
+        }
 
 
     }
 
 
-    void setDesiredCameraParameters(Camera camera) {
+    /**
+     * @param scanArea the scan window in camera area coordinates, to tune the camera for
+     *                 animated qrcodes, or null for the generic settings
+     */
+    void setDesiredCameraParameters(Camera camera, Rect scanArea) {
         Camera.Parameters parameters = camera.getParameters();
         Log.d(TAG, "Setting preview size: " + cameraResolution);
         parameters.setPreviewSize(cameraResolution.x, cameraResolution.y);
 
+        if (scanArea != null) {
+            setAnimatedScanParameters(parameters, scanArea);
+        }
         setZoom(parameters);
         //setSharpness(parameters);
         //modify here
@@ -84,6 +104,77 @@ final class CameraConfigurationManager {
     }
 
 
+    // animated qrcodes are read from a stream of frames, so a steady focus and
+    // a short exposure matter more than how the preview looks
+    private void setAnimatedScanParameters(Camera.Parameters parameters, Rect scanArea) {
+        List<String> focusModes = parameters.getSupportedFocusModes();
+        if (focusModes != null) {
+            if (focusModes.contains(Camera.Parameters.FOCUS_MODE_CONTINUOUS_PICTURE)) {
+                parameters.setFocusMode(Camera.Parameters.FOCUS_MODE_CONTINUOUS_PICTURE);
+            } else if (focusModes.contains(Camera.Parameters.FOCUS_MODE_CONTINUOUS_VIDEO)) {
+                parameters.setFocusMode(Camera.Parameters.FOCUS_MODE_CONTINUOUS_VIDEO);
+            }
+        }
+
+        // the highest frame rate, and of those the highest minimum which bounds the exposure time
+        List<int[]> fpsRanges = parameters.getSupportedPreviewFpsRange();
+        if (fpsRanges != null && !fpsRanges.isEmpty()) {
+            int[] best = fpsRanges.get(0);
+            for (int[] range : fpsRanges) {
+                int max = range[Camera.Parameters.PREVIEW_FPS_MAX_INDEX];
+                int bestMax = best[Camera.Parameters.PREVIEW_FPS_MAX_INDEX];
+                if (max > bestMax || (max == bestMax && range[Camera.Parameters.PREVIEW_FPS_MIN_INDEX]
+                        > best[Camera.Parameters.PREVIEW_FPS_MIN_INDEX])) {
+                    best = range;
+                }
+            }
+            Log.d(TAG, "Setting preview fps range: " + best[Camera.Parameters.PREVIEW_FPS_MIN_INDEX]
+                    + "-" + best[Camera.Parameters.PREVIEW_FPS_MAX_INDEX]);
+            parameters.setPreviewFpsRange(best[Camera.Parameters.PREVIEW_FPS_MIN_INDEX],
+                    best[Camera.Parameters.PREVIEW_FPS_MAX_INDEX]);
+        }
+
+        // expose and focus for the screen showing the qrcode, not for the room around it
+        List<Camera.Area> areas = Collections.singletonList(new Camera.Area(scanArea, 1000));
+        if (parameters.getMaxNumMeteringAreas() > 0) {
+            parameters.setMeteringAreas(areas);
+        }
+        if (parameters.getMaxNumFocusAreas() > 0) {
+            parameters.setFocusAreas(areas);
+        }
+    }
+
+    private static Point findDecodePreviewSize(Camera.Parameters parameters, Point screenResolution) {
+        List<Camera.Size> sizes = parameters.getSupportedPreviewSizes();
+        if (sizes == null) {
+            return null;
+        }
+        float screenAspect = (float) screenResolution.x / screenResolution.y;
+        Camera.Size best = null;
+        for (Camera.Size size : sizes) {
+            float aspect = (float) Math.max(size.width, size.height) / Math.min(size.width, size.height);
+            if (Math.abs(aspect - screenAspect) > MAX_ASPECT_DISTORTION) {
+                continue;
+            }
+            if (best == null || isFasterToDecode(size, best)) {
+                best = size;
+            }
+        }
+        return best == null ? null : new Point(best.width, best.height);
+    }
+
+    // the smallest size reaching the desired short side, or the largest one below it
+    private static boolean isFasterToDecode(Camera.Size size, Camera.Size best) {
+        int shortSide = Math.min(size.width, size.height);
+        int bestShortSide = Math.min(best.width, best.height);
+        boolean large = shortSide >= DECODE_PREVIEW_SHORT_SIDE;
+        boolean bestLarge = bestShortSide >= DECODE_PREVIEW_SHORT_SIDE;
+        if (large != bestLarge) {
+            return large;
+        }
+        return large ? shortSide < bestShortSide : shortSide > bestShortSide;
+    }
+
     private static Point getCameraResolution(Camera.Parameters parameters, Point screenResolution) {
 
         String previewSizeValueString = parameters.get("preview-size-values");
@@ -17,6 +17,7 @@
 package com.cobo.cold.scan.camera;
 
 import android.content.Context;
+import android.graphics.ImageFormat;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.hardware.Camera;
@@ -27,7 +28,7 @@ import android.view.SurfaceHolder;
 import com.cobo.cold.R;
 import com.cobo.cold.scan.bean.ZxingConfig;
 import com.cobo.cold.scan.bean.ZxingConfigBuilder;
-import com.google.zxing.PlanarYUVLuminanceSource;
+import com.cobo.cold.scan.common.ScanMetrics;
 
 import java.io.IOException;
 
@@ -42,10 +43,14 @@ public final class CameraManager {
 
     private static final String TAG = "Vault.Qrcode.CameraManager";
 
+    // frames owned by the decoder are not handed back to the camera, one spare keeps the preview streaming
+    private static final int PREVIEW_BUFFER_COUNT = 3;
+
     private static CameraManager cameraManager;
 
     private final Context context;
     private final CameraConfigurationManager configManager;
+    private final ScanMetrics metrics = new ScanMetrics();
     private ZxingConfig config;
     private Camera camera;
     private AutoFocusManager autoFocusManager;
@@ -56,18 +61,19 @@ public final class CameraManager {
     private int requestedCameraId = -1;
     private int requestedFramingRectWidth;
     private int requestedFramingRectHeight;
+    private byte[][] previewBuffers;
     /**
      * Preview frames are delivered here, which we pass on to the registered
-     * handler. Make sure to clear the handler so it will only receive one
-     * message.
+     * handler. Frames are written into the pooled preview buffers, the handler
+     * gives each one back with {@link #releasePreviewFrame(byte[])}.
      */
     private final PreviewCallback previewCallback;
 
     public CameraManager(Context context, ZxingConfig config) {
         this.context = context;
         this.configManager = new CameraConfigurationManager(context);
-        previewCallback = new PreviewCallback(configManager);
-        this.config = config;
+        previewCallback = new PreviewCallback(configManager, metrics);
+        this.config = config != null ? config : new ZxingConfigBuilder().createZxingConfig();
     }
 
     /**
@@ -98,7 +104,7 @@ public final class CameraManager {
 
         if (!initialized) {
             initialized = true;
-            configManager.initFromCameraParameters(theCamera, holder);
+            configManager.initFromCameraParameters(theCamera, holder, config.isAnimatedScan());
             if (requestedFramingRectWidth > 0 && requestedFramingRectHeight > 0) {
                 setManualFramingRect(requestedFramingRectWidth,
                         requestedFramingRectHeight);
@@ -112,7 +118,7 @@ public final class CameraManager {
                 .flatten(); // Save these, temporarily
 
         try {
-            configManager.setDesiredCameraParameters(theCamera);
+            configManager.setDesiredCameraParameters(theCamera, getScanArea());
         } catch (RuntimeException re) {
             // Driver failed
             Log.w(TAG,
@@ -125,7 +131,7 @@ public final class CameraManager {
                 parameters.unflatten(parametersFlattened);
                 try {
                     theCamera.setParameters(parameters);
-                    configManager.setDesiredCameraParameters(theCamera);
+                    configManager.setDesiredCameraParameters(theCamera, getScanArea());
                 } catch (RuntimeException re2) {
                     // Well, darn. Give up
                     Log.w(TAG,
@@ -161,9 +167,15 @@ public final class CameraManager {
     public synchronized void startPreview() {
         Camera theCamera = camera;
         if (theCamera != null && !previewing) {
+            previewBuffers = allocatePreviewBuffers(theCamera);
+            for (byte[] buffer : previewBuffers) {
+                theCamera.addCallbackBuffer(buffer);
+            }
+            theCamera.setPreviewCallbackWithBuffer(previewCallback);
             theCamera.startPreview();
             previewing = true;
             autoFocusManager = new AutoFocusManager(camera);
+            metrics.reset();
         }
     }
 
@@ -176,28 +188,68 @@ public final class CameraManager {
             autoFocusManager = null;
         }
         if (camera != null && previewing) {
+            camera.setPreviewCallbackWithBuffer(null);
             camera.stopPreview();
             previewCallback.setHandler(null, 0);
+            previewBuffers = null;
             previewing = false;
         }
     }
 
     /**
-     * A single preview frame will be returned to the handler supplied. The data
-     * will arrive as byte[] in the message.obj field, with width and height
-     * encoded as message.arg1 and message.arg2, respectively.
+     * Preview frames will be streamed to the handler supplied until
+     * {@link #cancelPreviewFrames()}. The data will arrive as byte[] in the
+     * message.obj field, with width and height encoded as message.arg1 and
+     * message.arg2, respectively. The handler must give every frame back with
+     * {@link #releasePreviewFrame(byte[])}, the camera skips frames while no
+     * buffer is free.
      *
      * @param handler The handler to send the message to.
      * @param message The what field of the message to be sent.
      */
-    public synchronized void requestPreviewFrame(Handler handler, int message) {
-        Camera theCamera = camera;
-        if (theCamera != null && previewing) {
+    public synchronized void requestPreviewFrames(Handler handler, int message) {
+        if (camera != null && previewing) {
             previewCallback.setHandler(handler, message);
-            theCamera.setOneShotPreviewCallback(previewCallback);
         }
     }
 
+    /**
+     * Stops streaming preview frames to the handler, frames already delivered
+     * must still be released.
+     */
+    public synchronized void cancelPreviewFrames() {
+        previewCallback.setHandler(null, 0);
+    }
+
+    /**
+     * Hands a preview frame back to the camera to be filled again.
+     *
+     * @param data A frame delivered by {@link #requestPreviewFrames(Handler, int)}.
+     */
+    public synchronized void releasePreviewFrame(byte[] data) {
+        if (camera == null || !previewing) {
+            return;
+        }
+        // a frame of an earlier preview session is not queued again
+        for (byte[] buffer : previewBuffers) {
+            if (buffer == data) {
+                camera.addCallbackBuffer(data);
+                return;
+            }
+        }
+    }
+
+    private byte[][] allocatePreviewBuffers(Camera theCamera) {
+        Camera.Parameters parameters = theCamera.getParameters();
+        Camera.Size size = parameters.getPreviewSize();
+        int bitsPerPixel = ImageFormat.getBitsPerPixel(parameters.getPreviewFormat());
+        byte[][] buffers = new byte[PREVIEW_BUFFER_COUNT][];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new byte[size.width * size.height * bitsPerPixel / 8];
+        }
+        return buffers;
+    }
+
     public synchronized Rect getFramingRect() {
         if (framingRect == null) {
             if (camera == null) {
@@ -295,37 +347,61 @@ public final class CameraManager {
     }
 
     /**
-     * A factory method to build the appropriate LuminanceSource object based on
-     * the format of the preview buffers, as described by Camera.Parameters.
+     * The scan window in the coordinates of the preview frame as delivered by
+     * the camera. The window is laid out on the portrait screen, a frame is
+     * in the landscape sensor orientation, so the window is rotated 90 degrees
+     * back into the frame instead of rotating the frame into the window.
      *
-     * @param data   A preview frame.
-     * @param width  The width of the image.
-     * @param height The height of the image.
-     * @return A PlanarYUVLuminanceSource instance.
+     * @param width  The width of the preview frame.
+     * @param height The height of the preview frame.
+     * @return The region of the frame to decode, or null before init finished.
      */
-    public PlanarYUVLuminanceSource buildLuminanceSource(byte[] data,
-                                                         int width, int height) {
-        Rect rect = getFramingRectInPreview();
-        if (rect == null) {
-            return null;
+    public synchronized Rect getFramingRectInFrame(int width, int height) {
+        if (config.isFullScreenScan()) {
+            return new Rect(0, 0, width, height);
         }
-        // Go ahead and assume it's YUV rather than die.
+        return getWindowInFrame(width, height);
+    }
 
+    /**
+     * @return the counts of preview frames through the scan pipeline
+     */
+    public ScanMetrics getMetrics() {
+        return metrics;
+    }
 
-        if (config == null) {
-            config = new ZxingConfigBuilder().createZxingConfig();
+    // the scan window in camera area coordinates, which span -1000 to 1000 over the frame
+    private Rect getScanArea() {
+        if (!config.isAnimatedScan()) {
+            return null;
         }
-
-        if (config.isFullScreenScan()) {
-            return new PlanarYUVLuminanceSource(data, width, height, 0,
-                    0, width, height, false);
-        } else {
-            int actionbarHeight = context.getResources().getDimensionPixelSize(R.dimen.toolBarHeight);
-            return new PlanarYUVLuminanceSource(data, width, height, rect.left,
-                    rect.top + actionbarHeight, rect.width(), rect.height(), false);
+        Point cameraResolution = configManager.getCameraResolution();
+        if (cameraResolution == null) {
+            return null;
         }
+        int width = cameraResolution.x;
+        int height = cameraResolution.y;
+        Rect rect = getWindowInFrame(width, height);
+        if (rect == null) {
+            return null;
+        }
+        return new Rect(rect.left * 2000 / width - 1000, rect.top * 2000 / height - 1000,
+                rect.right * 2000 / width - 1000, rect.bottom * 2000 / height - 1000);
+    }
 
-
+    private Rect getWindowInFrame(int width, int height) {
+        Rect rect = getFramingRectInPreview();
+        if (rect == null) {
+            return null;
+        }
+        int actionbarHeight = context.getResources().getDimensionPixelSize(R.dimen.toolBarHeight);
+        // portrait (x, y) is (y, height - 1 - x) in the frame
+        Rect frameRect = new Rect(rect.top + actionbarHeight, height - rect.right,
+                rect.bottom + actionbarHeight, height - rect.left);
+        if (!frameRect.intersect(0, 0, width, height)) {
+            return null;
+        }
+        return frameRect;
     }
 
     public static CameraManager get() {
@@ -20,23 +20,24 @@ import android.graphics.Point;
 import android.hardware.Camera;
 import android.os.Handler;
 import android.os.Message;
-import android.util.Log;
 
-final class PreviewCallback implements Camera.PreviewCallback {
+import com.cobo.cold.scan.common.ScanMetrics;
 
-    private static final String TAG = "Vault.Qrcode.PreviewCallback";
+final class PreviewCallback implements Camera.PreviewCallback {
 
     private final CameraConfigurationManager configManager;
-    private Handler previewHandler;
+    private final ScanMetrics metrics;
+    private volatile Handler previewHandler;
     private int previewMessage;
 
-    PreviewCallback(CameraConfigurationManager configManager) {
+    PreviewCallback(CameraConfigurationManager configManager, ScanMetrics metrics) {
         this.configManager = configManager;
+        this.metrics = metrics;
     }
 
     void setHandler(Handler previewHandler, int previewMessage) {
-        this.previewHandler = previewHandler;
         this.previewMessage = previewMessage;
+        this.previewHandler = previewHandler;
     }
 
     @Override
@@ -47,9 +48,10 @@ final class PreviewCallback implements Camera.PreviewCallback {
             Message message = thePreviewHandler.obtainMessage(previewMessage, cameraResolution.x,
                     cameraResolution.y, data);
             message.sendToTarget();
-            previewHandler = null;
+            metrics.onFrameDelivered();
         } else {
-            Log.d(TAG, "Got preview callback, but no handler or resolution available");
+            // nobody is decoding, the frame is dropped and its buffer filled again
+            camera.addCallbackBuffer(data);
         }
     }
 
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.cobo.cold.scan.common;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the preview frames of a scan through the pipeline: delivered by the
+ * camera, dropped as stale before a worker was free, and decoded. Frames the
+ * camera skipped because no buffer was free never show up, they are the gap
+ * between the delivered rate and the preview fps.
+ */
+public class ScanMetrics {
+
+    private final AtomicInteger delivered = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicInteger decoded = new AtomicInteger();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private volatile long startTime = SystemClock.elapsedRealtime();
+
+    public void reset() {
+        delivered.set(0);
+        dropped.set(0);
+        decoded.set(0);
+        succeeded.set(0);
+        startTime = SystemClock.elapsedRealtime();
+    }
+
+    public void onFrameDelivered() {
+        delivered.incrementAndGet();
+    }
+
+    public void onFrameDropped() {
+        dropped.incrementAndGet();
+    }
+
+    public void onFrameDecoded(boolean success) {
+        decoded.incrementAndGet();
+        if (success) {
+            succeeded.incrementAndGet();
+        }
+    }
+
+    public int getDelivered() {
+        return delivered.get();
+    }
+
+    public int getDropped() {
+        return dropped.get();
+    }
+
+    public int getDecoded() {
+        return decoded.get();
+    }
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - startTime);
+        return String.format(Locale.US,
+                "ScanMetrics{delivered=%d, dropped=%d, decoded=%d, succeeded=%d, "
+                        + "elapsed=%dms, delivered/s=%.1f, decoded/s=%.1f}",
+                delivered.get(), dropped.get(), decoded.get(), succeeded.get(),
+                elapsed, delivered.get() * 1000f / elapsed, decoded.get() * 1000f / elapsed);
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.cobo.cold.scan.decode;
 
+import android.graphics.Rect;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
@@ -23,30 +24,61 @@ import android.os.Message;
 import androidx.annotation.NonNull;
 
 import com.cobo.cold.scan.Host;
+import com.cobo.cold.scan.camera.CameraManager;
 import com.cobo.cold.scan.common.Constant;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.DecodeHintType;
-import com.google.zxing.MultiFormatReader;
 import com.google.zxing.PlanarYUVLuminanceSource;
 import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
 
 import java.util.Map;
 import java.util.Objects;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches streamed preview frames to a small pool of decode workers. Only
+ * the scan window of a frame is copied, into a pooled buffer, and the camera
+ * buffer is handed back right away. A frame waits for a free worker in a
+ * single slot which the next frame takes over, so the workers always decode
+ * the most recent frame.
+ */
 public final class DecodeHandler extends Handler {
 
     private static final String TAG = "Vault.Qrcode.DecodeHandler";
 
+    private static final int WORKER_COUNT = Math.max(1,
+            Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+
     private final Host host;
-    private final MultiFormatReader multiFormatReader;
+    private final Map<DecodeHintType, Object> hints;
+    private final ThreadLocal<QRCodeReader> readers = ThreadLocal.withInitial(QRCodeReader::new);
+    // each worker holds one buffer, one waits in the queue and one is being filled
+    private final BlockingQueue<byte[]> luminancePool = new ArrayBlockingQueue<>(WORKER_COUNT + 2);
+    private final ThreadPoolExecutor executor;
     private boolean running = true;
 
     DecodeHandler(Host host, Map<DecodeHintType, Object> hints) {
-        multiFormatReader = new MultiFormatReader();
-        multiFormatReader.setHints(hints);
         this.host = host;
+        this.hints = hints;
+        executor = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), r -> new Thread(r, "qrcode-decode"),
+                (r, e) -> {
+                    // replace the stale frame waiting for a worker
+                    DecodeTask stale = (DecodeTask) e.getQueue().poll();
+                    if (stale != null) {
+                        stale.recycle();
+                        host.getCameraManager().getMetrics().onFrameDropped();
+                    }
+                    if (e.isShutdown() || !e.getQueue().offer(r)) {
+                        ((DecodeTask) r).recycle();
+                    }
+                });
     }
 
     @Override
@@ -56,57 +88,90 @@ public final class DecodeHandler extends Handler {
         }
         switch (message.what) {
             case Constant.DECODE:
-                decode((byte[]) message.obj, message.arg1, message.arg2);
+                dispatch((byte[]) message.obj, message.arg1, message.arg2);
                 break;
             case Constant.QUIT:
                 running = false;
+                executor.shutdownNow();
                 Objects.requireNonNull(Looper.myLooper()).quit();
                 break;
         }
     }
 
-    private void decode(byte[] data, int width, int height) {
+    private void dispatch(byte[] data, int width, int height) {
+        CameraManager cameraManager = host.getCameraManager();
+        Rect rect = cameraManager.getFramingRectInFrame(width, height);
+        if (rect == null) {
+            cameraManager.releasePreviewFrame(data);
+            return;
+        }
+
+        // qr codes decode in any orientation, so the window is cropped without rotating it
+        int cropWidth = rect.width();
+        int cropHeight = rect.height();
+        byte[] luminance = obtainBuffer(cropWidth * cropHeight);
+        for (int y = 0; y < cropHeight; y++) {
+            System.arraycopy(data, (rect.top + y) * width + rect.left,
+                    luminance, y * cropWidth, cropWidth);
+        }
+        cameraManager.releasePreviewFrame(data);
+
+        executor.execute(new DecodeTask(luminance, cropWidth, cropHeight));
+    }
+
+    private byte[] obtainBuffer(int size) {
+        byte[] buffer = luminancePool.poll();
+        if (buffer == null || buffer.length < size) {
+            buffer = new byte[size];
+        }
+        return buffer;
+    }
+
+    private void decode(byte[] luminance, int width, int height) {
+        PlanarYUVLuminanceSource source = new PlanarYUVLuminanceSource(luminance,
+                width, height, 0, 0, width, height, false);
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
 
+        QRCodeReader reader = readers.get();
         Result rawResult = null;
-        byte[] rotatedData = new byte[data.length];
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                rotatedData[x * height + height - y - 1] = data[x + y * width];
-            }
+        try {
+            rawResult = reader.decode(bitmap, hints);
+        } catch (ReaderException ignored) {
+        } finally {
+            reader.reset();
         }
-        int tmp = width; // Here we are swapping, that's the difference to #11
-        width = height;
-        height = tmp;
-        data = rotatedData;
 
-        PlanarYUVLuminanceSource source = host.getCameraManager()
-                .buildLuminanceSource(data, width, height);
+        host.getCameraManager().getMetrics().onFrameDecoded(rawResult != null);
+        Handler handler = host.getHandler();
+        if (rawResult != null && handler != null) {
+            Message message = Message.obtain(handler,
+                    Constant.DECODE_SUCCEEDED, rawResult);
+            message.sendToTarget();
+        }
+    }
 
+    private class DecodeTask implements Runnable {
+        private final byte[] luminance;
+        private final int width;
+        private final int height;
 
-        if (source != null) {
-            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+        DecodeTask(byte[] luminance, int width, int height) {
+            this.luminance = luminance;
+            this.width = width;
+            this.height = height;
+        }
 
+        @Override
+        public void run() {
             try {
-                rawResult = multiFormatReader.decodeWithState(bitmap);
-            } catch (ReaderException ignored) {
+                decode(luminance, width, height);
             } finally {
-                multiFormatReader.reset();
+                recycle();
             }
         }
 
-        Handler handler = host.getHandler();
-        if (rawResult != null) {
-
-            if (handler != null) {
-                Message message = Message.obtain(handler,
-                        Constant.DECODE_SUCCEEDED, rawResult);
-                message.sendToTarget();
-            }
-        } else {
-            if (handler != null) {
-                Message message = Message.obtain(handler, Constant.DECODE_FAILED);
-                message.sendToTarget();
-            }
+        void recycle() {
+            luminancePool.offer(luminance);
         }
     }
 
@@ -21,16 +21,14 @@ import android.os.Handler;
 import android.os.Looper;
 
 import com.cobo.cold.scan.Host;
-import com.google.zxing.BarcodeFormat;
 import com.google.zxing.DecodeHintType;
 
-import java.util.EnumSet;
 import java.util.Hashtable;
-import java.util.Vector;
 import java.util.concurrent.CountDownLatch;
 
 /**
- * This thread does all the heavy lifting of decoding the images.
+ * This thread hands the preview frames to the decode workers of its
+ * {@link DecodeHandler}.
  *
  * @author dswitkin@google.com (Daniel Switkin)
  */
@@ -46,11 +44,8 @@ public final class DecodeThread extends Thread {
         this.host = host;
         handlerInitLatch = new CountDownLatch(1);
 
+        // frames are decoded by a QRCodeReader, no format needs to be chosen
         hints = new Hashtable<>();
-
-        //decodeFormats.addAll(DecodeFormatManager.DATA_MATRIX_FORMATS);
-        Vector<BarcodeFormat> decodeFormats = new Vector<>(EnumSet.of(BarcodeFormat.QR_CODE));
-        hints.put(DecodeHintType.POSSIBLE_FORMATS, decodeFormats);
         hints.put(DecodeHintType.CHARACTER_SET, "UTF-8");
         hints.put(DecodeHintType.TRY_HARDER, true);
     }
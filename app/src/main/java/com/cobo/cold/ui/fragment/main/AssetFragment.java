@@ -278,6 +278,7 @@ public class AssetFragment extends BaseFragment<AssetFragmentBinding>
                 .get(AddAddressViewModel.class);
 
         ProgressModalDialog dialog = ProgressModalDialog.newInstance();
+        dialog.setOnCancel(viewModel::cancelAddAddress);
         dialog.show(Objects.requireNonNull(mActivity.getSupportFragmentManager()), "");
         Handler handler = new Handler();
         AppExecutors.getInstance().diskIO().execute(() -> {
@@ -291,11 +292,15 @@ public class AssetFragment extends BaseFragment<AssetFragmentBinding>
                 }
                 viewModel.addAddress(observableAddressNames);
 
-                handler.post(() -> viewModel.getObservableAddState().observe(this, complete -> {
-                    if (complete) {
-                        handler.postDelayed(dialog::dismiss, 500);
-                    }
-                }));
+                handler.post(() -> {
+                    viewModel.getObservableAddProgress().observe(this, progress ->
+                            dialog.setText(getString(R.string.add_address_progress, progress)));
+                    viewModel.getObservableAddState().observe(this, complete -> {
+                        if (complete) {
+                            handler.postDelayed(dialog::dismiss, 500);
+                        }
+                    });
+                });
             }
         });
     }
@@ -87,6 +87,7 @@ public class QRCodeScanFragment extends BaseFragment<QrcodeScanFragmentBinding>
         mConfig = new ZxingConfigBuilder()
                 .setIsFullScreenScan(true)
                 .setFrameColor(R.color.colorAccent)
+                .setAnimatedScan(true)
                 .createZxingConfig();
         mCameraManager = new CameraManager(mActivity, mConfig);
         mBinding.frameView.setCameraManager(mCameraManager);
@@ -29,7 +29,6 @@ import androidx.navigation.Navigation;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.cobo.cold.R;
-import com.cobo.cold.Utilities;
 import com.cobo.cold.databinding.TxListBinding;
 import com.cobo.cold.databinding.TxListItemBinding;
 import com.cobo.cold.db.entity.TxEntity;
@@ -102,7 +101,6 @@ public class TxListFragment extends BaseFragment<TxListBinding> {
                         }
                     };
                     txEntities = txEntities.stream()
-                            .filter(this::shouldShow)
                             .sorted(txEntityComparator)
                             .collect(Collectors.toList());
                     adapter.setItems(txEntities);
@@ -122,10 +120,6 @@ public class TxListFragment extends BaseFragment<TxListBinding> {
         });
     }
 
-    private boolean shouldShow(TxEntity tx) {
-        return Utilities.getCurrentBelongTo(mActivity).equals(tx.getBelongTo());
-    }
-
     @Override
     protected void initData(Bundle savedInstanceState) {
     }
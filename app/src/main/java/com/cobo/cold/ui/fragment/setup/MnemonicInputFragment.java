@@ -27,7 +27,7 @@ import androidx.databinding.DataBindingUtil;
 import androidx.databinding.Observable;
 import androidx.databinding.ObservableField;
 
-import com.cobo.coinlib.WordList;
+import com.cobo.coinlib.WordIndex;
 import com.cobo.cold.R;
 import com.cobo.cold.Utilities;
 import com.cobo.cold.databinding.CreateVaultModalBinding;
@@ -39,7 +39,6 @@ import com.cobo.cold.ui.modal.ModalDialog;
 import com.cobo.cold.util.Keyboard;
 import com.cobo.cold.viewmodel.SetupVaultViewModel;
 
-import java.util.Arrays;
 import java.util.List;
 
 import static com.cobo.cold.Utilities.IS_SETUP_VAULT;
@@ -82,7 +81,7 @@ public class MnemonicInputFragment extends SetupVaultBaseFragment<MnemonicInputF
     }
 
     public static boolean isValidWord(String s) {
-        return !TextUtils.isEmpty(s) && Arrays.asList(WordList.words).indexOf(s) != -1;
+        return !TextUtils.isEmpty(s) && WordIndex.contains(s);
     }
 
     protected void subscribeVaultState(SetupVaultViewModel viewModel) {
@@ -30,14 +30,34 @@ import androidx.databinding.DataBindingUtil;
 import androidx.fragment.app.DialogFragment;
 
 import com.cobo.cold.R;
+import com.cobo.cold.databinding.ProgressModalBinding;
 
 
 public class ProgressModalDialog extends DialogFragment {
 
+    private ProgressModalBinding binding;
+    private String text;
+    private Runnable onCancel;
+
     public static ProgressModalDialog newInstance() {
         return new ProgressModalDialog();
     }
 
+    public void setText(String text) {
+        this.text = text;
+        if (binding != null) {
+            binding.text.setText(text);
+            binding.text.setVisibility(View.VISIBLE);
+        }
+    }
+
+    /**
+     * show a cancel action that runs the given callback and dismisses the dialog
+     */
+    public void setOnCancel(Runnable onCancel) {
+        this.onCancel = onCancel;
+    }
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
@@ -48,10 +68,20 @@ public class ProgressModalDialog extends DialogFragment {
     @NonNull
     @Override
     public Dialog onCreateDialog(@Nullable Bundle savedInstanceState) {
-        View v = DataBindingUtil.inflate(LayoutInflater.from(getActivity()),
-                R.layout.progress_modal,null,false).getRoot();
+        binding = DataBindingUtil.inflate(LayoutInflater.from(getActivity()),
+                R.layout.progress_modal,null,false);
+        if (text != null) {
+            setText(text);
+        }
+        if (onCancel != null) {
+            binding.cancel.setVisibility(View.VISIBLE);
+            binding.cancel.setOnClickListener(v -> {
+                onCancel.run();
+                dismiss();
+            });
+        }
         Dialog dialog = new AlertDialog.Builder(getActivity(), R.style.dialog)
-                .setView(v)
+                .setView(binding.getRoot())
                 .create();
         dialog.setCanceledOnTouchOutside(false);
         return dialog;
@@ -139,6 +139,11 @@ public class UpdatingHelper implements OnBatteryChangeListener {
         UpdatingBinding binding = DataBindingUtil.inflate(LayoutInflater.from(mActivity),
                 R.layout.updating, null, false);
         dialog.setBinding(binding);
+        updatingViewModel.getUpdatingProgress().observe(mActivity, progress -> {
+            if (progress != null) {
+                binding.progress.setText(mActivity.getString(R.string.updating_progress, progress));
+            }
+        });
         updatingViewModel.getUpdatingState().observe(mActivity, updatingState -> {
             switch (updatingState) {
                 case UPDATING:
@@ -18,45 +18,56 @@
 package com.cobo.cold.ui.views.qrcode;
 
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
 import android.util.Log;
 import android.util.LruCache;
 
 import androidx.annotation.NonNull;
 
-import com.cobo.cold.encryptioncore.utils.ByteFormatter;
-import com.cobo.cold.update.utils.Digest;
 import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.google.zxing.qrcode.encoder.ByteMatrix;
 import com.google.zxing.qrcode.encoder.Encoder;
-import com.google.zxing.qrcode.encoder.QRCode;
 
+import java.util.ArrayDeque;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-
+import java.util.concurrent.Future;
+
+/**
+ * Encodes and rasterizes qrcodes off the main thread.
+ * <p>
+ * Static codes are cached by their text. The frames of an animated code are all
+ * rendered ahead of time in parallel by {@link #prepare(List, int, int)} into
+ * pooled bitmaps, so the animation itself only swaps bitmaps. Modules are written
+ * with {@link Bitmap#setPixels} at an integer scale, views draw the bitmaps without
+ * filtering so they stay sharp when fitted to the view.
+ */
 class Cache {
     private static final String TAG = "Vault.Qrcode.Cache";
     private static final Cache INSTANCE = new Cache();
-    private final Paint mPaint;
+    private static final int THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int BYTES_PER_PIXEL = 2;
+    // all the frames of one animated qrcode are kept, shrink them rather than exceed this
+    private static final int MAX_FRAMES_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_POOLED_BITMAPS = 32;
+
     private final LruCache<String, Bitmap> mBitmapCache;
-    private final ExecutorService mExecutors = Executors.newSingleThreadExecutor();
+    private final ExecutorService mExecutors = Executors.newFixedThreadPool(THREADS);
     private final Map<EncodeHintType, Object> mHint;
+    private final Map<Integer, ArrayDeque<Bitmap>> mPool = new HashMap<>();
+    private int mPooled;
 
     private Cache() {
         mHint = new EnumMap<>(EncodeHintType.class);
         mHint.put(EncodeHintType.MARGIN, 0);
         mHint.put(EncodeHintType.CHARACTER_SET, "UTF-8");
 
-        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mPaint.setStrokeWidth(0.5F);
-        mPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-        mPaint.setColor(Color.BLACK);
-
         mBitmapCache = new LruCache<String, Bitmap>(1024 * 5) {
             @Override
             protected int sizeOf(String key, Bitmap value) {
@@ -70,8 +81,7 @@ class Cache {
     }
 
     public void offer(@NonNull String msg, @NonNull QrCodeHolder view) {
-        final String hash = checksum(msg);
-        final Bitmap cached = mBitmapCache.get(hash);
+        final Bitmap cached = mBitmapCache.get(msg);
 
         if (cached != null) {
             renderBitmap(cached, view);
@@ -80,13 +90,10 @@ class Cache {
 
         mExecutors.submit(() -> {
             try {
-                final int width = view.getViewWidth();
-                final int height = view.getViewHeight();
-                final QRCode qrCode = Encoder.encode(msg, ErrorCorrectionLevel.L, mHint);
-                final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
-                final Canvas canvas = new Canvas(bitmap);
-                renderQrCode(qrCode.getMatrix(), width, height, canvas);
-                mBitmapCache.put(hash, bitmap);
+                final int size = Math.min(view.getViewWidth(), view.getViewHeight());
+                final ByteMatrix matrix = Encoder.encode(msg, ErrorCorrectionLevel.L, mHint).getMatrix();
+                final Bitmap bitmap = rasterize(matrix, Math.max(1, size / matrix.getWidth()));
+                mBitmapCache.put(msg, bitmap);
                 renderBitmap(bitmap, view);
             } catch (Exception e) {
                 Log.w(TAG, "Error while setting code", e);
@@ -94,30 +101,130 @@ class Cache {
         });
     }
 
+    /**
+     * start rendering every frame of an animated qrcode in parallel, in order
+     *
+     * @param frames text of the frames
+     * @param width  width of the area the frames are shown in
+     * @param height height of the area the frames are shown in
+     * @return the frames, to be released once they are no longer shown
+     */
+    Frames prepare(@NonNull List<String> frames, int width, int height) {
+        return new Frames(frames, width, height);
+    }
+
     private void renderBitmap(@NonNull Bitmap bitmap, @NonNull QrCodeHolder view) {
         view.onRender(bitmap);
     }
 
-    private void renderQrCode(@NonNull ByteMatrix matrix, int width, int height, @NonNull Canvas canvas) {
-        final int inputWidth = matrix.getWidth();
-        final int inputHeight = matrix.getHeight();
-        final float cellSize = Math.min(((float) width) / inputWidth, ((float) height / inputHeight));
+    private Bitmap rasterize(@NonNull ByteMatrix matrix, int scale) {
+        final int modules = matrix.getWidth();
+        final int side = modules * scale;
+        final Bitmap bitmap = obtainBitmap(side);
+        final byte[][] cells = matrix.getArray();
+        final int[] line = new int[side];
+        for (int y = 0; y < modules; y++) {
+            final byte[] row = cells[y];
+            for (int x = 0, p = 0; x < modules; x++) {
+                final int color = row[x] == 1 ? Color.BLACK : Color.WHITE;
+                for (int i = 0; i < scale; i++) {
+                    line[p++] = color;
+                }
+            }
+            for (int i = 0; i < scale; i++) {
+                bitmap.setPixels(line, 0, side, 0, y * scale + i, side, 1);
+            }
+        }
+        return bitmap;
+    }
 
-        float outputY = 0F;
-        float outputX;
+    private Bitmap obtainBitmap(int side) {
+        synchronized (mPool) {
+            final ArrayDeque<Bitmap> bitmaps = mPool.get(side);
+            if (bitmaps != null && !bitmaps.isEmpty()) {
+                mPooled--;
+                return bitmaps.poll();
+            }
+        }
+        return Bitmap.createBitmap(side, side, Bitmap.Config.RGB_565);
+    }
 
-        canvas.drawColor(Color.WHITE);
-        for (int inputY = 0; inputY < inputHeight; ++inputY, outputY += cellSize) {
-            outputX = 0F;
-            for (int inputX = 0; inputX < inputWidth; ++inputX, outputX += cellSize) {
-                if (matrix.get(inputX, inputY) == 1) {
-                    canvas.drawRect(outputX, outputY, outputX + cellSize, outputY + cellSize, mPaint);
-                }
+    private void recycle(@NonNull Bitmap bitmap) {
+        synchronized (mPool) {
+            if (mPooled >= MAX_POOLED_BITMAPS) {
+                return;
             }
+            mPool.computeIfAbsent(bitmap.getWidth(), k -> new ArrayDeque<>()).add(bitmap);
+            mPooled++;
         }
     }
 
-    private String checksum(String msg) {
-        return ByteFormatter.bytes2hex(Digest.MD5.checksum(msg));
+    class Frames {
+        private final Bitmap[] bitmaps;
+        private final Future<?>[] tasks;
+        private boolean released;
+
+        private Frames(List<String> frames, int width, int height) {
+            final int count = frames.size();
+            final int maxSide = (int) Math.sqrt(MAX_FRAMES_BYTES / BYTES_PER_PIXEL / Math.max(1, count));
+            final int side = Math.min(Math.min(width, height), maxSide);
+            bitmaps = new Bitmap[count];
+            tasks = new Future<?>[count];
+            for (int i = 0; i < count; i++) {
+                final int index = i;
+                final String text = frames.get(i);
+                tasks[i] = mExecutors.submit(() -> render(index, text, side));
+            }
+        }
+
+        private void render(int index, String text, int side) {
+            final Bitmap bitmap;
+            try {
+                final ByteMatrix matrix = Encoder.encode(text, ErrorCorrectionLevel.L, mHint).getMatrix();
+                bitmap = rasterize(matrix, Math.max(1, side / matrix.getWidth()));
+            } catch (WriterException e) {
+                Log.w(TAG, "Error while encoding frame " + index, e);
+                return;
+            }
+            synchronized (this) {
+                if (released) {
+                    recycle(bitmap);
+                } else {
+                    bitmaps[index] = bitmap;
+                }
+            }
+        }
+
+        int size() {
+            return bitmaps.length;
+        }
+
+        /**
+         * @return the frame, null while it is still being rendered
+         */
+        synchronized Bitmap get(int index) {
+            return bitmaps[index];
+        }
+
+        /**
+         * @return whether rendering the frame is over, a finished frame without bitmap failed to encode
+         */
+        boolean isDone(int index) {
+            return tasks[index].isDone();
+        }
+
+        /**
+         * give the bitmaps back to the pool, the frames must no longer be on screen
+         */
+        synchronized void release() {
+            released = true;
+            for (int i = 0; i < bitmaps.length; i++) {
+                tasks[i].cancel(false);
+                if (bitmaps[i] != null) {
+                    recycle(bitmaps[i]);
+                    bitmaps[i] = null;
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -19,6 +19,7 @@ package com.cobo.cold.ui.views.qrcode;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
@@ -32,7 +33,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.view.ViewCompat;
 import androidx.databinding.DataBindingUtil;
 
-import com.cobo.cold.AppExecutors;
 import com.cobo.cold.R;
 import com.cobo.cold.databinding.DynamicQrcodeModalBinding;
 import com.cobo.cold.encryptioncore.utils.ByteFormatter;
@@ -45,14 +45,23 @@ import org.json.JSONObject;
 import java.util.ArrayList;
 import java.util.List;
 
-public class DynamicQrCodeView extends LinearLayout implements QrCodeHolder {
+public class DynamicQrCodeView extends LinearLayout {
 
     private static final int CAPACITY = 800;
     private static final int DURATION = 330; //ms
+    // frames are rendered ahead of time, poll for one still rendering at this interval
+    private static final int RENDER_POLL = 16; //ms
     private String data;
     private final List<String> splitData;
     private String checksum;
     private int count;
+    private boolean framesReady;
+    private boolean waitingLayout;
+    private Cache.Frames frames;
+    private Cache.Frames retiredFrames;
+    // frames the displayed bitmap belongs to, it must not go back to the pool while shown
+    private Cache.Frames shownFrames;
+    private final Runnable mTick = this::showQrCode;
     private final Cache mCache = Cache.getInstance();
     private ProgressBar progressBar;
     private ImageView img;
@@ -71,8 +80,22 @@ public class DynamicQrCodeView extends LinearLayout implements QrCodeHolder {
     public void setData(String s) {
         data = s;
         checksum = checksum(data);
-        count = (int) Math.ceil(data.length() / (float) CAPACITY);
-        splitData();
+        // frames are sized and rendered for the view, so they are cut once it is laid out
+        framesReady = false;
+        removeCallbacks(mTick);
+        if (frames != null) {
+            if (frames == shownFrames) {
+                // the current frame stays on screen until the first new one is ready
+                if (retiredFrames != null) {
+                    retiredFrames.release();
+                }
+                retiredFrames = frames;
+            } else {
+                // none of these was shown yet, the retired frames are still on screen
+                frames.release();
+            }
+            frames = null;
+        }
         showQrCode();
     }
 
@@ -112,29 +135,85 @@ public class DynamicQrCodeView extends LinearLayout implements QrCodeHolder {
     }
 
     private void showQrCode() {
-        if (ViewCompat.isLaidOut(this)) {
-            mCache.offer(splitData.get(currentIndex), this);
-        } else {
-            getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
-                @Override
-                public void onGlobalLayout() {
-                    getViewTreeObserver().removeOnGlobalLayoutListener(this);
-                    mCache.offer(splitData.get(currentIndex), DynamicQrCodeView.this);
-                }
-            });
+        if (!ViewCompat.isLaidOut(this)) {
+            if (!waitingLayout) {
+                waitingLayout = true;
+                getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
+                    @Override
+                    public void onGlobalLayout() {
+                        getViewTreeObserver().removeOnGlobalLayoutListener(this);
+                        waitingLayout = false;
+                        showQrCode();
+                    }
+                });
+            }
+            return;
+        }
+        if (!framesReady) {
+            prepareFrames();
+        }
+        Bitmap bitmap = frames.get(currentIndex);
+        if (bitmap == null && !frames.isDone(currentIndex)) {
+            postDelayed(mTick, RENDER_POLL);
+            return;
+        }
+        if (bitmap != null) {
+            setImageBitmap(bitmap);
+            shownFrames = frames;
+            if (retiredFrames != null) {
+                retiredFrames.release();
+                retiredFrames = null;
+            }
         }
         if (count > 1) {
-            currentIndex = ++currentIndex % count;
-            postDelayed(this::showQrCode, DURATION);
+            currentIndex = (currentIndex + 1) % count;
+            postDelayed(mTick, DURATION);
         }
     }
 
+    private void prepareFrames() {
+        framesReady = true;
+        currentIndex = 0;
+        int width = img.getWidth() - img.getPaddingLeft() - img.getPaddingRight();
+        int height = img.getHeight() - img.getPaddingTop() - img.getPaddingBottom();
+        count = (int) Math.ceil(data.length() / (float) CAPACITY);
+        splitData();
+        frames = mCache.prepare(splitData, width, height);
+    }
+
     private void setImageBitmap(Bitmap bm) {
-        AppExecutors.getInstance().mainThread().execute(() -> {
-            progressBar.setVisibility(GONE);
-            img.setVisibility(VISIBLE);
-            img.setImageBitmap(bm);
-        });
+        progressBar.setVisibility(GONE);
+        img.setVisibility(VISIBLE);
+        // bitmaps are rendered at an integer scale, fit them to the view without blurring the modules
+        BitmapDrawable drawable = new BitmapDrawable(getResources(), bm);
+        drawable.setFilterBitmap(false);
+        img.setImageDrawable(drawable);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (data != null && frames == null) {
+            showQrCode();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        removeCallbacks(mTick);
+        // the bitmaps go back to the pool and may be drawn over by other codes
+        img.setImageDrawable(null);
+        shownFrames = null;
+        if (frames != null) {
+            frames.release();
+            frames = null;
+        }
+        if (retiredFrames != null) {
+            retiredFrames.release();
+            retiredFrames = null;
+        }
+        framesReady = false;
     }
 
     void splitData() {
@@ -165,19 +244,4 @@ public class DynamicQrCodeView extends LinearLayout implements QrCodeHolder {
     private String checksum(String msg) {
         return ByteFormatter.bytes2hex(Digest.MD5.checksum(msg));
     }
-
-    @Override
-    public void onRender(Bitmap bm) {
-        setImageBitmap(bm);
-    }
-
-    @Override
-    public int getViewWidth() {
-        return img.getWidth();
-    }
-
-    @Override
-    public int getViewHeight() {
-        return img.getHeight();
-    }
 }
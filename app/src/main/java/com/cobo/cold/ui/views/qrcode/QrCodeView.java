@@ -19,6 +19,7 @@ package com.cobo.cold.ui.views.qrcode;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
@@ -101,7 +102,10 @@ public class QrCodeView extends FrameLayout implements QrCodeHolder {
         AppExecutors.getInstance().mainThread().execute(() -> {
             progressBar.setVisibility(GONE);
             img.setVisibility(VISIBLE);
-            img.setImageBitmap(bm);
+            // bitmaps are rendered at an integer scale, fit them to the view without blurring the modules
+            BitmapDrawable drawable = new BitmapDrawable(getResources(), bm);
+            drawable.setFilterBitmap(false);
+            img.setImageDrawable(drawable);
         });
     }
 
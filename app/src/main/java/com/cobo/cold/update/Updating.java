@@ -54,6 +54,7 @@ public class Updating implements Callable<Boolean> {
     private final Storage mStorage;
     private final Context mContext;
     private final String password;
+    private UpdateCallable.ProgressListener mProgressListener;
 
     public Updating(@NonNull Storage storage, Context context, @NonNull UpdateManifest manifest, String password) {
         mStorage = storage;
@@ -62,6 +63,11 @@ public class Updating implements Callable<Boolean> {
         this.password = password;
     }
 
+    public Updating setProgressListener(UpdateCallable.ProgressListener listener) {
+        mProgressListener = listener;
+        return this;
+    }
+
     @Nullable
     private static File extractAndCheck(@NonNull ZipFile zipFile, @NonNull String key, @NonNull FileInfo info, @NonNull File dir) {
         if (ZipHelper.checkFileHeader(zipFile, info.fileName)) {
@@ -133,7 +139,8 @@ public class Updating implements Callable<Boolean> {
             return false;
         }
 
-        final Callable callable = new UpdateCallable(data, password);
+        final Callable callable = new UpdateCallable(data, password)
+                .setProgressListener(mProgressListener);
 
         try {
             callable.call();
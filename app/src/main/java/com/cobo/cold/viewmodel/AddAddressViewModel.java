@@ -19,7 +19,6 @@ package com.cobo.cold.viewmodel;
 
 import android.app.Application;
 import android.os.AsyncTask;
-import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 import androidx.databinding.ObservableField;
@@ -29,18 +28,10 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
-import com.cobo.coinlib.coins.AbsDeriver;
-import com.cobo.coinlib.exception.InvalidPathException;
-import com.cobo.coinlib.path.Account;
-import com.cobo.coinlib.utils.Coins;
 import com.cobo.cold.DataRepository;
 import com.cobo.cold.MainApplication;
-import com.cobo.cold.callables.GetExtendedPublicKeyCallable;
-import com.cobo.cold.db.entity.AccountEntity;
-import com.cobo.cold.db.entity.AddressEntity;
 import com.cobo.cold.db.entity.CoinEntity;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class AddAddressViewModel extends AndroidViewModel {
@@ -49,6 +40,8 @@ public class AddAddressViewModel extends AndroidViewModel {
     public CoinEntity coin;
     private final ObservableField<Boolean> loading = new ObservableField<>();
     private final MutableLiveData<Boolean> addComplete = new MutableLiveData<>();
+    private final MutableLiveData<Integer> addProgress = new MutableLiveData<>();
+    private AddAddressTask addTask;
 
     private AddAddressViewModel(@NonNull Application application, DataRepository repository,
                                 final long id) {
@@ -62,10 +55,24 @@ public class AddAddressViewModel extends AndroidViewModel {
 
     public void addAddress(List<String> addrs) {
         loading.set(true);
-        new AddAddressTask(coin, mRepo, () -> {
+        addProgress.postValue(0);
+        addTask = new AddAddressTask(coin, mRepo, () -> {
             loading.set(false);
             addComplete.setValue(Boolean.TRUE);
-        }).execute(addrs.toArray(new String[0]));
+        });
+        addTask.generator.setProgressListener((generated, total) ->
+                addProgress.postValue(generated * 100 / total));
+        addTask.execute(addrs.toArray(new String[0]));
+    }
+
+    /**
+     * stop adding addresses, none of the pending ones are stored
+     */
+    public void cancelAddAddress() {
+        if (addTask != null) {
+            addTask.generator.cancel();
+            loading.set(false);
+        }
     }
 
     public void addAddress(CoinEntity coinEntity, DataRepository repo, String addrName) {
@@ -81,6 +88,10 @@ public class AddAddressViewModel extends AndroidViewModel {
         return addComplete;
     }
 
+    public LiveData<Integer> getObservableAddProgress() {
+        return addProgress;
+    }
+
     public static class Factory extends ViewModelProvider.NewInstanceFactory {
         @NonNull
         private final Application mApplication;
@@ -104,66 +115,24 @@ public class AddAddressViewModel extends AndroidViewModel {
     }
 
     static class AddAddressTask extends AsyncTask<String, Void, Void> {
-        private final CoinEntity coinEntity;
-        private final DataRepository repo;
+        private final AddressGenerator generator;
         private final Runnable onComplete;
 
         AddAddressTask(CoinEntity coinEntity, DataRepository repo, Runnable onComplete) {
-            this.coinEntity = coinEntity;
-            this.repo = repo;
+            this.generator = new AddressGenerator(coinEntity, repo);
             this.onComplete = onComplete;
         }
 
         @Override
         protected Void doInBackground(String... strings) {
-
-            AccountEntity defaultAccount = repo.loadAccountsForCoin(coinEntity).get(0);
-            int addressCount = coinEntity.getAddressCount();
-            Account account;
-            try {
-                account = Account.parseAccount(defaultAccount.getHdPath());
-            } catch (InvalidPathException e) {
-                return null;
-            }
-
-            String exPub = defaultAccount.getExPub();
-            if (TextUtils.isEmpty(exPub)) {
-                exPub = new GetExtendedPublicKeyCallable(account.toString()).call();
-                defaultAccount.setExPub(exPub);
-            }
-
-            List<AddressEntity> entities = new ArrayList<>();
-            for (int i = 0; i < strings.length; i++) {
-                AddressEntity addressEntity = new AddressEntity();
-                addressEntity.setPath(
-                        account.external()
-                                .address(i + addressCount).toString());
-
-                int coinType = account.getParent().getValue();
-                AbsDeriver deriver = AbsDeriver.newInstance(Coins.coinCodeOfIndex(coinType));
-                if (deriver != null) {
-                    String addr = deriver.derive(exPub, 0, i + addressCount);
-                    addressEntity.setAddressString(addr);
-                    addressEntity.setCoinId(coinEntity.getCoinId());
-                    addressEntity.setIndex(i + addressCount);
-                    addressEntity.setName(strings[i]);
-                    addressEntity.setBelongTo(coinEntity.getBelongTo());
-                    entities.add(addressEntity);
-                }
-            }
-
-            coinEntity.setAddressCount(coinEntity.getAddressCount() + strings.length);
-            defaultAccount.setAddressLength(addressCount + strings.length);
-            repo.updateAccount(defaultAccount);
-            repo.updateCoin(coinEntity);
-            repo.insertAddress(entities);
+            generator.generate(strings);
             return null;
         }
 
         @Override
         protected void onPostExecute(Void aVoid) {
             super.onPostExecute(aVoid);
-            if (onComplete != null) {
+            if (onComplete != null && !generator.isCancelled()) {
                 onComplete.run();
             }
         }
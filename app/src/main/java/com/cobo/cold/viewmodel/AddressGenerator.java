@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.viewmodel;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+
+import com.cobo.coinlib.coins.AbsDeriver;
+import com.cobo.coinlib.exception.InvalidPathException;
+import com.cobo.coinlib.path.Account;
+import com.cobo.coinlib.utils.Coins;
+import com.cobo.cold.DataRepository;
+import com.cobo.cold.callables.GetExtendedPublicKeyCallable;
+import com.cobo.cold.db.entity.AccountEntity;
+import com.cobo.cold.db.entity.AddressEntity;
+import com.cobo.cold.db.entity.CoinEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Generates receive addresses for the default account of a coin in bulk.
+ * <p>
+ * Index ranges are split across a fork-join pool in fixed-size batches, the
+ * next batch is derived while the current one is turned into entities. Once
+ * every address is derived the account, the coin and all the addresses are
+ * committed in one short Room transaction, a cancelled or failed run leaves
+ * the database untouched.
+ */
+public class AddressGenerator {
+
+    private static final int BATCH_SIZE = 200;
+    private static final int SPLIT_THRESHOLD = 25;
+
+    private static final ForkJoinPool sPool = new ForkJoinPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    public interface ProgressListener {
+        void onProgress(int generated, int total);
+    }
+
+    private final CoinEntity coinEntity;
+    private final DataRepository repo;
+    private ProgressListener progressListener;
+    private volatile boolean cancelled;
+
+    public AddressGenerator(@NonNull CoinEntity coinEntity, @NonNull DataRepository repo) {
+        this.coinEntity = coinEntity;
+        this.repo = repo;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * stop a running generation, nothing of it is committed
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * derive and store one address per name, blocks until done
+     *
+     * @param names names of the new addresses, in index order
+     * @return true if the addresses were committed
+     */
+    public boolean generate(String... names) {
+        if (names.length == 0) {
+            return true;
+        }
+        AccountEntity defaultAccount = repo.loadAccountsForCoin(coinEntity).get(0);
+        Account account;
+        try {
+            account = Account.parseAccount(defaultAccount.getHdPath());
+        } catch (InvalidPathException e) {
+            return false;
+        }
+
+        String exPub = defaultAccount.getExPub();
+        if (TextUtils.isEmpty(exPub)) {
+            exPub = new GetExtendedPublicKeyCallable(account.toString()).call();
+            defaultAccount.setExPub(exPub);
+        }
+
+        int coinType = account.getParent().getValue();
+        AbsDeriver deriver = AbsDeriver.newInstance(Coins.coinCodeOfIndex(coinType));
+        if (deriver == null) {
+            return false;
+        }
+
+        List<AddressEntity> entities;
+        try {
+            entities = derive(account, deriver, exPub, names);
+        } catch (CancellationException e) {
+            return false;
+        }
+        if (cancelled) {
+            return false;
+        }
+
+        int addressCount = coinEntity.getAddressCount() + names.length;
+        repo.runInTransaction(() -> {
+            repo.insertAddress(entities);
+            coinEntity.setAddressCount(addressCount);
+            defaultAccount.setAddressLength(addressCount);
+            repo.updateAccount(defaultAccount);
+            repo.updateCoin(coinEntity);
+        });
+        return true;
+    }
+
+    private List<AddressEntity> derive(Account account, AbsDeriver deriver,
+                                       String exPub, String[] names) {
+        int addressCount = coinEntity.getAddressCount();
+        int total = names.length;
+        List<AddressEntity> entities = new ArrayList<>(total);
+        ForkJoinTask<List<String>> next = submit(deriver, exPub, addressCount, 0, total);
+        for (int start = 0; start < total; start += BATCH_SIZE) {
+            List<String> addresses = next.join();
+            int end = Math.min(start + BATCH_SIZE, total);
+            next = end < total ? submit(deriver, exPub, addressCount, end, total) : null;
+            if (cancelled) {
+                if (next != null) {
+                    next.cancel(false);
+                }
+                throw new CancellationException();
+            }
+
+            for (int i = start; i < end; i++) {
+                int index = addressCount + i;
+                AddressEntity addressEntity = new AddressEntity();
+                addressEntity.setPath(account.external().address(index).toString());
+                addressEntity.setAddressString(addresses.get(i - start));
+                addressEntity.setCoinId(coinEntity.getCoinId());
+                addressEntity.setIndex(index);
+                addressEntity.setName(names[i]);
+                addressEntity.setBelongTo(coinEntity.getBelongTo());
+                entities.add(addressEntity);
+            }
+            if (progressListener != null) {
+                progressListener.onProgress(end, total);
+            }
+        }
+        return entities;
+    }
+
+    private static ForkJoinTask<List<String>> submit(AbsDeriver deriver, String exPub,
+                                                     int addressCount, int start, int total) {
+        int count = Math.min(BATCH_SIZE, total - start);
+        return sPool.submit(new DeriveTask(deriver, exPub, addressCount + start, count));
+    }
+
+    private static class DeriveTask extends RecursiveTask<List<String>> {
+        private final AbsDeriver deriver;
+        private final String exPub;
+        private final int from;
+        private final int count;
+
+        DeriveTask(AbsDeriver deriver, String exPub, int from, int count) {
+            this.deriver = deriver;
+            this.exPub = exPub;
+            this.from = from;
+            this.count = count;
+        }
+
+        @Override
+        protected List<String> compute() {
+            if (count <= SPLIT_THRESHOLD) {
+                return deriver.deriveRange(exPub, 0, from, count);
+            }
+            int half = count / 2;
+            DeriveTask left = new DeriveTask(deriver, exPub, from, half);
+            DeriveTask right = new DeriveTask(deriver, exPub, from + half, count - half);
+            left.fork();
+            List<String> result = new ArrayList<>(count);
+            List<String> tail = right.compute();
+            result.addAll(left.join());
+            result.addAll(tail);
+            return result;
+        }
+    }
+}
@@ -87,12 +87,8 @@ public class ElectrumViewModel extends AndroidViewModel {
             if (TextUtils.isEmpty(xpub)) {
                 xpub = new ExpubInfo().invoke().expub;
             }
-            List<String> changes = new ArrayList<>();
             AbsDeriver btcDeriver = new Btc.Deriver();
-            for (int i = 0; i < DEFAULT_CHANGE_ADDRESS_NUM; i++) {
-                changes.add(btcDeriver.derive(xpub,1, i));
-            }
-            changeAddress.postValue(changes);
+            changeAddress.postValue(btcDeriver.deriveRange(xpub, 1, 0, DEFAULT_CHANGE_ADDRESS_NUM));
         });
     }
 
@@ -37,19 +37,16 @@ import com.cobo.cold.R;
 import com.cobo.cold.callables.GetUuidCallable;
 import com.cobo.cold.db.entity.AccountEntity;
 import com.cobo.cold.db.entity.CoinEntity;
-import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.protocol.ZipUtil;
 import com.cobo.cold.protocol.parser.ProtoParser;
 import com.cobo.cold.scan.ScannedData;
 import com.cobo.cold.ui.fragment.main.QRCodeScanFragment;
-import com.cobo.cold.update.utils.Digest;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.spongycastle.util.encoders.Base64;
-import org.spongycastle.util.encoders.DecoderException;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static com.cobo.cold.Utilities.IS_SETUP_VAULT;
@@ -159,7 +156,7 @@ public class QrScanViewModel extends AndroidViewModel {
                 for (int j = addressLengthCurrent; j < addressLengthNew; j++) {
                     names[index++] = coinEntity.getCoinCode() + "-" + (j + 1);
                 }
-                new AddAddressViewModel.AddAddressTask(coinEntity, repository, null).execute(names);
+                new AddressGenerator(coinEntity, repository).generate(names);
             }
         }
     }
@@ -215,20 +212,21 @@ public class QrScanViewModel extends AndroidViewModel {
     }
 
     private JSONObject parseToJson(ScannedData[] res, String valueType) {
-        JSONObject object = null;
+        // frames are assembled and checked while scanning, only the payload is left to unpack
+        byte[] data = res[0].data;
+        if (res[0].compress) {
+            data = ZipUtil.unzip(data);
+        }
+        if (data == null) {
+            return null;
+        }
 
+        JSONObject object = null;
         if ("protobuf".equals(valueType)) {
-            try {
-                byte[] data = combineProtobufData(res);
-                if (data != null) {
-                    object = new ProtoParser(data).parseToJson();
-                }
-            } catch (DecoderException e) { }
-
+            object = new ProtoParser(data).parseToJson();
         } else {
-            String json = combineJsonData(res);
             try {
-                object = new JSONObject(json).getJSONObject("data");
+                object = new JSONObject(new String(data, StandardCharsets.UTF_8)).getJSONObject("data");
             } catch (JSONException e) {
                 e.printStackTrace();
             }
@@ -236,44 +234,6 @@ public class QrScanViewModel extends AndroidViewModel {
         return object;
     }
 
-    private String combineJsonData(ScannedData[] scannedData) {
-        StringBuilder sb = new StringBuilder();
-        for (ScannedData data : scannedData) {
-            sb.append(data.value);
-        }
-
-        if (scannedData[0].compress) {
-            byte[] data = Base64.decode(sb.toString());
-            data = ZipUtil.unzip(data);
-            return new String(data != null ? data : new byte[0]);
-        } else {
-            return sb.toString();
-        }
-    }
-
-    private byte[] combineProtobufData(ScannedData[] res) {
-        StringBuilder sb = new StringBuilder();
-        String checkSum = res[0].checkSum;
-        for (ScannedData data : res) {
-            if (!data.checkSum.equals(checkSum)) {
-                return null;
-            }
-            sb.append(data.value);
-        }
-
-        String actualChecksum = ByteFormatter.bytes2hex(Digest.MD5.checksum(sb.toString()));
-        if (!checkSum.equals(actualChecksum)) {
-            return null;
-        }
-
-
-        byte[] data = Base64.decode(sb.toString());
-        if (res[0].compress) {
-            data = ZipUtil.unzip(data);
-        }
-        return data;
-    }
-
     private void checkUuid(JSONObject obj) throws UuidNotMatchException {
         String uuid = new GetUuidCallable().call();
         if (!obj.optString("uuid").equals(uuid)) {
@@ -41,6 +41,7 @@ import com.cobo.coinlib.interfaces.Signer;
 import com.cobo.coinlib.path.AddressIndex;
 import com.cobo.coinlib.path.CoinPath;
 import com.cobo.coinlib.utils.Coins;
+import com.cobo.coinlib.v8.V8RuntimePool;
 import com.cobo.cold.AppExecutors;
 import com.cobo.cold.DataRepository;
 import com.cobo.cold.MainApplication;
@@ -69,6 +70,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -135,6 +137,7 @@ public class TxConfirmViewModel extends AndroidViewModel {
                 }
                 TxEntity tx = generateTxEntity(object);
                 observableTx.postValue(tx);
+                V8RuntimePool.sInstance.prewarm(coinCode);
                 if (Coins.BTC.coinCode().equals(transaction.getCoinCode())) {
                     feeAttackChecking(tx);
                 }
@@ -347,18 +350,17 @@ public class TxConfirmViewModel extends AndroidViewModel {
             return;
         }
         String maxIndexHdPath = paths[0];
-        if (paths.length > 1) {
-            int max = getAddressIndex(paths[0]);
-            for (String path : paths) {
-                if (getAddressIndex(path) > max) {
-                    max = getAddressIndex(path);
-                    maxIndexHdPath = path;
-                }
+        int max = getAddressIndex(paths[0]);
+        for (int i = 1; i < paths.length; i++) {
+            int index = getAddressIndex(paths[i]);
+            if (index > max) {
+                max = index;
+                maxIndexHdPath = paths[i];
             }
         }
         AddressEntity address = mRepository.loadAddressBypath(maxIndexHdPath);
         if (address == null) {
-            addAddress(getAddressIndex(maxIndexHdPath));
+            addAddress(max);
         }
     }
 
@@ -408,12 +410,17 @@ public class TxConfirmViewModel extends AndroidViewModel {
     }
 
     public void handleSign() {
-        AppExecutors.getInstance().diskIO().execute(() -> {
-            Signer[] signer = initSigners();
-            SignCallback callback = initSignCallback();
-            signTransaction(transaction, callback, signer);
-        });
-
+        getAuthToken()
+                .exceptionally(e -> {
+                    e.printStackTrace();
+                    return null;
+                })
+                .thenAcceptAsync(authToken -> {
+                    AuthenticateModal.OnVerify.VerifyToken.invalid(token);
+                    Signer[] signer = initSigners(authToken);
+                    SignCallback callback = initSignCallback();
+                    signTransaction(transaction, callback, signer);
+                }, AppExecutors.getInstance().diskIO());
     }
 
     private SignCallback initSignCallback() {
@@ -489,7 +496,7 @@ public class TxConfirmViewModel extends AndroidViewModel {
         }
     }
 
-    private Signer[] initSigners() {
+    private Signer[] initSigners(String authToken) {
         String[] paths = transaction.getHdPath().split(AbsTx.SEPARATOR);
         String coinCode = transaction.getCoinCode();
         String[] distinctPaths = Stream.of(paths).distinct().toArray(String[]::new);
@@ -500,7 +507,6 @@ public class TxConfirmViewModel extends AndroidViewModel {
             exPub = mRepository.loadCoinSync(Coins.coinIdFromCoinCode(coinCode)).getExPub();
         }
 
-        String authToken = getAuthToken();
         if (TextUtils.isEmpty(authToken)) {
             Log.w(TAG,"authToken null");
             return null;
@@ -522,27 +528,39 @@ public class TxConfirmViewModel extends AndroidViewModel {
         return signer;
     }
 
-    private String getAuthToken() {
-        String authToken = null;
+    /**
+     * @return the auth token, completed with null if the password or fingerprint is not verified
+     */
+    private CompletableFuture<String> getAuthToken() {
         if (!TextUtils.isEmpty(token.password)) {
-            authToken = new GetPasswordTokenCallable(token.password).call();
-        } else if(token.signature != null) {
-            String message = new GetMessageCallable().call();
-            if (!TextUtils.isEmpty(message)) {
-                try {
-                    token.signature.update(Hex.decode(message));
-                    byte[] signature = token.signature.sign();
-                    byte[] rs = Util.decodeRSFromDER(signature);
-                    if (rs != null) {
-                        authToken = new VerifyFingerprintCallable(Hex.toHexString(rs)).call();
-                    }
-                } catch (SignatureException e) {
-                    e.printStackTrace();
-                }
+            return new GetPasswordTokenCallable(token.password).submit();
+        } else if (token.signature != null) {
+            // the keystore signs on diskIO rather than on the secure element thread
+            // completing the message, the signature is queued right after it
+            return new GetMessageCallable().submit()
+                    .thenApplyAsync(this::signFingerprintMessage, AppExecutors.getInstance().diskIO())
+                    .thenCompose(rs -> rs != null
+                            ? new VerifyFingerprintCallable(rs).submit()
+                            : CompletableFuture.<String>completedFuture(null));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private String signFingerprintMessage(String message) {
+        if (TextUtils.isEmpty(message)) {
+            return null;
+        }
+        try {
+            token.signature.update(Hex.decode(message));
+            byte[] signature = token.signature.sign();
+            byte[] rs = Util.decodeRSFromDER(signature);
+            if (rs != null) {
+                return Hex.toHexString(rs);
             }
+        } catch (SignatureException e) {
+            e.printStackTrace();
         }
-        AuthenticateModal.OnVerify.VerifyToken.invalid(token);
-        return authToken;
+        return null;
     }
 
     public String getTxId() {
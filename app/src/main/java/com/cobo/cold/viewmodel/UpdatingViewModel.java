@@ -36,6 +36,7 @@ public class UpdatingViewModel extends AndroidViewModel {
 
     private final MutableLiveData<UpdateManifest> updateManifest = new MutableLiveData<>();
     private final MutableLiveData<UpdatingState> updatingState = new MutableLiveData<>();
+    private final MutableLiveData<Integer> updatingProgress = new MutableLiveData<>();
 
     public static final int MIN_BATTERY_FOR_UPDATE = 70;
 
@@ -47,6 +48,10 @@ public class UpdatingViewModel extends AndroidViewModel {
         return updatingState;
     }
 
+    public MutableLiveData<Integer> getUpdatingProgress() {
+        return updatingProgress;
+    }
+
     public UpdatingViewModel(@NonNull Application application) {
         super(application);
         mContext = application;
@@ -81,7 +86,10 @@ public class UpdatingViewModel extends AndroidViewModel {
             }
             try {
                 updatingState.postValue(UpdatingState.UPDATING);
-                final boolean success = new Updating(storage, mContext, manifest, password).call();
+                final boolean success = new Updating(storage, mContext, manifest, password)
+                        .setProgressListener((acked, total) ->
+                                updatingProgress.postValue(acked * 100 / total))
+                        .call();
 
                 if (success) {
                     updatingState.postValue(UpdatingState.UPDATING_SUCCESS);
@@ -27,14 +27,11 @@ import androidx.lifecycle.MediatorLiveData;
 import com.cobo.cold.AppExecutors;
 import com.cobo.cold.DataRepository;
 import com.cobo.cold.MainApplication;
-import com.cobo.cold.Utilities;
 import com.cobo.cold.callables.VerifyMnemonicCallable;
 import com.cobo.cold.db.entity.CoinEntity;
 import com.cobo.cold.db.entity.WhiteListEntity;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class WhiteListModel extends AndroidViewModel {
 
@@ -52,20 +49,10 @@ public class WhiteListModel extends AndroidViewModel {
         mObservableCoins.setValue(null);
         verifyMnemonic.setValue(false);
         repo = MainApplication.getApplication().getRepository();
-        mObservableList.addSource(repo.loadWhiteList(),
-                entities -> mObservableList.setValue(filterByBelongTo(entities)));
+        mObservableList.addSource(repo.loadWhiteList(), mObservableList::setValue);
         mObservableCoins.addSource(repo.loadCoins(), mObservableCoins::setValue);
     }
 
-    private List<WhiteListEntity> filterByBelongTo(List<WhiteListEntity> entities) {
-        String passphraseHash = Utilities.getCurrentBelongTo(getApplication());
-        return entities.isEmpty() ? Collections.emptyList()
-                :
-                entities.stream()
-                        .filter(entity -> passphraseHash.equals(entity.getBelongTo()))
-                        .collect(Collectors.toList());
-    }
-
     public LiveData<List<WhiteListEntity>> getWhiteList() {
         return mObservableList;
     }
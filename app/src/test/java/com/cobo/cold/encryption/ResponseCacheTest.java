@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.cobo.cold.encryption;
+
+import com.cobo.cold.encryption.interfaces.CONSTANTS;
+import com.cobo.cold.encryptioncore.base.Packet;
+import com.cobo.cold.encryptioncore.base.Payload;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class ResponseCacheTest {
+
+    private static Packet request(String path) {
+        return new Packet.Builder(CONSTANTS.METHODS.GET_EXTENDED_PUBLICKEY)
+                .addTextPayload(CONSTANTS.TAGS.PATH, path).build();
+    }
+
+    @Test
+    public void testCallersGetTheirOwnCopy() {
+        ResponseCache cache = new ResponseCache();
+        Packet response = new Packet.Builder(CONSTANTS.METHODS.GET_EXTENDED_PUBLICKEY)
+                .addTextPayload(CONSTANTS.TAGS.EXTEND_PUB_KEY, "xpub").build();
+        cache.put(request("M/44'/0'/0'"), response, cache.generation());
+
+        // the stored snapshot does not follow later changes of the response
+        response.getPayloads().put(CONSTANTS.TAGS.EXTEND_PUB_KEY, new Payload(new byte[]{1}));
+
+        Packet first = cache.get(request("M/44'/0'/0'"));
+        assertNotNull(first);
+        assertEquals("xpub", first.getPayload(CONSTANTS.TAGS.EXTEND_PUB_KEY).toUtf8());
+
+        first.getPayloads().put(CONSTANTS.TAGS.EXTEND_PUB_KEY, new Payload(new byte[]{2}));
+        Packet second = cache.get(request("M/44'/0'/0'"));
+        assertNotSame(first, second);
+        assertEquals("xpub", second.getPayload(CONSTANTS.TAGS.EXTEND_PUB_KEY).toUtf8());
+    }
+
+    @Test
+    public void testStaleGenerationIsNotStored() {
+        ResponseCache cache = new ResponseCache();
+        Packet response = new Packet.Builder(CONSTANTS.METHODS.GET_EXTENDED_PUBLICKEY).build();
+        cache.put(request("M/44'/60'/0'"), response, cache.generation() - 1);
+        assertNull(cache.get(request("M/44'/60'/0'")));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryption.signature;
+
+import org.junit.Test;
+import org.spongycastle.util.encoders.Hex;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SignatureTest {
+
+    private static final String PUBLIC_KEY = "79177b87840623e039114cb49842a4a758ed1422fd3abd3c40edbccdfa6d110f"
+            + "f9f28972cc826f954c16d410cba166c94a3d5a5c03244eb7a7a5e6b47cc00e0d";
+
+    @Test
+    public void appendRecoveryId() {
+        assertRecoveryId("95cd603fe577fa9548ec0c9b50b067566fe07c8af6acba45f6196f3a15d511f6",
+                "611ff7f924f36d2e11632cf37979bb9716d3e07bae721ed82ee1ff5ea9bcb7f1"
+                        + "63541492dd5b48a79d061007a99b89bbe70fbd524d3f57daf1eb9a6f8bea0797", 0);
+        assertRecoveryId("1f3cb18e896256d7d6bb8c11a6ec71f005c75de05e39beae5d93bbd1e2c8b7a9",
+                "5331500f75ea8fe1897a3f42d034bcdb18bce77766f1203f6ce3348b563bc97c"
+                        + "64cad376813efb8cac8df66b8a92a2e623eeea3a118ead0f6b63c09fe5812bd7", 1);
+        assertRecoveryId("3ebc2bd1d73e4f2f1f2af086ad724c98c8030f74c0c2be6c2d6fd538c711f35c",
+                "15b83b8cf2a5bc6df738b4ddbb273b71643ddbb00e51654349604cb8b92ec058"
+                        + "065e9c7ff0ee7a6164ae0814eacba58cfa1fc49fdb14dae83cabbab37e2f4daf", 1);
+    }
+
+    @Test
+    public void getRecoverIdFromSignature() {
+        final String sig = "611ff7f924f36d2e11632cf37979bb9716d3e07bae721ed82ee1ff5ea9bcb7f1"
+                + "63541492dd5b48a79d061007a99b89bbe70fbd524d3f57daf1eb9a6f8bea0797";
+        final int recId = Signature.getRecoverIdFromSignature(new BigInteger(PUBLIC_KEY, 16),
+                new BigInteger(sig.substring(0, 64), 16), new BigInteger(sig.substring(64), 16),
+                Hex.decode("95cd603fe577fa9548ec0c9b50b067566fe07c8af6acba45f6196f3a15d511f6"));
+        assertEquals(0, recId);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void nonCanonical() {
+        Signature.appendRecoveryId(Hex.decode(PUBLIC_KEY),
+                Hex.decode("f328629e198cfebc501baaf23c5c9ce90f14f836db4efc849fd7a3c93a875f7e"
+                        + "47b851a88a18cd8d4debb0cc787dcac897e2c50fe4d2411093ba9590b09bd678"),
+                Hex.decode("27ca64c092a959c7edc525ed45e845b1de6a7590d173fd2fad9133c8a779a1e3"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void wrongMessage() {
+        Signature.appendRecoveryId(Hex.decode(PUBLIC_KEY),
+                Hex.decode("611ff7f924f36d2e11632cf37979bb9716d3e07bae721ed82ee1ff5ea9bcb7f1"
+                        + "63541492dd5b48a79d061007a99b89bbe70fbd524d3f57daf1eb9a6f8bea0797"),
+                Hex.decode("709b55bd3da0f5a838125bd0ee20c5bfdd7caba173912d4281cae816b79a201b"));
+    }
+
+    private static void assertRecoveryId(String hash, String sig, int recId) {
+        final byte[] result = Signature.appendRecoveryId(Hex.decode(PUBLIC_KEY), Hex.decode(sig), Hex.decode(hash));
+        assertArrayEquals(Hex.decode(sig + String.format("%02x", recId)), result);
+    }
+}
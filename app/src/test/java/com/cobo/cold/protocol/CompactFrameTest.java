@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.protocol;
+
+import com.cobo.cold.protocol.fountain.FountainPart;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactFrameTest {
+
+    private static final String ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+
+    @Test
+    public void testRoundTrip() {
+        byte[] data = new byte[600];
+        new Random(1).nextBytes(data);
+        data[0] = 0;
+        CompactFrame frame = new CompactFrame(CompactFrame.KIND_FIXED, 2, 5, 2900,
+                CompactFrame.shortCheckSum("9e107d9d372bb6826bd81d3542a419d6"), true, "protobuf", data);
+        String text = frame.encode();
+        assertTrue(CompactFrame.isCompactFrame(text));
+        for (char c : text.toCharArray()) {
+            assertTrue(ALPHANUMERIC.indexOf(c) >= 0);
+        }
+
+        CompactFrame parsed = CompactFrame.parse(text);
+        assertEquals(CompactFrame.KIND_FIXED, parsed.kind);
+        assertEquals(2, parsed.index);
+        assertEquals(5, parsed.total);
+        assertEquals(2900, parsed.length);
+        assertEquals("9E107D9D", parsed.checkSum);
+        assertTrue(parsed.compress);
+        assertEquals("protobuf", parsed.valueType);
+        assertArrayEquals(data, parsed.data);
+    }
+
+    @Test
+    public void testFountainPart() {
+        FountainPart part = new FountainPart(12, 4, 1000, "9E107D9D", new byte[250], false, "");
+        FountainPart parsed = CompactFrame.parse(CompactFrame.of(part).encode()).toFountainPart();
+        assertEquals(12, parsed.seq);
+        assertEquals(4, parsed.total);
+        assertEquals(1000, parsed.length);
+        assertEquals("", parsed.valueType);
+        assertArrayEquals(part.data, parsed.data);
+    }
+
+    @Test
+    public void testFitsCapacity() {
+        Random random = new Random(2);
+        for (int chars : new int[]{154, 395, 1249, 1853}) {
+            byte[] data = new byte[CompactFrame.maxDataLength(chars)];
+            random.nextBytes(data);
+            data[0] = (byte) 0xff;
+            CompactFrame frame = new CompactFrame(CompactFrame.KIND_FOUNTAIN, 999999,
+                    FountainPart.MAX_TOTAL, FountainPart.MAX_LENGTH, "9E107D9D", true, "protobuf", data);
+            assertTrue(frame.encode().length() <= chars);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformed() {
+        CompactFrame.parse(CompactFrame.PREFIX + "F%3%7%5%100%9E107D9D%00");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOversized() {
+        CompactFrame.parse(CompactFrame.PREFIX + "R%0%1%2000000000%2000000000%9E107D9D%00");
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.cobo.cold.protocol;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+public class ZipUtilTest {
+
+    private static final byte[] PAYLOAD = ("\u0008\u0001\u0012\u0011cobo vault qrcode"
+            + "\u001a$abcd1234-5678-90ab-cdef-1234567890ab\u0012\u0003BTC\u0018\u0001"
+            + "\u000bM/49'/0'/0'xpub6CUGRUonZSQ4TWtTMmzXdrXDtypWKiKrhko4egpiMZbpiaQL2jkwSB1icq"
+            + "2\u000eCobo Vault Pro").getBytes(StandardCharsets.ISO_8859_1);
+
+    @Test
+    public void testGzip() {
+        byte[] zipped = ZipUtil.zip(PAYLOAD);
+        assertArrayEquals(PAYLOAD, ZipUtil.unzip(zipped));
+    }
+
+    @Test
+    public void testCorrupted() {
+        byte[] zipped = ZipUtil.zip(PAYLOAD);
+        assertNull(ZipUtil.unzip(Arrays.copyOf(zipped, zipped.length / 2)));
+    }
+}
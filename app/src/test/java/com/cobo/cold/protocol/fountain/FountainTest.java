@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.protocol.fountain;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FountainTest {
+
+    private static final String CHECKSUM = "0f1e2d3c4b5a69788796a5b4c3d2e1f0";
+
+    @Test
+    public void testSystematicParts() {
+        byte[] message = message(5000);
+        FountainEncoder encoder = new FountainEncoder(message, 600, CHECKSUM, true, "protobuf");
+        assertEquals(9, encoder.getFragmentCount());
+        FountainDecoder decoder = new FountainDecoder();
+        for (int i = 0; i < encoder.getFragmentCount(); i++) {
+            assertFalse(decoder.isComplete());
+            assertTrue(decoder.receive(encoder.nextPart()));
+        }
+        assertTrue(decoder.isComplete());
+        assertArrayEquals(message, decoder.getMessage());
+    }
+
+    @Test
+    public void testMissedParts() {
+        byte[] message = message(12000);
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            FountainEncoder encoder = new FountainEncoder(message, 600, CHECKSUM + round, true, "protobuf");
+            FountainDecoder decoder = new FountainDecoder();
+            int count = encoder.getFragmentCount();
+            int sent = 0;
+            while (!decoder.isComplete()) {
+                FountainPart part = encoder.nextPart();
+                sent++;
+                // the camera misses a third of the frames
+                if (random.nextInt(3) != 0) {
+                    decoder.receive(part);
+                }
+                assertTrue(sent < count * 4);
+            }
+            assertArrayEquals(message, decoder.getMessage());
+        }
+    }
+
+    @Test
+    public void testDuplicateAndForeignParts() {
+        byte[] message = message(1500);
+        FountainEncoder encoder = new FountainEncoder(message, 600, CHECKSUM, false, "json");
+        FountainEncoder other = new FountainEncoder(message(900), 600, "ffff", false, "json");
+        FountainDecoder decoder = new FountainDecoder();
+        FountainPart first = encoder.nextPart();
+        assertTrue(decoder.receive(first));
+        assertFalse(decoder.receive(first));
+        assertTrue(decoder.receive(other.nextPart()));
+        assertEquals("ffff", decoder.getCheckSum());
+        assertEquals(1, decoder.getSolvedCount());
+        assertTrue(decoder.receive(first));
+        assertEquals(CHECKSUM, decoder.getCheckSum());
+    }
+
+    @Test
+    public void testJson() throws JSONException {
+        FountainEncoder encoder = new FountainEncoder(message(2000), 600, CHECKSUM, true, "protobuf");
+        FountainPart part = encoder.nextPart();
+        JSONObject object = new JSONObject(part.toJson().toString());
+        assertTrue(FountainPart.isFountainPart(object));
+        FountainPart parsed = FountainPart.fromJson(object);
+        assertEquals(part.seq, parsed.seq);
+        assertEquals(part.total, parsed.total);
+        assertEquals(2000, parsed.length);
+        assertArrayEquals(part.data, parsed.data);
+    }
+
+    @Test
+    public void testOversizedParts() throws JSONException {
+        FountainPart part = new FountainPart(1, Integer.MAX_VALUE, FountainPart.MAX_LENGTH + 1,
+                CHECKSUM, new byte[600], false, "json");
+        FountainDecoder decoder = new FountainDecoder();
+        assertFalse(decoder.receive(part));
+        assertEquals(0, decoder.getFragmentCount());
+        try {
+            FountainPart.fromJson(part.toJson());
+            fail();
+        } catch (JSONException expected) {
+        }
+    }
+
+    private static byte[] message(int length) {
+        byte[] message = new byte[length];
+        new Random(length).nextBytes(message);
+        return message;
+    }
+}
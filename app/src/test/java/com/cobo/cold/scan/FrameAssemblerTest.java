@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.cobo.cold.scan;
+
+import com.cobo.cold.encryptioncore.utils.ByteFormatter;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.spongycastle.util.encoders.Base64;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FrameAssemblerTest {
+
+    @Test
+    public void testOutOfOrderFrames() throws Exception {
+        byte[] message = new byte[2000];
+        new Random(7).nextBytes(message);
+        String[] frames = frames(Base64.toBase64String(message), 37, "protobuf");
+
+        FrameAssembler assembler = new FrameAssembler();
+        int[] order = {3, 0, 0, 5, 1, 3};
+        for (int index : order) {
+            if (!assembler.isDuplicate(frames[index])) {
+                assembler.receive(ScannedData.fromJson(new JSONObject(frames[index])));
+            }
+        }
+        assertTrue(assembler.isDuplicate(frames[3]));
+        assertFalse(assembler.isDuplicate(frames[2]));
+        assertEquals(4, assembler.getReceivedCount());
+
+        for (int i = 0; i < frames.length; i++) {
+            if (!assembler.isDuplicate(frames[i])) {
+                assembler.receive(ScannedData.fromJson(new JSONObject(frames[i])));
+            }
+        }
+        assertTrue(assembler.isComplete());
+        assertEquals(frames.length, assembler.getReceivedCount());
+        assertArrayEquals(message, assembler.getResult().data);
+    }
+
+    @Test
+    public void testChecksumMismatch() throws Exception {
+        byte[] message = new byte[100];
+        new Random(1).nextBytes(message);
+        String[] frames = frames(Base64.toBase64String(message), 40, "protobuf");
+        String[] other = frames(Base64.toBase64String(new byte[100]), 40, "protobuf");
+
+        FrameAssembler assembler = new FrameAssembler();
+        assembler.receive(ScannedData.fromJson(new JSONObject(frames[0])));
+        // a frame of another message starts over
+        assembler.receive(ScannedData.fromJson(new JSONObject(other[1])));
+        assertEquals(1, assembler.getReceivedCount());
+
+        JSONObject forged = new JSONObject(other[0]);
+        forged.put("value", new JSONObject(frames[0]).getString("value"));
+        assembler.receive(ScannedData.fromJson(forged));
+        for (int i = 2; i < other.length; i++) {
+            assembler.receive(ScannedData.fromJson(new JSONObject(other[i])));
+        }
+        assertTrue(assembler.isComplete());
+        assertNull(assembler.getResult().data);
+    }
+
+    @Test
+    public void testPlainText() throws Exception {
+        String text = "{\"data\":{\"type\":\"TYPE_SYNC\",\"uuid\":\"\"}}";
+        String[] frames = frames(text, 9, "");
+
+        FrameAssembler assembler = new FrameAssembler();
+        for (int i = frames.length - 1; i >= 0; i--) {
+            assembler.receive(ScannedData.fromJson(new JSONObject(frames[i])));
+        }
+        assertTrue(assembler.isComplete());
+        assertEquals(text, new String(assembler.getResult().data, StandardCharsets.UTF_8));
+    }
+
+    private static String[] frames(String value, int size, String valueType)
+            throws JSONException, NoSuchAlgorithmException {
+        String checkSum = ByteFormatter.bytes2hex(MessageDigest.getInstance("MD5")
+                .digest(value.getBytes(StandardCharsets.UTF_8)));
+        int total = (value.length() + size - 1) / size;
+        String[] frames = new String[total];
+        for (int i = 0; i < total; i++) {
+            JSONObject object = new JSONObject();
+            object.put("index", i);
+            object.put("total", total);
+            object.put("checkSum", checkSum);
+            object.put("value", value.substring(i * size, Math.min(value.length(), (i + 1) * size)));
+            object.put("compress", false);
+            object.put("valueType", valueType);
+            frames[i] = object.toString();
+        }
+        return frames;
+    }
+}
@@ -20,7 +20,6 @@ package com.cobo.coinlib;
 import org.bouncycastle.jcajce.provider.digest.SHA256;
 
 import java.util.Arrays;
-import java.util.BitSet;
 import java.util.List;
 import java.util.StringTokenizer;
 
@@ -33,23 +32,27 @@ import java.util.StringTokenizer;
  * for generating deterministic keys</a>
  */
 public class MnemonicUtils {
+    private static final int MAX_WORDS = 24;
     private static List<String> WORD_LIST = null;
 
     public static String generateMnemonic(byte[] initialEntropy) {
         validateEntropy(initialEntropy);
-        final List<String> words = getWords();
 
         int ent = initialEntropy.length * 8;
         int checksumLength = ent / 32;
 
         byte checksum = calculateChecksum(initialEntropy);
-        boolean[] bits = convertToBits(initialEntropy, checksum);
+        long[] bits = new long[(ent + checksumLength + 63) / 64];
+        for (int i = 0; i < initialEntropy.length; i++) {
+            writeBits(bits, i * 8, initialEntropy[i] & 0xFF, 8);
+        }
+        writeBits(bits, ent, (checksum & 0xFF) >>> (8 - checksumLength), checksumLength);
 
         int iterations = (ent + checksumLength) / 11;
         StringBuilder mnemonicBuilder = new StringBuilder();
         for (int i = 0; i < iterations; i++) {
-            int index = toInt(nextElevenBits(bits, i));
-            mnemonicBuilder.append(words.get(index));
+            int index = (int) readBits(bits, i * 11, 11);
+            mnemonicBuilder.append(WordIndex.word(index));
 
             boolean notLastIteration = i < iterations - 1;
             if (notLastIteration) {
@@ -68,7 +71,8 @@ public class MnemonicUtils {
      * @return Byte array representation of the entropy
      */
     public static byte[] generateEntropy(String mnemonic) {
-        final BitSet bits = new BitSet();
+        // 24 words of 11 bits fit in 5 longs, longer input fails the size check below
+        final long[] bits = new long[(MAX_WORDS * 11 + 63) / 64];
         final int size = mnemonicToBits(mnemonic, bits);
         if (size == 0) {
             throw new IllegalArgumentException("Empty mnemonic");
@@ -80,12 +84,12 @@ public class MnemonicUtils {
         }
         final byte[] entropy = new byte[ent / 8];
         for (int i = 0; i < entropy.length; i++) {
-            entropy[i] = readByte(bits, i);
+            entropy[i] = (byte) readBits(bits, i * 8, 8);
         }
         validateEntropy(entropy);
 
         final byte expectedChecksum = calculateChecksum(entropy);
-        final byte actualChecksum = readByte(bits, entropy.length);
+        final byte actualChecksum = (byte) readBits(bits, ent, 8);
         if (expectedChecksum != actualChecksum) {
             throw new IllegalArgumentException("Wrong checksum");
         }
@@ -110,12 +114,6 @@ public class MnemonicUtils {
         }
     }
 
-    private static boolean[] nextElevenBits(boolean[] bits, int i) {
-        int from = i * 11;
-        int to = from + 11;
-        return Arrays.copyOfRange(bits, from, to);
-    }
-
     private static void validateEntropy(byte[] entropy) {
         if (entropy == null) {
             throw new IllegalArgumentException("Entropy is required");
@@ -137,72 +135,49 @@ public class MnemonicUtils {
         return ent >= 128 && ent <= 256 && ent % 32 == 0;
     }
 
-    private static boolean[] convertToBits(byte[] initialEntropy, byte checksum) {
-        int ent = initialEntropy.length * 8;
-        int checksumLength = ent / 32;
-        int totalLength = ent + checksumLength;
-        boolean[] bits = new boolean[totalLength];
-
-        for (int i = 0; i < initialEntropy.length; i++) {
-            for (int j = 0; j < 8; j++) {
-                byte b = initialEntropy[i];
-                bits[8 * i + j] = toBit(b, j);
-            }
-        }
-
-        for (int i = 0; i < checksumLength; i++) {
-            bits[ent + i] = toBit(checksum, i);
-        }
-
-        return bits;
-    }
-
-    private static boolean toBit(byte value, int index) {
-        return ((value >>> (7 - index)) & 1) > 0;
-    }
-
-    private static int toInt(boolean[] bits) {
-        int value = 0;
-        for (int i = 0; i < bits.length; i++) {
-            boolean isSet = bits[i];
-            if (isSet) {
-                value += 1 << bits.length - i - 1;
-            }
-        }
-
-        return value;
-    }
-
-    private static int mnemonicToBits(String mnemonic, BitSet bits) {
+    private static int mnemonicToBits(String mnemonic, long[] bits) {
         int bit = 0;
-        final List<String> vocabulary = getWords();
         final StringTokenizer tokenizer = new StringTokenizer(mnemonic, " ");
         while (tokenizer.hasMoreTokens()) {
             final String word = tokenizer.nextToken();
-            final int index = vocabulary.indexOf(word);
+            final int index = WordIndex.indexOf(word);
             if (index < 0) {
                 throw new IllegalArgumentException(String.format(
                         "Mnemonic word '%s' should be in the word list", word));
             }
-            for (int k = 0; k < 11; k++) {
-                bits.set(bit++, isBitSet(index, 10 - k));
+            if (bit + 11 > bits.length * 64) {
+                throw new IllegalArgumentException("Wrong mnemonic size");
             }
+            writeBits(bits, bit, index, 11);
+            bit += 11;
         }
         return bit;
     }
 
-    private static byte readByte(BitSet bits, int startByte) {
-        byte res = 0;
-        for (int k = 0; k < 8; k++) {
-            if (bits.get(startByte * 8 + k)) {
-                res = (byte) (res | (1 << (7 - k)));
-            }
+    // bits are numbered from the most significant bit of bits[0], a value may span two longs
+    private static void writeBits(long[] bits, int position, long value, int width) {
+        final int word = position >>> 6;
+        final int offset = position & 63;
+        final int shift = 64 - offset - width;
+        if (shift >= 0) {
+            bits[word] |= value << shift;
+        } else {
+            bits[word] |= value >>> -shift;
+            bits[word + 1] |= value << (64 + shift);
         }
-        return res;
     }
 
-    private static boolean isBitSet(int n, int k) {
-        return ((n >> k) & 1) == 1;
+    private static long readBits(long[] bits, int position, int width) {
+        final int word = position >>> 6;
+        final int offset = position & 63;
+        final int shift = 64 - offset - width;
+        final long mask = (1L << width) - 1;
+        if (shift >= 0) {
+            return (bits[word] >>> shift) & mask;
+        }
+        final long high = bits[word] << -shift;
+        final long low = word + 1 < bits.length ? bits[word + 1] >>> (64 + shift) : 0;
+        return (high | low) & mask;
     }
 
     private static byte calculateChecksum(byte[] initialEntropy) {
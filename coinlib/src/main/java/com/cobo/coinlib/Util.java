@@ -19,6 +19,7 @@ package com.cobo.coinlib;
 
 import android.text.TextUtils;
 
+import com.cobo.coinlib.coins.DerivationEngine;
 import com.cobo.coinlib.exception.InvalidPathException;
 import com.cobo.coinlib.path.AddressIndex;
 import com.cobo.coinlib.path.Change;
@@ -29,8 +30,6 @@ import org.bitcoinj.core.ECKey;
 import org.bitcoinj.core.Sha256Hash;
 import org.bitcoinj.core.SignatureDecodeException;
 import org.bitcoinj.crypto.DeterministicKey;
-import org.bitcoinj.crypto.HDKeyDerivation;
-import org.bitcoinj.params.MainNetParams;
 import org.bouncycastle.asn1.ASN1InputStream;
 import org.bouncycastle.asn1.ASN1Integer;
 import org.bouncycastle.asn1.ASN1Primitive;
@@ -49,7 +48,7 @@ import static com.cobo.coinlib.coins.BTC.Electrum.TxUtils.int2bytes;
 public class Util {
 
     public static String pubKeyFromExtentPubKey(String extendPubKey) {
-        DeterministicKey key = DeterministicKey.deserializeB58(extendPubKey, MainNetParams.get());
+        DeterministicKey key = DerivationEngine.sInstance.getAccountKey(extendPubKey);
         return Hex.toHexString(key.getPubKey());
     }
 
@@ -62,13 +61,13 @@ public class Util {
             return null;
         }
         Change changeIndex = addressIndex.getParent();
-        DeterministicKey account = DeterministicKey.deserializeB58(accountXpub, MainNetParams.get());
-        DeterministicKey change = HDKeyDerivation.deriveChildKey(account, changeIndex.getValue());
-        return HDKeyDerivation.deriveChildKey(change, addressIndex.getValue()).getPublicKeyAsHex();
+        return DerivationEngine.sInstance
+                .getAddressKey(accountXpub, changeIndex.getValue(), addressIndex.getValue())
+                .getPublicKeyAsHex();
     }
 
     public static String getPublicKeyHex(String exPub) {
-        DeterministicKey key = DeterministicKey.deserializeB58(exPub, MainNetParams.get());
+        DeterministicKey key = DerivationEngine.sInstance.getAccountKey(exPub);
         return key.getPublicKeyAsHex();
     }
 
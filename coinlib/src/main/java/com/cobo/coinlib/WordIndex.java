@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib;
+
+import java.util.Arrays;
+
+/**
+ * Constant-time lookups over the BIP39 english word list.
+ * <p>
+ * BIP39 guarantees every word is unique in its first four letters, so each word
+ * is keyed by those letters packed into an int. Word to index goes through a
+ * minimal perfect hash (hash and displace) built once over the 2048 keys and is
+ * confirmed against the full word. Completion walks a trie of at most four
+ * levels whose nodes hold the range of the sorted list sharing their prefix.
+ * Lookups do not allocate.
+ */
+public final class WordIndex {
+
+    public static final int WORD_COUNT = 2048;
+    private static final int PREFIX_LENGTH = 4;
+    private static final int BUCKET_COUNT = 1024;
+
+    private static final String[] WORDS = WordList.words;
+
+    // minimal perfect hash: displacement seed per bucket, word index per slot
+    private static final int[] sSeeds = new int[BUCKET_COUNT];
+    private static final short[] sSlots = new short[WORD_COUNT];
+
+    // trie nodes in breadth first order, node 0 is the root
+    private static int[] sFirstChild;
+    private static int[] sChildCount;
+    private static char[] sLetter;
+    private static short[] sStart;
+    private static short[] sEnd;
+
+    static {
+        buildHash();
+        buildTrie();
+    }
+
+    private WordIndex() {
+    }
+
+    /**
+     * @param word word to look up, must be lowercase
+     * @return index of the word in the BIP39 list, or -1 if it is not in it
+     */
+    public static int indexOf(CharSequence word) {
+        final int key = key(word);
+        if (key < 0) {
+            return -1;
+        }
+        final int index = sSlots[slot(key, sSeeds[bucket(key)])];
+        return contentEquals(WORDS[index], word) ? index : -1;
+    }
+
+    public static boolean contains(CharSequence word) {
+        return indexOf(word) >= 0;
+    }
+
+    public static String word(int index) {
+        return WORDS[index];
+    }
+
+    /**
+     * @param prefix prefix typed so far, letters are matched case-insensitively
+     * @return index of the first word starting with the prefix, or -1 if none does
+     */
+    public static int prefixStart(CharSequence prefix) {
+        final int node = findNode(prefix);
+        return node < 0 ? -1 : sStart[node];
+    }
+
+    /**
+     * @param prefix prefix typed so far, letters are matched case-insensitively
+     * @return number of words starting with the prefix, they are contiguous from {@link #prefixStart}
+     */
+    public static int prefixCount(CharSequence prefix) {
+        final int node = findNode(prefix);
+        return node < 0 ? 0 : sEnd[node] - sStart[node];
+    }
+
+    private static int findNode(CharSequence prefix) {
+        final int length = prefix.length();
+        int node = 0;
+        int depth = 0;
+        for (; depth < length && depth < PREFIX_LENGTH; depth++) {
+            node = child(node, Character.toLowerCase(prefix.charAt(depth)));
+            if (node < 0) {
+                return -1;
+            }
+        }
+        if (depth == length) {
+            return node;
+        }
+        // four letters pick at most one word, which has to match the rest of the prefix
+        final int start = sStart[node];
+        if (sEnd[node] - start != 1) {
+            return -1;
+        }
+        final String word = WORDS[start];
+        if (word.length() < length) {
+            return -1;
+        }
+        for (int i = depth; i < length; i++) {
+            if (word.charAt(i) != Character.toLowerCase(prefix.charAt(i))) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    private static int child(int node, char letter) {
+        final int first = sFirstChild[node];
+        final int last = first + sChildCount[node];
+        for (int i = first; i < last; i++) {
+            if (sLetter[i] == letter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void buildTrie() {
+        // every word adds at most one node per level, trimmed once the trie is built
+        final int capacity = 1 + PREFIX_LENGTH * WORD_COUNT;
+        sFirstChild = new int[capacity];
+        sChildCount = new int[capacity];
+        sLetter = new char[capacity];
+        sStart = new short[capacity];
+        sEnd = new short[capacity];
+        sEnd[0] = WORD_COUNT;
+
+        int count = 1;
+        int levelStart = 0;
+        int levelEnd = 1;
+        for (int depth = 0; depth < PREFIX_LENGTH; depth++) {
+            for (int node = levelStart; node < levelEnd; node++) {
+                sFirstChild[node] = count;
+                int i = sStart[node];
+                while (i < sEnd[node]) {
+                    if (WORDS[i].length() <= depth) {
+                        i++;
+                        continue;
+                    }
+                    final char letter = WORDS[i].charAt(depth);
+                    int j = i + 1;
+                    while (j < sEnd[node] && WORDS[j].length() > depth && WORDS[j].charAt(depth) == letter) {
+                        j++;
+                    }
+                    sLetter[count] = letter;
+                    sStart[count] = (short) i;
+                    sEnd[count] = (short) j;
+                    count++;
+                    i = j;
+                }
+                sChildCount[node] = count - sFirstChild[node];
+            }
+            levelStart = levelEnd;
+            levelEnd = count;
+        }
+
+        sFirstChild = Arrays.copyOf(sFirstChild, count);
+        sChildCount = Arrays.copyOf(sChildCount, count);
+        sLetter = Arrays.copyOf(sLetter, count);
+        sStart = Arrays.copyOf(sStart, count);
+        sEnd = Arrays.copyOf(sEnd, count);
+    }
+
+    private static void buildHash() {
+        final int[] keys = new int[WORD_COUNT];
+        final int[][] buckets = new int[BUCKET_COUNT][];
+        final int[] bucketSizes = new int[BUCKET_COUNT];
+        for (int i = 0; i < WORD_COUNT; i++) {
+            keys[i] = key(WORDS[i]);
+            bucketSizes[bucket(keys[i])]++;
+        }
+        for (int b = 0; b < BUCKET_COUNT; b++) {
+            buckets[b] = new int[bucketSizes[b]];
+            bucketSizes[b] = 0;
+        }
+        for (int i = 0; i < WORD_COUNT; i++) {
+            final int b = bucket(keys[i]);
+            buckets[b][bucketSizes[b]++] = i;
+        }
+
+        // place the largest buckets first while the table is still sparse
+        int maxSize = 0;
+        for (int[] bucket : buckets) {
+            maxSize = Math.max(maxSize, bucket.length);
+        }
+        final int[] order = new int[BUCKET_COUNT];
+        int ordered = 0;
+        for (int size = maxSize; size > 0; size--) {
+            for (int b = 0; b < BUCKET_COUNT; b++) {
+                if (buckets[b].length == size) {
+                    order[ordered++] = b;
+                }
+            }
+        }
+
+        final boolean[] taken = new boolean[WORD_COUNT];
+        final int[] slots = new int[maxSize];
+        for (int o = 0; o < ordered; o++) {
+            final int b = order[o];
+            final int[] bucket = buckets[b];
+            for (int seed = 1; ; seed++) {
+                int placed = 0;
+                for (; placed < bucket.length; placed++) {
+                    final int slot = slot(keys[bucket[placed]], seed);
+                    if (taken[slot] || contains(slots, placed, slot)) {
+                        break;
+                    }
+                    slots[placed] = slot;
+                }
+                if (placed == bucket.length) {
+                    for (int i = 0; i < bucket.length; i++) {
+                        taken[slots[i]] = true;
+                        sSlots[slots[i]] = (short) bucket[i];
+                    }
+                    sSeeds[b] = seed;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // up to four lowercase letters packed 5 bits each, -1 if the word can not be in the list
+    private static int key(CharSequence word) {
+        final int length = word.length();
+        if (length < 3 || length > 8) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 0; i < PREFIX_LENGTH; i++) {
+            int letter = 0;
+            if (i < length) {
+                final char c = word.charAt(i);
+                if (c < 'a' || c > 'z') {
+                    return -1;
+                }
+                letter = c - 'a' + 1;
+            }
+            key = (key << 5) | letter;
+        }
+        return key;
+    }
+
+    private static int bucket(int key) {
+        return (mix(key) >>> 1) % BUCKET_COUNT;
+    }
+
+    private static int slot(int key, int seed) {
+        return (mix(key ^ (seed * 0x9E3779B9)) >>> 1) % WORD_COUNT;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static boolean contentEquals(String word, CharSequence other) {
+        final int length = word.length();
+        if (length != other.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != other.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
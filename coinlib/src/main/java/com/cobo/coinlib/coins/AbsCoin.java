@@ -24,8 +24,6 @@ import com.cobo.coinlib.interfaces.SignCallback;
 import com.cobo.coinlib.interfaces.Signer;
 import com.cobo.coinlib.v8.CoinImpl;
 
-import java.lang.reflect.InvocationTargetException;
-
 public abstract class AbsCoin implements Coin {
     protected final Coin impl;
 
@@ -34,16 +32,8 @@ public abstract class AbsCoin implements Coin {
     }
 
     public static AbsCoin newInstance(String coinCode) {
-        Coin impl = new CoinImpl(coinCode);
-        try {
-            Class<?> clazz = Class.forName(CoinReflect.getCoinClassByCoinCode(coinCode));
-            return (AbsCoin) clazz.getDeclaredConstructor(Coin.class).newInstance(impl);
-        } catch (ClassNotFoundException | NoSuchMethodException
-                | IllegalAccessException | InstantiationException
-                | InvocationTargetException e) {
-            e.printStackTrace();
-        }
-        return null;
+        CoinRegistry.Entry entry = CoinRegistry.get(coinCode);
+        return entry != null ? entry.coin.create(new CoinImpl(coinCode)) : null;
     }
 
     @Override
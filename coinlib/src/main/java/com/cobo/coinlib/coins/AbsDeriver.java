@@ -21,33 +21,58 @@ import androidx.annotation.NonNull;
 
 import org.bitcoinj.core.NetworkParameters;
 import org.bitcoinj.crypto.DeterministicKey;
-import org.bitcoinj.crypto.HDKeyDerivation;
 import org.bitcoinj.params.MainNetParams;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class AbsDeriver {
     public static AbsDeriver newInstance(@NonNull String coinCode) {
-        try {
-            Class clazz = Class.forName(CoinReflect.getCoinClassByCoinCode(coinCode) + "$Deriver");
-            return (AbsDeriver) clazz.newInstance();
-        } catch (ClassNotFoundException | IllegalAccessException | InstantiationException e) {
-            e.printStackTrace();
-        }
-        return null;
+        CoinRegistry.Entry entry = CoinRegistry.get(coinCode);
+        return entry != null ? entry.deriver.create() : null;
     }
 
     protected static final NetworkParameters MAINNET = MainNetParams.get();
 
-    protected DeterministicKey getAddrDeterministicKey(String accountXpub, int changeIndex, int addressIndex) {
-        DeterministicKey account = DeterministicKey.deserializeB58(accountXpub, MAINNET);
-        DeterministicKey change = HDKeyDerivation.deriveChildKey(account, changeIndex);
-        return HDKeyDerivation.deriveChildKey(change, addressIndex);
+    /**
+     * @param cache false to derive the address node without keeping it, for one-off runs
+     *              that would otherwise flush the leaves in use
+     */
+    protected DeterministicKey getAddrDeterministicKey(String accountXpub, int changeIndex,
+                                                       int addressIndex, boolean cache) {
+        if (cache) {
+            return DerivationEngine.sInstance.getAddressKey(accountXpub, changeIndex, addressIndex);
+        }
+        return DerivationEngine.sInstance.deriveAddressKey(accountXpub, changeIndex, addressIndex);
     }
 
     protected DeterministicKey getDeterministicKey(String xPub) {
-        return DeterministicKey.deserializeB58(xPub, MAINNET);
+        return DerivationEngine.sInstance.getAccountKey(xPub);
+    }
+
+    /**
+     * derive a run of consecutive addresses under the same change node, the
+     * change node is cached but the addresses are not
+     *
+     * @param xPubKey     account extended public key
+     * @param changeIndex 0 for receive, 1 for change
+     * @param from        index of the first address
+     * @param count       number of addresses to derive
+     * @return addresses of index from to from + count - 1, in order
+     */
+    public List<String> deriveRange(String xPubKey, int changeIndex, int from, int count) {
+        List<String> addresses = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            addresses.add(derive(xPubKey, changeIndex, i, false));
+        }
+        return addresses;
+    }
+
+    public String derive(String xPubKey, int changeIndex, int addrIndex) {
+        return derive(xPubKey, changeIndex, addrIndex, true);
     }
 
-    public abstract String derive(String xPubKey, int changeIndex, int addrIndex);
+    protected abstract String derive(String xPubKey, int changeIndex, int addrIndex, boolean cache);
 
     public abstract String derive(String xPubKey);
 }
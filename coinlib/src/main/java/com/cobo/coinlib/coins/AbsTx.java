@@ -30,8 +30,6 @@ import com.cobo.coinlib.utils.Coins;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.lang.reflect.InvocationTargetException;
-
 public abstract class AbsTx {
 
     protected String txId;
@@ -94,16 +92,14 @@ public abstract class AbsTx {
     public static AbsTx newInstance(JSONObject object) throws JSONException {
 
         String coinCode = object.getString("coinCode");
+        CoinRegistry.Entry entry = CoinRegistry.get(coinCode);
+        if (entry == null) {
+            return null;
+        }
 
         try {
-            Class<?> clazz = Class.forName(CoinReflect.getCoinClassByCoinCode(coinCode) + "$Tx");
-            return (AbsTx) clazz.getDeclaredConstructor(JSONObject.class, String.class)
-                    .newInstance(object, coinCode);
-        } catch (ClassNotFoundException
-                | InstantiationException
-                | InvocationTargetException
-                | NoSuchMethodException
-                | IllegalAccessException e) {
+            return entry.tx.create(object, coinCode);
+        } catch (JSONException | InvalidTransactionException | RuntimeException e) {
             e.printStackTrace();
         }
         return null;
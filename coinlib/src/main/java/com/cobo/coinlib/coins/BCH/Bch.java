@@ -66,8 +66,8 @@ public class Bch extends Btc {
     public static class Deriver extends AbsDeriver {
 
         @Override
-        public String derive(String xPubKey, int changeIndex, int addrIndex) {
-            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
+        protected String derive(String xPubKey, int changeIndex, int addrIndex, boolean cache) {
+            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex, cache);
             LegacyAddress addr = LegacyAddress.fromPubKeyHash(MAINNET, address.getPubKeyHash());
             return addr.toBase58();
         }
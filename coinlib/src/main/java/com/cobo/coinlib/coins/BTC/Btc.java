@@ -211,8 +211,8 @@ public class Btc extends AbsCoin {
     public static class Deriver extends AbsDeriver {
 
         @Override
-        public String derive(String accountXpub, int changeIndex, int addressIndex) {
-            DeterministicKey address = getAddrDeterministicKey(accountXpub, changeIndex, addressIndex);
+        protected String derive(String accountXpub, int changeIndex, int addressIndex, boolean cache) {
+            DeterministicKey address = getAddrDeterministicKey(accountXpub, changeIndex, addressIndex, cache);
             LegacyAddress addr = LegacyAddress.fromScriptHash(MAINNET,
                     segWitOutputScript(address.getPubKeyHash()).getPubKeyHash());
             return addr.toBase58();
@@ -220,7 +220,7 @@ public class Btc extends AbsCoin {
 
         @Override
         public String derive(String xPubKey) {
-            DeterministicKey key = DeterministicKey.deserializeB58(xPubKey, MAINNET);
+            DeterministicKey key = getDeterministicKey(xPubKey);
             return LegacyAddress.fromScriptHash(MAINNET,
                     segWitOutputScript(key.getPubKeyHash()).getPubKeyHash()).toBase58();
         }
@@ -19,6 +19,7 @@ package com.cobo.coinlib.coins.BTC.Electrum;
 
 import androidx.annotation.NonNull;
 
+import org.bitcoinj.core.ProtocolException;
 import org.bitcoinj.core.Transaction;
 import org.bitcoinj.core.Utils;
 import org.bitcoinj.params.MainNetParams;
@@ -27,7 +28,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 
@@ -40,7 +41,7 @@ public class ElectrumTx {
     private ArrayList<TransactionInput> inputs;
     private ArrayList<TransactionOutput> outputs;
 
-    private static final String PARTIAL_TXN_HEADER_MAGIC = "45505446ff";
+    private static final byte[] PARTIAL_TXN_HEADER_MAGIC = {0x45, 0x50, 0x54, 0x46, (byte) 0xff};
     private static final int PARTIAL_FORMAT_VERSION = 0;
 
     public ElectrumTx(long version, boolean partial, boolean isSegwit){
@@ -50,42 +51,51 @@ public class ElectrumTx {
     }
 
     public static ElectrumTx parse(byte[] rawElectrumTx) throws SerializationException {
-        int offset = 0;
-        int length = rawElectrumTx.length;
-        ByteArrayInputStream rawTxStream = new ByteArrayInputStream(rawElectrumTx);
-        byte[] magicPrefix = new byte[5];
-        offset += rawTxStream.read(magicPrefix, 0, 5);
-        boolean partial = PARTIAL_TXN_HEADER_MAGIC.equals(Hex.toHexString(magicPrefix));
-        byte[] formatVersion = new byte[1];
-        offset += rawTxStream.read(formatVersion, 0, 1);
-
-
-        if (formatVersion[0] != PARTIAL_FORMAT_VERSION) {
-            throw new SerializationException("format version is not supported");
+        return parse(ByteBuffer.wrap(rawElectrumTx));
+    }
+
+    /**
+     * parse a transaction exported by electrum, the buffer is read in place from its position
+     * and left untouched, only the fields kept by the result are copied out of it
+     *
+     * @param rawElectrumTx raw transaction, optionally prefixed by the partial transaction header
+     * @return the parsed transaction
+     */
+    public static ElectrumTx parse(ByteBuffer rawElectrumTx) throws SerializationException {
+        ByteBuffer raw = rawElectrumTx.slice();
+        if (raw.remaining() < PARTIAL_TXN_HEADER_MAGIC.length + 1) {
+            throw new SerializationException("transaction is truncated");
         }
+        boolean partial = true;
+        for (int i = 0; i < PARTIAL_TXN_HEADER_MAGIC.length; i++) {
+            partial &= raw.get() == PARTIAL_TXN_HEADER_MAGIC[i];
+        }
+        byte formatVersion = raw.get();
 
-        int txLength = length - offset;
-
-        byte[] txPlayLoad = new byte[txLength];
-
-        rawTxStream.read(txPlayLoad, 0, txLength);
-
-        Message txMessage = new Message(txPlayLoad);
-        long version = txMessage.readUint32();
-        byte marker = txMessage.payload[txMessage.cursor];
-        boolean useSegwit = marker == 0;
-        if (useSegwit) {
-            txMessage.readBytes(2);
+        if (formatVersion != PARTIAL_FORMAT_VERSION) {
+            throw new SerializationException("format version is not supported");
         }
-        ElectrumTx tx = new ElectrumTx(version, partial, useSegwit);
-        tx.parseInput(txMessage);
-        tx.parseOutput(txMessage);
 
-        for(int i =0; i < tx.inputs.size(); i++) {
-            parseWitness(txMessage, tx.inputs.get(i));
+        try {
+            Message txMessage = new Message(raw);
+            long version = txMessage.readUint32();
+            boolean useSegwit = txMessage.peekByte() == 0;
+            if (useSegwit) {
+                txMessage.readSlice(2);
+            }
+            ElectrumTx tx = new ElectrumTx(version, partial, useSegwit);
+            tx.parseInput(txMessage);
+            tx.parseOutput(txMessage);
+
+            TxUtils.PubKeyDecoder decoder = new TxUtils.PubKeyDecoder();
+            for (int i = 0; i < tx.inputs.size(); i++) {
+                parseWitness(txMessage, tx.inputs.get(i), decoder);
+            }
+            tx.lockTime = txMessage.readUint32();
+            return tx;
+        } catch (ProtocolException e) {
+            throw new SerializationException(e.getMessage());
         }
-        tx.lockTime = txMessage.readUint32();
-        return tx;
     }
 
     public long getVersion() {
@@ -131,7 +141,8 @@ public class ElectrumTx {
         }
     }
 
-    private static void parseWitness(Message txMessage, TransactionInput txIn) throws SerializationException {
+    private static void parseWitness(Message txMessage, TransactionInput txIn,
+                                     TxUtils.PubKeyDecoder decoder) throws SerializationException {
         long n = txMessage.readVarInt();
         if (n == 0) {
             txIn.witness = "00";
@@ -143,11 +154,18 @@ public class ElectrumTx {
 
         }
         long witnessNum = txMessage.readVarInt();
-        String[] witnessList = new String[(int) witnessNum];
+        ByteBuffer pubKey = null;
         for (int i =0; i < witnessNum; i++) {
-            witnessList[i] = Hex.toHexString(txMessage.readByteArray());
+            // only the pubkey placeholder is used, the other items are skipped without copying
+            ByteBuffer item = txMessage.readByteArraySlice();
+            if (i == 1) {
+                pubKey = item;
+            }
+        }
+        if (pubKey == null) {
+            throw new SerializationException("witness has no pubkey");
         }
-        txIn.pubKey = TxUtils.getPubKeyInfo(witnessList[1]);
+        txIn.pubKey = decoder.decode(pubKey);
     }
 
     @NonNull
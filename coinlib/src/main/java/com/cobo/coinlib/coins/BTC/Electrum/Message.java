@@ -20,41 +20,51 @@ package com.cobo.coinlib.coins.BTC.Electrum;
 
 import org.bitcoinj.core.ProtocolException;
 import org.bitcoinj.core.Sha256Hash;
-import org.bitcoinj.core.Utils;
-import org.bitcoinj.core.VarInt;
 
 import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 
+/**
+ * Little-endian reader over a view of the raw transaction. Fixed width fields and
+ * var ints are decoded in place, byte fields can be read as slices sharing the
+ * backing array or copied out when they outlive the parse.
+ */
 public class Message {
 
-    public static final int UNKNOWN_LENGTH = Integer.MIN_VALUE;
-
-    // Useful to ensure serialize/deserialize are consistent with each other.
-    private static final boolean SELF_CHECK = false;
+    // The view of the payload, its position is the cursor of the parse.
+    protected final ByteBuffer payload;
 
-    // The offset is how many bytes into the provided byte array this message payload starts at.
-    protected int offset;
-    // The cursor keeps track of where we are in the byte array as we parse it.
-    // Note that it's relative to the start of the array NOT the start of the message payload.
-    protected int cursor;
+    public Message(byte[] payload) {
+        this(ByteBuffer.wrap(payload));
+    }
 
-    protected int length = UNKNOWN_LENGTH;
+    public Message(ByteBuffer payload) {
+        this.payload = payload.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
 
-    // The raw message payload bytes themselves.
-    protected byte[] payload;
+    protected int peekByte() throws ProtocolException {
+        try {
+            return payload.get(payload.position()) & 0xff;
+        } catch (IndexOutOfBoundsException e) {
+            throw new ProtocolException(e);
+        }
+    }
 
-    public Message(byte[] payload) {
-        this.payload = payload;
-        this.length = payload.length;
+    protected long readUint8() throws ProtocolException {
+        try {
+            return payload.get() & 0xffL;
+        } catch (BufferUnderflowException e) {
+            throw new ProtocolException(e);
+        }
     }
 
     protected long readUint16() throws ProtocolException {
         try {
-            long u = Utils.readUint16(payload, cursor);
-            cursor += 2;
-            return u;
-        } catch (ArrayIndexOutOfBoundsException e) {
+            return payload.getShort() & 0xffffL;
+        } catch (BufferUnderflowException e) {
             throw new ProtocolException(e);
         }
     }
@@ -62,71 +72,83 @@ public class Message {
 
     protected long readUint32() throws ProtocolException {
         try {
-            long u = Utils.readUint32(payload, cursor);
-            cursor += 4;
-            return u;
-        } catch (ArrayIndexOutOfBoundsException e) {
+            return payload.getInt() & 0xffffffffL;
+        } catch (BufferUnderflowException e) {
             throw new ProtocolException(e);
         }
     }
 
     protected long readInt64() throws ProtocolException {
         try {
-            long u = Utils.readInt64(payload, cursor);
-            cursor += 8;
-            return u;
-        } catch (ArrayIndexOutOfBoundsException e) {
+            return payload.getLong();
+        } catch (BufferUnderflowException e) {
             throw new ProtocolException(e);
         }
     }
 
     protected BigInteger readUint64() throws ProtocolException {
-        // Java does not have an unsigned 64 bit type. So scrape it off the wire then flip.
-        return new BigInteger(Utils.reverseBytes(readBytes(8)));
+        // Java does not have an unsigned 64 bit type, flip the sign bit through BigInteger.
+        long u = readInt64();
+        BigInteger value = BigInteger.valueOf(u & Long.MAX_VALUE);
+        return u < 0 ? value.setBit(63) : value;
     }
 
     protected long readVarInt() throws ProtocolException {
-        return readVarInt(0);
+        int first = (int) readUint8();
+        if (first < 0xfd) {
+            return first;
+        } else if (first == 0xfd) {
+            return readUint16();
+        } else if (first == 0xfe) {
+            return readUint32();
+        } else {
+            return readInt64();
+        }
     }
 
-    protected long readVarInt(int offset) throws ProtocolException {
-        try {
-            VarInt varint = new VarInt(payload, cursor + offset);
-            cursor += offset + varint.getOriginalSizeInBytes();
-            return varint.value;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new ProtocolException(e);
+    protected ByteBuffer readSlice(int length) throws ProtocolException {
+        if (length < 0 || length > payload.remaining()) {
+            throw new ProtocolException("read " + length + " bytes with " + payload.remaining() + " left");
         }
+        ByteBuffer slice = payload.slice();
+        slice.limit(length);
+        payload.position(payload.position() + length);
+        return slice;
     }
 
     protected byte[] readBytes(int length) throws ProtocolException {
-        try {
-            byte[] b = new byte[length];
-            System.arraycopy(payload, cursor, b, 0, length);
-            cursor += length;
-            return b;
-        } catch (IndexOutOfBoundsException e) {
-            throw new ProtocolException(e);
-        }
+        ByteBuffer slice = readSlice(length);
+        byte[] b = new byte[length];
+        slice.get(b);
+        return b;
+    }
+
+    protected ByteBuffer readByteArraySlice() throws ProtocolException {
+        return readSlice(toLength(readVarInt()));
     }
 
     protected byte[] readByteArray() throws ProtocolException {
-        long len = readVarInt();
-        return readBytes((int)len);
+        return readBytes(toLength(readVarInt()));
     }
 
     protected String readStr() throws ProtocolException {
-        long length = readVarInt();
-        return length == 0 ? "" : new String(readBytes((int) length), StandardCharsets.UTF_8); // optimization for empty strings
+        int length = toLength(readVarInt());
+        return length == 0 ? "" : new String(readBytes(length), StandardCharsets.UTF_8); // optimization for empty strings
     }
 
     protected Sha256Hash readHash() throws ProtocolException {
         // We have to flip it around, as it's been read off the wire in little endian.
-        // Not the most efficient way to do this but the clearest.
         return Sha256Hash.wrapReversed(readBytes(32));
     }
 
     public boolean hasMoreBytes() {
-        return cursor < payload.length;
+        return payload.hasRemaining();
+    }
+
+    private int toLength(long length) throws ProtocolException {
+        if (length < 0 || length > payload.remaining()) {
+            throw new ProtocolException("length " + length + " exceeds the " + payload.remaining() + " bytes left");
+        }
+        return (int) length;
     }
 }
@@ -17,10 +17,8 @@
 
 package com.cobo.coinlib.coins.BTC.Electrum;
 
-import org.bitcoinj.core.Utils;
 import org.bitcoinj.script.Script;
 import org.bitcoinj.script.ScriptChunk;
-import org.bouncycastle.util.encoders.Hex;
 
 import java.math.BigInteger;
 
@@ -30,7 +28,7 @@ public class TransactionInput {
     public String type;
     public String preTxId;
     public long preTxIndex;
-    public String scriptSig;
+    public byte[] scriptSig;
     public long  sequence;
     public String witness;
     public BigInteger value;
@@ -47,15 +45,15 @@ public class TransactionInput {
     }
 
     private String parseTxId() {
-        return Hex.toHexString(Utils.reverseBytes(this.txMessage.readBytes(32)));
+        return this.txMessage.readHash().toString();
     }
 
     private long parseTxIndex(){
         return this.txMessage.readUint32();
     }
 
-    private String parseScriptSig(){
-        return Hex.toHexString(this.txMessage.readByteArray());
+    private byte[] parseScriptSig(){
+        return this.txMessage.readByteArray();
     }
 
     private long parseSequence(){
@@ -63,7 +61,7 @@ public class TransactionInput {
     }
 
     private String parseType() throws ElectrumTx.SerializationException {
-        Script script = new Script(Hex.decode(this.scriptSig));
+        Script script = new Script(this.scriptSig);
         if(script.getChunks().size() == 1) {
             ScriptChunk chunk = script.getChunks().get(0);
             assert chunk.data != null;
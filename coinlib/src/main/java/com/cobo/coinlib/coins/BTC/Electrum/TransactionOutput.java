@@ -22,12 +22,11 @@ import org.bitcoinj.core.LegacyAddress;
 import org.bitcoinj.core.NetworkParameters;
 import org.bitcoinj.params.MainNetParams;
 import org.bitcoinj.script.Script;
-import org.bouncycastle.util.encoders.Hex;
 
 public class TransactionOutput {
     private Message txMessage;
     public long value;
-    public String scriptPubKey;
+    public byte[] scriptPubKey;
     public String address;
 
     protected static final NetworkParameters MAINNET = MainNetParams.get();
@@ -45,12 +44,12 @@ public class TransactionOutput {
         return this.txMessage.readInt64();
     }
 
-    private String parseScriptPubKey() {
-        return Hex.toHexString(this.txMessage.readByteArray());
+    private byte[] parseScriptPubKey() {
+        return this.txMessage.readByteArray();
     }
 
     private String parseAddress(){
-        Script script = new Script(Hex.decode(this.scriptPubKey));
+        Script script = new Script(this.scriptPubKey);
         Address address = script.getToAddress(MAINNET);
         if (address instanceof LegacyAddress) {
             return ((LegacyAddress) address).toBase58();
@@ -17,25 +17,29 @@
 
 package com.cobo.coinlib.coins.BTC.Electrum;
 
-import com.cobo.coinlib.Util;
+import com.cobo.coinlib.coins.DerivationEngine;
 
 import org.bitcoinj.core.Base58;
 import org.bitcoinj.core.NetworkParameters;
 import org.bitcoinj.core.Sha256Hash;
-import org.bitcoinj.core.Utils;
 import org.bitcoinj.params.MainNetParams;
 import org.bouncycastle.util.encoders.Hex;
 
-import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 public class TxUtils {
 
     private static final NetworkParameters MAINNET = MainNetParams.get();
 
+    private static final int XPUB_TYPE = 0xff;
+    private static final int XPUB_LENGTH = 78;
+    private static final long MAX_CHILD_INDEX = 0x7fffffffL;
+
     public static byte[] int2bytes(int i) {
         return new byte[]{
                 (byte) ((i >> 24) & 0xFF),
@@ -46,48 +50,12 @@ public class TxUtils {
     }
 
     public static PubKeyInfo getPubKeyInfo(String xPubkey) throws ElectrumTx.SerializationException {
-        String type = xPubkey.substring(0,2);
-        if ("ff".equals(type)) {
-            int stringLength = xPubkey.length();
-            String trimmedPubKey = xPubkey.substring(2, stringLength);
-            return parseXpubKey(trimmedPubKey);
-        } else {
-            throw new ElectrumTx.SerializationException("currently only support bip32 extended type");
-        }
+        return new PubKeyDecoder().decode(ByteBuffer.wrap(Hex.decode(xPubkey)));
     }
 
     public static PubKeyInfo parseXpubKey(String pubkey) throws ElectrumTx.SerializationException {
-        byte[] pubKeyRaw = Hex.decode(pubkey);
-        byte[] pubKeyByte = Arrays.copyOfRange(pubKeyRaw, 0, 78);
-
-        byte[] addressBytes = new byte[pubKeyByte.length + 4];
-        int p2pkhPub = MAINNET.getBip32HeaderP2PKHpub();
-        byte[] p2pkhPubBytes = int2bytes(p2pkhPub);
-
-        System.arraycopy(p2pkhPubBytes, 0, addressBytes, 0, 4);
-        System.arraycopy(pubKeyByte, 4, addressBytes, 4, pubKeyByte.length - 4);
-        byte[] checksum = Sha256Hash.hashTwice(addressBytes, 0, pubKeyByte.length);
-        System.arraycopy(checksum, 0, addressBytes, pubKeyByte.length, 4);
-        String xPubKey = Base58.encode(addressBytes);
-
-
-        byte[] dd = Arrays.copyOfRange(pubKeyRaw, 78, pubKeyRaw.length);
-        ByteArrayInputStream a = new ByteArrayInputStream(dd);
-        List<Long> s = new ArrayList<Long>();
-        while (a.available() > 0) {
-            byte[] temp = new byte[2];
-            a.read(temp, 0, 2);
-            long n = Utils.readUint16(temp, 0);
-            if( n == 0xffff) {
-                byte[] temp2 = new byte[4];
-                a.read(temp2, 0, 4);
-                 n = Utils.readUint32(temp2, 0);
-            }
-            s.add(n);
-        };
-
-        return new PubKeyInfo(xPubKey, s);
-
+        ByteBuffer raw = ByteBuffer.wrap(Hex.decode(pubkey));
+        return new PubKeyDecoder().decodeXpubKey(raw);
     }
 
     public static boolean isMasterPublicKeyMatch(String xpub, ElectrumTx tx) {
@@ -96,6 +64,76 @@ public class TxUtils {
                 .allMatch(input -> xpub.equals(input.pubKey.xpub));
     }
 
+    /**
+     * Decodes the bip32 pubkey placeholders of an Electrum partial transaction.
+     * Inputs of one wallet share a handful of xpubs, so the base58 form of each
+     * xpub is computed once per decoder and identical placeholders share one
+     * {@link PubKeyInfo}; child keys come from {@link DerivationEngine}.
+     */
+    static class PubKeyDecoder {
+        private final Map<ByteBuffer, String> xpubs = new HashMap<>();
+        private final Map<ByteBuffer, PubKeyInfo> infos = new HashMap<>();
+
+        /**
+         * @param xPubkey witness item, a 0xff type byte followed by the xpub and its derivation levels,
+         *                not consumed by the call
+         */
+        PubKeyInfo decode(ByteBuffer xPubkey) throws ElectrumTx.SerializationException {
+            if (!xPubkey.hasRemaining() || (xPubkey.get(xPubkey.position()) & 0xff) != XPUB_TYPE) {
+                throw new ElectrumTx.SerializationException("currently only support bip32 extended type");
+            }
+            ByteBuffer trimmed = xPubkey.duplicate();
+            trimmed.position(trimmed.position() + 1);
+            return decodeXpubKey(trimmed.slice());
+        }
+
+        PubKeyInfo decodeXpubKey(ByteBuffer pubkey) throws ElectrumTx.SerializationException {
+            PubKeyInfo info = infos.get(pubkey);
+            if (info != null) {
+                return info;
+            }
+            if (pubkey.remaining() < XPUB_LENGTH) {
+                throw new ElectrumTx.SerializationException("extended key is truncated");
+            }
+            ByteBuffer key = pubkey.duplicate();
+            key.limit(key.position() + XPUB_LENGTH);
+            String xPubKey = xpubs.get(key);
+            if (xPubKey == null) {
+                xPubKey = encodeXpub(key.duplicate());
+                xpubs.put(key, xPubKey);
+            }
+
+            ByteBuffer levels = pubkey.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            levels.position(key.limit());
+            List<Long> s = new ArrayList<>(2);
+            while (levels.remaining() >= 2) {
+                long n = levels.getShort() & 0xffffL;
+                if (n == 0xffff) {
+                    if (levels.remaining() < 4) {
+                        break;
+                    }
+                    n = levels.getInt() & 0xffffffffL;
+                }
+                s.add(n);
+            }
+
+            info = new PubKeyInfo(xPubKey, s);
+            infos.put(pubkey, info);
+            return info;
+        }
+
+        private static String encodeXpub(ByteBuffer key) {
+            // electrum keeps the version bytes of the wallet, re-serialize them as a mainnet xpub
+            byte[] addressBytes = new byte[XPUB_LENGTH + 4];
+            ByteBuffer.wrap(addressBytes).putInt(MAINNET.getBip32HeaderP2PKHpub());
+            key.position(key.position() + 4);
+            key.get(addressBytes, 4, XPUB_LENGTH - 4);
+            byte[] checksum = Sha256Hash.hashTwice(addressBytes, 0, XPUB_LENGTH);
+            System.arraycopy(checksum, 0, addressBytes, XPUB_LENGTH, 4);
+            return Base58.encode(addressBytes);
+        }
+    }
+
     public static class PubKeyInfo {
         public String xpub;
         public List<Long> levels;
@@ -105,18 +143,22 @@ public class TxUtils {
         public PubKeyInfo(String xpub, List<Long> levels) throws ElectrumTx.SerializationException {
             this.xpub = xpub;
             this.levels = levels;
+            if (levels.size() < 2 || levels.get(0) > MAX_CHILD_INDEX || levels.get(1) > MAX_CHILD_INDEX) {
+                throw new ElectrumTx.SerializationException("derivation levels are not supported");
+            }
+            int change = levels.get(0).intValue();
+            int index = levels.get(1).intValue();
             // since bitcoinj current version not support ypub,
             // current we only support p2sh-p2wpkh address type,
             // we use 49 index now
             if(xpub.startsWith("ypub") || xpub.startsWith("xpub")) {
-                this.hdPath = String.format(Locale.US,"M/49'/0'/0'/%d/%d", this.levels.get(0), this.levels.get(1));
+                this.hdPath = "M/49'/0'/0'/" + change + "/" + index;
             }  else if(xpub.startsWith("zpub")) {
-                this.hdPath = String.format(Locale.US,"M/84'/0'/0'/%d/%d", this.levels.get(0), this.levels.get(1));
+                this.hdPath = "M/84'/0'/0'/" + change + "/" + index;
             } else {
                 throw new ElectrumTx.SerializationException("extended key type is not supported");
             }
-            this.pubkey = Util.getPublicKeyHex(this.xpub, this.hdPath);
+            this.pubkey = DerivationEngine.sInstance.getAddressKey(xpub, change, index).getPublicKeyAsHex();
         }
     }
 }
-
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.coins;
+
+import androidx.annotation.Nullable;
+
+import com.cobo.coinlib.coins.BCH.Bch;
+import com.cobo.coinlib.coins.BTC.Btc;
+import com.cobo.coinlib.coins.DASH.Dash;
+import com.cobo.coinlib.coins.DCR.Dcr;
+import com.cobo.coinlib.coins.EOS.Eos;
+import com.cobo.coinlib.coins.ETC.Etc;
+import com.cobo.coinlib.coins.ETH.Eth;
+import com.cobo.coinlib.coins.IOST.Iost;
+import com.cobo.coinlib.coins.LTC.Ltc;
+import com.cobo.coinlib.coins.TRON.Tron;
+import com.cobo.coinlib.coins.XRP.Xrp;
+import com.cobo.coinlib.coins.XZC.Xzc;
+import com.cobo.coinlib.exception.InvalidTransactionException;
+import com.cobo.coinlib.interfaces.Coin;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binds every coin code to the constructors of its coin, Tx and Deriver classes,
+ * so creating them is a map lookup instead of reflection. A new coin is added
+ * here next to its entry in {@link com.cobo.coinlib.utils.Coins#SUPPORTED_COINS}.
+ */
+final class CoinRegistry {
+
+    interface CoinFactory {
+        AbsCoin create(Coin impl);
+    }
+
+    interface TxFactory {
+        AbsTx create(JSONObject object, String coinCode) throws JSONException, InvalidTransactionException;
+    }
+
+    interface DeriverFactory {
+        AbsDeriver create();
+    }
+
+    static final class Entry {
+        final CoinFactory coin;
+        final TxFactory tx;
+        final DeriverFactory deriver;
+
+        private Entry(CoinFactory coin, TxFactory tx, DeriverFactory deriver) {
+            this.coin = coin;
+            this.tx = tx;
+            this.deriver = deriver;
+        }
+    }
+
+    private static final Map<String, Entry> sEntries = new HashMap<>();
+
+    static {
+        register("BTC", Btc::new, Btc.Tx::new, Btc.Deriver::new);
+        register("BCH", Bch::new, Bch.Tx::new, Bch.Deriver::new);
+        register("DASH", Dash::new, Dash.Tx::new, Dash.Deriver::new);
+        register("LTC", Ltc::new, Ltc.Tx::new, Ltc.Deriver::new);
+        register("ETH", Eth::new, Eth.Tx::new, Eth.Deriver::new);
+        register("ETC", Etc::new, Etc.Tx::new, Etc.Deriver::new);
+        register("TRON", Tron::new, Tron.Tx::new, Tron.Deriver::new);
+        register("DCR", Dcr::new, Dcr.Tx::new, Dcr.Deriver::new);
+        register("XZC", Xzc::new, Xzc.Tx::new, Xzc.Deriver::new);
+        register("XRP", Xrp::new, Xrp.Tx::new, Xrp.Deriver::new);
+        register("IOST", Iost::new, Iost.Tx::new, Iost.Deriver::new);
+        register("EOS", Eos::new, Eos.Tx::new, Eos.Deriver::new);
+    }
+
+    private CoinRegistry() {
+    }
+
+    private static void register(String coinCode, CoinFactory coin, TxFactory tx, DeriverFactory deriver) {
+        sEntries.put(coinCode, new Entry(coin, tx, deriver));
+    }
+
+    @Nullable
+    static Entry get(String coinCode) {
+        return sEntries.get(coinCode);
+    }
+}
@@ -67,8 +67,8 @@ public class Dash extends Btc {
     public static class Deriver extends AbsDeriver {
 
         @Override
-        public String derive(String xPubKey, int changeIndex, int addrIndex) {
-            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
+        protected String derive(String xPubKey, int changeIndex, int addrIndex, boolean cache) {
+            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex, cache);
             return Base58.encodeChecked(0x4c, address.getPubKeyHash());
         }
 
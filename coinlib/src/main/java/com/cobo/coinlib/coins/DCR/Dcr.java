@@ -74,8 +74,8 @@ public class Dcr extends AbsCoin implements Coin {
     public static class Deriver extends AbsDeriver {
 
         @Override
-        public String derive(String xPubKey, int changeIndex, int addrIndex) {
-            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
+        protected String derive(String xPubKey, int changeIndex, int addrIndex, boolean cache) {
+            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex, cache);
             byte[] hash = blake256Ripemd160(address.getPubKey());
             return encodeChecked(hash);
         }
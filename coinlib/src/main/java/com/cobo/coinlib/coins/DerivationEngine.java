@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.coins;
+
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.crypto.HDKeyDerivation;
+import org.bitcoinj.params.MainNetParams;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the BIP32 nodes derived from account xpubs so that deriving a run of
+ * addresses costs one xpub decode and one change-level derivation.
+ * <p>
+ * Parsed account keys and change nodes are kept per xpub, recently derived
+ * leaves in a bounded LRU. Only public keys ever pass through here, derivation
+ * runs outside the locks so concurrent callers never wait on each other's
+ * EC math, at worst the same node is derived twice.
+ */
+public class DerivationEngine {
+
+    private static final int MAX_ACCOUNTS = 64;
+    private static final int MAX_CHANGES = 128;
+    private static final int MAX_LEAVES = 1024;
+
+    private static final NetworkParameters MAINNET = MainNetParams.get();
+
+    public static final DerivationEngine sInstance = new DerivationEngine();
+
+    private final Map<String, DeterministicKey> accounts = new LruMap<>(MAX_ACCOUNTS);
+    private final Map<String, DeterministicKey> changes = new LruMap<>(MAX_CHANGES);
+    private final Map<String, DeterministicKey> leaves = new LruMap<>(MAX_LEAVES);
+
+    private DerivationEngine() {
+    }
+
+    /**
+     * @param xPub base58 serialized extended public key
+     * @return the parsed key, decoded only on first use
+     */
+    public DeterministicKey getAccountKey(String xPub) {
+        DeterministicKey key = get(accounts, xPub);
+        if (key == null) {
+            key = DeterministicKey.deserializeB58(xPub, MAINNET);
+            put(accounts, xPub, key);
+        }
+        return key;
+    }
+
+    /**
+     * @param xPub        account extended public key
+     * @param changeIndex 0 for receive, 1 for change
+     * @return the change-level node
+     */
+    public DeterministicKey getChangeKey(String xPub, int changeIndex) {
+        String cacheKey = xPub + "/" + changeIndex;
+        DeterministicKey key = get(changes, cacheKey);
+        if (key == null) {
+            key = HDKeyDerivation.deriveChildKey(getAccountKey(xPub), changeIndex);
+            put(changes, cacheKey, key);
+        }
+        return key;
+    }
+
+    /**
+     * @param xPub         account extended public key
+     * @param changeIndex  0 for receive, 1 for change
+     * @param addressIndex index of the address
+     * @return the address-level node
+     */
+    public DeterministicKey getAddressKey(String xPub, int changeIndex, int addressIndex) {
+        String cacheKey = xPub + "/" + changeIndex + "/" + addressIndex;
+        DeterministicKey key = get(leaves, cacheKey);
+        if (key == null) {
+            key = HDKeyDerivation.deriveChildKey(getChangeKey(xPub, changeIndex), addressIndex);
+            put(leaves, cacheKey, key);
+        }
+        return key;
+    }
+
+    /**
+     * derive an address-level node from the cached change node without keeping it,
+     * for one-off runs that would otherwise flush the leaves in use
+     *
+     * @param xPub         account extended public key
+     * @param changeIndex  0 for receive, 1 for change
+     * @param addressIndex index of the address
+     * @return the address-level node
+     */
+    public DeterministicKey deriveAddressKey(String xPub, int changeIndex, int addressIndex) {
+        DeterministicKey key = get(leaves, xPub + "/" + changeIndex + "/" + addressIndex);
+        if (key == null) {
+            key = HDKeyDerivation.deriveChildKey(getChangeKey(xPub, changeIndex), addressIndex);
+        }
+        return key;
+    }
+
+    /**
+     * drop every cached node, called when the vault is reset, the passphrase changes
+     * or the app switches to another vault
+     */
+    public void clear() {
+        synchronized (accounts) {
+            accounts.clear();
+        }
+        synchronized (changes) {
+            changes.clear();
+        }
+        synchronized (leaves) {
+            leaves.clear();
+        }
+    }
+
+    private static DeterministicKey get(Map<String, DeterministicKey> map, String key) {
+        synchronized (map) {
+            return map.get(key);
+        }
+    }
+
+    private static void put(Map<String, DeterministicKey> map, String key, DeterministicKey value) {
+        synchronized (map) {
+            map.put(key, value);
+        }
+    }
+
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private final int capacity;
+
+        LruMap(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -73,8 +73,8 @@ public class Eos extends AbsCoin {
     public static class Deriver extends AbsDeriver {
 
         @Override
-        public String derive(String accountXpub, int changeIndex, int addressIndex) {
-            DeterministicKey address = getAddrDeterministicKey(accountXpub, 0, 0);
+        protected String derive(String accountXpub, int changeIndex, int addressIndex, boolean cache) {
+            DeterministicKey address = getAddrDeterministicKey(accountXpub, 0, 0, cache);
 
             return getEosPubKey(address);
         }
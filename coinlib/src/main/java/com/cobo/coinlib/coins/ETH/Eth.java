@@ -115,8 +115,8 @@ public class Eth extends AbsCoin implements Coin {
 
     public static class Deriver extends AbsDeriver {
         @Override
-        public String derive(String accountXpub, int changeIndex, int addrIndex) {
-            DeterministicKey address = getAddrDeterministicKey(accountXpub, changeIndex, addrIndex);
+        protected String derive(String accountXpub, int changeIndex, int addrIndex, boolean cache) {
+            DeterministicKey address = getAddrDeterministicKey(accountXpub, changeIndex, addrIndex, cache);
             //decompress
             ECKey eckey = ECKey.fromPublicOnly(address.getPubKeyPoint());
             byte[] pubKey = eckey.decompress().getPubKey();
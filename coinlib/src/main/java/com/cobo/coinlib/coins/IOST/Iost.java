@@ -69,7 +69,7 @@ public class Iost extends AbsCoin {
 
     public static class Deriver extends AbsDeriver {
         @Override
-        public String derive(String xPubKey, int changeIndex, int addrIndex) {
+        protected String derive(String xPubKey, int changeIndex, int addrIndex, boolean cache) {
             String pubKeyHex = Util.pubKeyFromExtentPubKey(xPubKey).substring(2);
             return new B58().encodeToString(Hex.decode(pubKeyHex));
         }
@@ -50,12 +50,12 @@ public class Ltc extends Btc {
         static final boolean legacyAddress = true;
 
         @Override
-        public String derive(String xPubKey, int changeIndex, int addrIndex) {
+        protected String derive(String xPubKey, int changeIndex, int addrIndex, boolean cache) {
 
             if (legacyAddress) {
-                return super.derive(xPubKey, changeIndex, addrIndex);
+                return super.derive(xPubKey, changeIndex, addrIndex, cache);
             }
-            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
+            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex, cache);
 
             LegacyAddress addr = LegacyAddress.fromScriptHash(MAINNET,
                     segWitOutputScript(address.getPubKeyHash()).getPubKeyHash());
@@ -78,9 +78,9 @@ public class Tron extends AbsCoin {
 
     public static class Deriver extends AbsDeriver {
         @Override
-        public String derive(String accountXpub, int changeIndex, int addrIndex) {
+        protected String derive(String accountXpub, int changeIndex, int addrIndex, boolean cache) {
 
-            DeterministicKey address = getAddrDeterministicKey(accountXpub, changeIndex, addrIndex);
+            DeterministicKey address = getAddrDeterministicKey(accountXpub, changeIndex, addrIndex, cache);
 
             ECKey eckey = ECKey.fromPublicOnly(address.getPubKeyPoint());
             byte[] pubKey = eckey.decompress().getPubKey();
@@ -61,8 +61,8 @@ public class Xrp extends AbsCoin implements Coin {
     public static class Deriver extends AbsDeriver {
 
         @Override
-        public String derive(String xPubKey, int changeIndex, int addrIndex) {
-            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
+        protected String derive(String xPubKey, int changeIndex, int addrIndex, boolean cache) {
+            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex, cache);
             return new B58(DEFAULT_ALPHABET).encodeToStringChecked(address.getPubKeyHash(), 0);
         }
 
@@ -70,8 +70,8 @@ public class Xzc extends AbsCoin implements Coin {
     public static class Deriver extends AbsDeriver {
 
         @Override
-        public String derive(String xPubKey, int changeIndex, int addrIndex) {
-            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
+        protected String derive(String xPubKey, int changeIndex, int addrIndex, boolean cache) {
+            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex, cache);
             return Base58.encodeChecked(0x52, address.getPubKeyHash());
         }
 
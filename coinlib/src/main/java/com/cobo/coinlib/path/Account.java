@@ -22,8 +22,6 @@ import androidx.annotation.NonNull;
 import com.cobo.coinlib.exception.InvalidPathException;
 
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public final class Account {
     private final CoinType coinType;
@@ -60,24 +58,7 @@ public final class Account {
 
     public static Account parseAccount(String path) throws InvalidPathException {
         // M/44'/60'/0'
-
-        String regEx = "^[mM](/\\d+'?){3}?";
-
-        Pattern pattern = Pattern.compile(regEx);
-        Matcher matcher = pattern.matcher(path);
-
-        if (!matcher.matches()) {
-            throw new InvalidPathException("Path format is not correct");
-        }
-        String[] split = path.split("/");
-        String purposeStr = split[1].substring(0, split[1].length() - 1);
-        String coinTypeStr = split[2].substring(0, split[2].length() - 1);
-        String accountStr = split[3].substring(0, split[3].length() - 1);
-
-        return CoinPath.M()
-                .purpose(Integer.parseInt(purposeStr))
-                .coinType(Integer.parseInt(coinTypeStr))
-                .account(Integer.parseInt(accountStr));
+        return HdPath.parse(path).toAccount();
     }
 
-}
\ No newline at end of file
+}
@@ -19,9 +19,6 @@ package com.cobo.coinlib.path;
 
 import com.cobo.coinlib.exception.InvalidPathException;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 public final class CoinPath {
 
     private static final M M = new M("M");
@@ -44,43 +41,21 @@ public final class CoinPath {
 
     public static AddressIndex parsePath(String path, boolean allHardend) throws InvalidPathException {
         // m/44'/60'/0'/0/0
-        String regNormal = "^[mM](/\\d+'?){3}/[0,1]/\\d+$";
-        String regAllHardend = "^[mM](/\\d+'){5}$";
-
-        String regEx = allHardend ? regAllHardend : regNormal;
-        Pattern pattern = Pattern.compile(regEx);
-        Matcher matcher = pattern.matcher(path);
-
-        if (!matcher.matches()) {
+        HdPath hdPath = HdPath.parse(path);
+        if (hdPath.depth() != 5) {
             throw new InvalidPathException("Path format is not correct");
         }
-        String[] split = path.split("/");
-        String purposeStr = split[1].substring(0, split[1].length() - 1);
-        String coinTypeStr = split[2].substring(0, split[2].length() - 1);
-        String accountStr = split[3].substring(0, split[3].length() - 1);
-        String changeStr;
-        String addressStr;
-        if (!allHardend) {
-            changeStr = split[4];
-            addressStr = split[5];
-        } else {
-            changeStr = split[4].substring(0, split[4].length() - 1);
-            addressStr = split[5].substring(0, split[4].length() - 1);
-        }
-
-
-        Account account = m
-                .purpose(Integer.parseInt(purposeStr))
-                .coinType(Integer.parseInt(coinTypeStr))
-                .account(Integer.parseInt(accountStr));
-
-        Change change;
-        if (Integer.parseInt(changeStr) == 0) {
-            change = account.external();
-        } else {
-            change = account.internal();
+        if (allHardend) {
+            for (int level = 0; level < 5; level++) {
+                if (!hdPath.isHardened(level)) {
+                    throw new InvalidPathException("Path format is not correct");
+                }
+            }
+        } else if (hdPath.isHardened(HdPath.LEVEL_CHANGE)
+                || hdPath.isHardened(HdPath.LEVEL_ADDRESS)
+                || hdPath.getChange() > 1) {
+            throw new InvalidPathException("Path format is not correct");
         }
-
-        return change.address(Integer.parseInt(addressStr));
+        return hdPath.toAddressIndex();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.path;
+
+import androidx.annotation.NonNull;
+
+import com.cobo.coinlib.exception.InvalidPathException;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable parsed form of a BIP32 path such as M/44'/60'/0'/0/0.
+ * <p>
+ * Paths are parsed by hand without regex and interned, parsing the same
+ * string again returns the same instance from a bounded LRU. Every level is
+ * kept in an int[] with the hardened bit set as in BIP32, levels are counted
+ * from 0 after the master prefix, so for M/44'/60'/0'/0/0 level 1 is the coin type.
+ */
+public final class HdPath {
+
+    public static final int HARDENED_BIT = 0x80000000;
+
+    public static final int LEVEL_PURPOSE = 0;
+    public static final int LEVEL_COIN_TYPE = 1;
+    public static final int LEVEL_ACCOUNT = 2;
+    public static final int LEVEL_CHANGE = 3;
+    public static final int LEVEL_ADDRESS = 4;
+
+    private static final int MAX_INTERNED = 512;
+
+    private static final Map<String, HdPath> sInterned =
+            new LinkedHashMap<String, HdPath>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, HdPath> eldest) {
+                    return size() > MAX_INTERNED;
+                }
+            };
+
+    private final String string;
+    private final int[] levels;
+    private volatile AddressIndex addressIndex;
+    private volatile Account account;
+
+    private HdPath(String string, int[] levels) {
+        this.string = string;
+        this.levels = levels;
+    }
+
+    /**
+     * @param path path starting with m or M, eg: M/44'/60'/0'/0/0
+     * @return the interned path
+     * @throws InvalidPathException if the path is malformed or an index overflows
+     */
+    @NonNull
+    public static HdPath parse(String path) throws InvalidPathException {
+        if (path == null) {
+            throw new InvalidPathException("Path format is not correct");
+        }
+        HdPath hdPath;
+        synchronized (sInterned) {
+            hdPath = sInterned.get(path);
+        }
+        if (hdPath == null) {
+            hdPath = new HdPath(path, parseLevels(path));
+            synchronized (sInterned) {
+                sInterned.put(path, hdPath);
+            }
+        }
+        return hdPath;
+    }
+
+    private static int[] parseLevels(String path) throws InvalidPathException {
+        final int length = path.length();
+        if (length == 0 || (path.charAt(0) != 'm' && path.charAt(0) != 'M')) {
+            throw new InvalidPathException("Path format is not correct");
+        }
+
+        int depth = 0;
+        for (int i = 1; i < length; i++) {
+            if (path.charAt(i) == '/') {
+                depth++;
+            }
+        }
+
+        final int[] levels = new int[depth];
+        int pos = 1;
+        for (int level = 0; level < depth; level++) {
+            if (path.charAt(pos++) != '/') {
+                throw new InvalidPathException("Path format is not correct");
+            }
+            long value = 0;
+            int digits = 0;
+            while (pos < length && path.charAt(pos) >= '0' && path.charAt(pos) <= '9') {
+                value = value * 10 + (path.charAt(pos++) - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw new InvalidPathException("Path index overflow");
+                }
+                digits++;
+            }
+            if (digits == 0) {
+                throw new InvalidPathException("Path format is not correct");
+            }
+            boolean hardened = pos < length && path.charAt(pos) == '\'';
+            if (hardened) {
+                pos++;
+            }
+            levels[level] = hardened ? (int) value | HARDENED_BIT : (int) value;
+        }
+        if (pos != length) {
+            throw new InvalidPathException("Path format is not correct");
+        }
+        return levels;
+    }
+
+    /**
+     * @return number of levels after the master prefix
+     */
+    public int depth() {
+        return levels.length;
+    }
+
+    /**
+     * @param level level counted from 0 after the master prefix
+     * @return index of the level without the hardened bit
+     */
+    public int get(int level) {
+        return levels[level] & ~HARDENED_BIT;
+    }
+
+    public boolean isHardened(int level) {
+        return (levels[level] & HARDENED_BIT) != 0;
+    }
+
+    /**
+     * @return a copy of the compact form, one int per level with the hardened bit set
+     */
+    public int[] toArray() {
+        return levels.clone();
+    }
+
+    public int getCoinType() {
+        return get(LEVEL_COIN_TYPE);
+    }
+
+    public int getChange() {
+        return get(LEVEL_CHANGE);
+    }
+
+    public int getAddressIndex() {
+        return get(LEVEL_ADDRESS);
+    }
+
+    public boolean isExternal() {
+        return get(LEVEL_CHANGE) == 0;
+    }
+
+    /**
+     * @return the account levels, eg: M/44'/60'/0'
+     * @throws InvalidPathException if the path is not 3 levels deep
+     */
+    @NonNull
+    public Account toAccount() throws InvalidPathException {
+        Account result = account;
+        if (result == null) {
+            if (depth() != 3) {
+                throw new InvalidPathException("Path format is not correct");
+            }
+            result = CoinPath.M()
+                    .purpose(get(LEVEL_PURPOSE))
+                    .coinType(get(LEVEL_COIN_TYPE))
+                    .account(get(LEVEL_ACCOUNT));
+            account = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the address levels, eg: m/44'/60'/0'/0/0
+     * @throws InvalidPathException if the path is not 5 levels deep
+     */
+    @NonNull
+    public AddressIndex toAddressIndex() throws InvalidPathException {
+        AddressIndex result = addressIndex;
+        if (result == null) {
+            if (depth() != 5) {
+                throw new InvalidPathException("Path format is not correct");
+            }
+            Account parent = CoinPath.m()
+                    .purpose(get(LEVEL_PURPOSE))
+                    .coinType(get(LEVEL_COIN_TYPE))
+                    .account(get(LEVEL_ACCOUNT));
+            Change change = get(LEVEL_CHANGE) == 0 ? parent.external() : parent.internal();
+            result = change.address(get(LEVEL_ADDRESS));
+            addressIndex = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HdPath)) {
+            return false;
+        }
+        return Arrays.equals(levels, ((HdPath) o).levels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(levels);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return string;
+    }
+}
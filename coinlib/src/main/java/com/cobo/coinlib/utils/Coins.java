@@ -18,10 +18,12 @@
 package com.cobo.coinlib.utils;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 public class Coins {
 
@@ -53,8 +55,35 @@ public class Coins {
             EOS
     );
 
+    private static final Map<String, Coin> COINS_BY_CODE = new HashMap<>();
+    private static final Map<String, Coin> COINS_BY_ID = new HashMap<>();
+    private static final Map<Integer, Coin> COINS_BY_INDEX = new HashMap<>();
+
+    static {
+        for (Coin coin : SUPPORTED_COINS) {
+            COINS_BY_CODE.put(coin.coinCode, coin);
+            COINS_BY_ID.put(coin.coinId, coin);
+            COINS_BY_INDEX.put(coin.coinIndex, coin);
+        }
+    }
+
+    @Nullable
+    public static Coin ofCoinCode(String coinCode) {
+        return COINS_BY_CODE.get(coinCode);
+    }
+
+    @Nullable
+    public static Coin ofCoinId(String coinId) {
+        return COINS_BY_ID.get(coinId);
+    }
+
+    @Nullable
+    public static Coin ofCoinIndex(int coinIndex) {
+        return COINS_BY_INDEX.get(coinIndex);
+    }
+
     public static boolean isCoinSupported(@NonNull String coinCode) {
-        return SUPPORTED_COINS.stream().anyMatch(coin -> coin.coinCode.equals(coinCode));
+        return COINS_BY_CODE.containsKey(coinCode);
     }
 
     public static boolean supportMultiSigner(@NonNull String coinCode) {
@@ -70,38 +99,28 @@ public class Coins {
     }
 
     public static String coinCodeFromCoinId(String coinId) {
-        Optional<Coin> coin = SUPPORTED_COINS.stream()
-                .filter(c -> coinId.equals(c.coinId))
-                .findFirst();
-        return coin.isPresent() ? coin.get().coinCode : "";
+        Coin coin = COINS_BY_ID.get(coinId);
+        return coin != null ? coin.coinCode : "";
     }
 
     public static String coinIdFromCoinCode(String coinCode) {
-        Optional<Coin> coin = SUPPORTED_COINS.stream()
-                .filter(c -> coinCode.equals(c.coinCode))
-                .findFirst();
-        return coin.isPresent() ? coin.get().coinId : "";
+        Coin coin = COINS_BY_CODE.get(coinCode);
+        return coin != null ? coin.coinId : "";
     }
 
     public static CURVE curveFromCoinCode(String coinCode) {
-        Optional<Coin> coin = SUPPORTED_COINS.stream()
-                .filter(c -> coinCode.equals(c.coinCode))
-                .findFirst();
-        return coin.isPresent() ? coin.get().curve : CURVE.SECP256K1;
+        Coin coin = COINS_BY_CODE.get(coinCode);
+        return coin != null ? coin.curve : CURVE.SECP256K1;
     }
 
     public static String coinCodeOfIndex(int coinIndex) {
-        Optional<Coin> coin = SUPPORTED_COINS.stream()
-                .filter(c -> coinIndex == c.coinIndex)
-                .findFirst();
-        return coin.isPresent() ? coin.get().coinCode : "";
+        Coin coin = COINS_BY_INDEX.get(coinIndex);
+        return coin != null ? coin.coinCode : "";
     }
 
     public static String coinNameOfCoinId(String coinId) {
-        Optional<Coin> coin = SUPPORTED_COINS.stream()
-                .filter(c -> coinId.equals(c.coinId))
-                .findFirst();
-        return coin.isPresent() ? coin.get().coinName() : "";
+        Coin coin = COINS_BY_ID.get(coinId);
+        return coin != null ? coin.coinName() : "";
     }
 
     public static class Coin {
@@ -33,6 +33,7 @@ import com.eclipsesource.v8.V8Array;
 import com.eclipsesource.v8.V8Function;
 import com.eclipsesource.v8.V8Object;
 import com.eclipsesource.v8.V8ScriptExecutionException;
+import com.eclipsesource.v8.utils.MemoryManager;
 
 import org.json.JSONObject;
 
@@ -43,70 +44,53 @@ public class CoinImpl implements Coin {
     private static final String FUNCTION_SIGN = "sign";
 
     private final String coinCode;
-    private final V8 v8;
-    private final V8Object coin;
-    private V8Function signTxFunction;
-    private V8Function signMessageFunction;
-    private V8Function generateAddressFunction;
 
     public CoinImpl(String coinCode) {
         super();
         this.coinCode = coinCode;
-        this.v8 = ScriptLoader.sInstance.loadByCoinCode(coinCode);
-        this.coin = v8.executeObjectScript("new " + coinCode + "()");
-        v8.registerResource(coin);
     }
 
     /**
      * sign a tx
      *
-     * @param txData  the txData
-     * @param signers signers,utxo coins transaction may need multi for 1 transaction
+     * @param metaData the txData
+     * @param signFunc name of the js sign function
+     * @param signers  signers,utxo coins transaction may need multi for 1 transaction
      * @return SignTxResult
      */
-    protected SignTxResult signTxImpl(V8Object txData, String signFunc, Signer... signers) {
-        if (this.signTxFunction == null) {
-            this.signTxFunction = (V8Function) coin.get(signFunc);
-        }
-
-        v8.registerResource(txData);
-        V8Array params = new V8Array(v8);
-        v8.registerResource(params);
-        params.push(txData);
-
-        if (signers.length > 1) {
-            V8Array signProviders = new V8Array(v8);
-            v8.registerResource(signProviders);
-            Stream.of(signers).forEach(signer -> signProviders.push(createSignerProvider(signer)));
-            params.push(signProviders);
-        } else if (signers.length == 1) {
-            if (Coins.supportMultiSigner(coinCode)) {
-                V8Array signProviders = new V8Array(v8);
-                signProviders.push(createSignerProvider(signers[0]));
-                params.push(signProviders);
-            } else {
-                V8Object signProvider = createSignerProvider(signers[0]);
-                params.push(signProvider);
-            }
-
-        } else {
+    protected SignTxResult signTxImpl(JSONObject metaData, String signFunc, Signer... signers) {
+        if (signers.length == 0) {
             return null;
         }
-        V8Object option = new V8Object(v8);
-        v8.registerResource(option);
-        params.push(option);
-        SignTxResult result;
         try {
-            V8Object res = (V8Object) signTxFunction.call(coin, params);
-            result = new SignTxResult(res.getString("txId"), res.getString("txHex"));
-            v8.registerResource(res);
+            return V8RuntimePool.sInstance.execute(coinCode, runtime -> {
+                V8Function signTxFunction = runtime.function(signFunc);
+                MemoryManager scope = new MemoryManager(runtime.v8);
+                try {
+                    V8Array params = new V8Array(runtime.v8);
+                    params.push(constructTxData(runtime.v8, metaData));
+
+                    if (signers.length > 1 || Coins.supportMultiSigner(coinCode)) {
+                        V8Array signProviders = new V8Array(runtime.v8);
+                        Stream.of(signers).forEach(signer ->
+                                signProviders.push(createSignerProvider(runtime.v8, signer)));
+                        params.push(signProviders);
+                    } else {
+                        params.push(createSignerProvider(runtime.v8, signers[0]));
+                    }
+                    params.push(new V8Object(runtime.v8));
+
+                    V8Object res = (V8Object) signTxFunction.call(runtime.coin, params);
+                    return new SignTxResult(res.getString("txId"), res.getString("txHex"));
+                } finally {
+                    scope.release();
+                }
+            });
         } catch (V8ScriptExecutionException e) {
+            // the pool has already released the runtime the script failed in
             e.printStackTrace();
             return null;
-        } finally {
-            v8.release(false);
         }
-        return result;
     }
 
     /**
@@ -117,23 +101,22 @@ public class CoinImpl implements Coin {
      * @return signed message in format R + S + recId (if has)
      */
     private String signMessageImpl(String msg, Signer signer) {
-        if (this.signMessageFunction == null) {
-            this.signMessageFunction = (V8Function) coin.get("signMessageSync");
-        }
-
-        V8Object signProvider = createSignerProvider(signer);
-
-        V8Array params = new V8Array(v8);
-        params.push(msg).push(signProvider);
-
-        return (String) signMessageFunction.call(coin, params);
+        return V8RuntimePool.sInstance.execute(coinCode, runtime -> {
+            V8Function signMessageFunction = runtime.function("signMessageSync");
+            MemoryManager scope = new MemoryManager(runtime.v8);
+            try {
+                V8Array params = new V8Array(runtime.v8);
+                params.push(msg).push(createSignerProvider(runtime.v8, signer));
+                return (String) signMessageFunction.call(runtime.coin, params);
+            } finally {
+                scope.release();
+            }
+        });
     }
 
-    private V8Object createSignerProvider(Signer signer) {
+    private V8Object createSignerProvider(V8 v8, Signer signer) {
         V8Object signProvider = new V8Object(v8);
-        v8.registerResource(signProvider);
-        V8Function sign = new V8Function(v8, new SignProviderCallback(signer));
-        v8.registerResource(sign);
+        V8Function sign = new V8Function(v8, new SignProviderCallback(v8, signer));
         signProvider.add(FUNCTION_SIGN, sign);
         if (signer.getPublicKey() != null) {
             signProvider.add("publicKey", signer.getPublicKey());
@@ -148,14 +131,18 @@ public class CoinImpl implements Coin {
      * @return address
      */
     private String generateAddressImpl(String publicKey) {
-        if (this.generateAddressFunction == null) {
-            this.generateAddressFunction = (V8Function) coin.get("generateAddress");
-        }
-
-        V8Array params = new V8Array(v8);
-        params.push(publicKey);
-        addOption(params);
-        return (String) generateAddressFunction.call(coin, params);
+        return V8RuntimePool.sInstance.execute(coinCode, runtime -> {
+            V8Function generateAddressFunction = runtime.function("generateAddress");
+            MemoryManager scope = new MemoryManager(runtime.v8);
+            try {
+                V8Array params = new V8Array(runtime.v8);
+                params.push(publicKey);
+                addOption(params);
+                return (String) generateAddressFunction.call(runtime.coin, params);
+            } finally {
+                scope.release();
+            }
+        });
     }
 
     private void addOption(V8Array params) {
@@ -170,9 +157,11 @@ public class CoinImpl implements Coin {
 
     class SignProviderCallback implements JavaCallback {
 
+        private final V8 v8;
         private final Signer signer;
 
-        private SignProviderCallback(Signer signer) {
+        private SignProviderCallback(V8 v8, Signer signer) {
+            this.v8 = v8;
             this.signer = signer;
         }
 
@@ -202,15 +191,12 @@ public class CoinImpl implements Coin {
     /**
      * convert JSONObject to a V8Object
      *
+     * @param v8     runtime the object is created in
      * @param object metaData
      * @return V8Object
      */
-    protected V8Object constructTxData(JSONObject object) {
-        V8Array parameters = new V8Array(v8).push(object.toString());
-        V8Object json = v8.getObject("JSON");
-        v8.registerResource(parameters);
-        v8.registerResource(json);
-        return json.executeObjectFunction("parse", parameters);
+    protected V8Object constructTxData(V8 v8, JSONObject object) {
+        return V8Converter.toV8Object(v8, object);
     }
 
     @Override
@@ -220,8 +206,7 @@ public class CoinImpl implements Coin {
 
     @Override
     public void generateTransaction(@NonNull AbsTx tx, SignCallback callback, Signer... signers) {
-        V8Object txData = constructTxData(tx.getMetaData());
-        SignTxResult res = signTxImpl(txData, "generateTransactionSync", signers);
+        SignTxResult res = signTxImpl(tx.getMetaData(), "generateTransactionSync", signers);
         if (res != null && res.isValid()) {
             callback.onSuccess(res.txId, res.txHex);
         } else {
@@ -245,4 +230,3 @@ public class CoinImpl implements Coin {
     }
 
 }
-
@@ -27,16 +27,19 @@ import com.eclipsesource.v8.V8;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 
 public class ScriptLoader {
 
+    private static final String BUNDLE_MAP = "bundleMap.json";
+
     @SuppressLint("StaticFieldLeak")
     public static ScriptLoader sInstance;
     private final Context context;
+    private volatile JSONObject bundleMap;
 
     private ScriptLoader(Context context) {
         this.context = context;
@@ -53,48 +56,73 @@ public class ScriptLoader {
     }
 
     public V8 loadByCoinCode(String coinCode) {
-        V8 v8 = V8.createV8Runtime("window");
-        String js = getJs(context, coinCode);
-        if (!TextUtils.isEmpty(js) && !v8.isReleased()) {
-            v8.executeVoidScript(js);
-        }
-        return v8;
+        return load(getBundleFileName(coinCode));
     }
 
     public V8 loadByFileName(String fileName) {
+        return load(fileName);
+    }
+
+    private V8 load(String fileName) {
         V8 v8 = V8.createV8Runtime("window");
-        String js = readAsset(context.getAssets(),fileName);
+        String js = fileName != null ? readAsset(context.getAssets(), fileName) : null;
         if (!TextUtils.isEmpty(js) && !v8.isReleased()) {
-            v8.executeVoidScript(js);
+            v8.executeVoidScript(js, fileName, 0);
         }
         return v8;
     }
 
-    private String getJs(Context context, String coinCode) {
-        AssetManager am = context.getAssets();
+    /**
+     * approximate size of a coin bundle, used to budget the memory of pooled runtimes
+     *
+     * @param coinCode coin code of the bundle
+     * @return uncompressed size of the script in bytes, 0 if unknown
+     */
+    public long getBundleSize(String coinCode) {
+        String fileName = getBundleFileName(coinCode);
+        if (fileName == null) {
+            return 0;
+        }
+        try (InputStream inputStream = context.getAssets().open(fileName)) {
+            return inputStream.available();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    private String getBundleFileName(String coinCode) {
         try {
-            JSONObject bundleMap = new JSONObject(readAsset(am, "bundleMap.json"));
-            return readAsset(am, "script/" + bundleMap.getString(coinCode));
+            return "script/" + getBundleMap().getString(coinCode);
         } catch (JSONException e) {
             e.printStackTrace();
         }
         return null;
     }
 
+    private JSONObject getBundleMap() throws JSONException {
+        if (bundleMap == null) {
+            synchronized (this) {
+                if (bundleMap == null) {
+                    bundleMap = new JSONObject(readAsset(context.getAssets(), BUNDLE_MAP));
+                }
+            }
+        }
+        return bundleMap;
+    }
+
     private String readAsset(AssetManager am, String fileName) {
-        StringBuilder stringBuilder = new StringBuilder();
-        try {
-            InputStream inputStream = am.open(fileName);
-            BufferedReader bf = new BufferedReader(new InputStreamReader(inputStream));
-            String line;
-            while ((line = bf.readLine()) != null) {
-                stringBuilder.append(line).append("\r\n");
+        try (InputStream inputStream = am.open(fileName)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(inputStream.available(), 32));
+            byte[] buffer = new byte[64 * 1024];
+            int len;
+            while ((len = inputStream.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
             }
-            bf.close();
-            inputStream.close();
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
         } catch (IOException e) {
             e.printStackTrace();
         }
-        return stringBuilder.toString();
+        return "";
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.v8;
+
+import com.eclipsesource.v8.V8;
+import com.eclipsesource.v8.V8Array;
+import com.eclipsesource.v8.V8Object;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+/**
+ * Builds V8 values straight from parsed json trees, so the tx metaData
+ * does not need to be serialized to a string and parsed again by JSON.parse.
+ * The produced values match what JSON.parse would return for the same input.
+ */
+public class V8Converter {
+
+    private V8Converter() {
+    }
+
+    public static V8Object toV8Object(V8 v8, JSONObject object) {
+        V8Object result = new V8Object(v8);
+        Iterator<String> keys = object.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = object.opt(key);
+            if (value == null || value == JSONObject.NULL) {
+                result.addNull(key);
+            } else if (value instanceof String) {
+                result.add(key, (String) value);
+            } else if (value instanceof Boolean) {
+                result.add(key, (boolean) (Boolean) value);
+            } else if (value instanceof Integer) {
+                result.add(key, (int) (Integer) value);
+            } else if (value instanceof Number) {
+                result.add(key, ((Number) value).doubleValue());
+            } else if (value instanceof JSONObject) {
+                V8Object child = toV8Object(v8, (JSONObject) value);
+                result.add(key, child);
+                child.release();
+            } else if (value instanceof JSONArray) {
+                V8Array child = toV8Array(v8, (JSONArray) value);
+                result.add(key, child);
+                child.release();
+            } else {
+                result.add(key, value.toString());
+            }
+        }
+        return result;
+    }
+
+    public static V8Array toV8Array(V8 v8, JSONArray array) {
+        V8Array result = new V8Array(v8);
+        for (int i = 0; i < array.length(); i++) {
+            Object value = array.opt(i);
+            if (value == null || value == JSONObject.NULL) {
+                result.pushNull();
+            } else if (value instanceof String) {
+                result.push((String) value);
+            } else if (value instanceof Boolean) {
+                result.push((boolean) (Boolean) value);
+            } else if (value instanceof Integer) {
+                result.push((int) (Integer) value);
+            } else if (value instanceof Number) {
+                result.push(((Number) value).doubleValue());
+            } else if (value instanceof JSONObject) {
+                V8Object child = toV8Object(v8, (JSONObject) value);
+                result.push(child);
+                child.release();
+            } else if (value instanceof JSONArray) {
+                V8Array child = toV8Array(v8, (JSONArray) value);
+                result.push(child);
+                child.release();
+            } else {
+                result.push(value.toString());
+            }
+        }
+        return result;
+    }
+}
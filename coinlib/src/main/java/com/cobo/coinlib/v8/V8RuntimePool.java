@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.v8;
+
+import android.util.Log;
+
+import com.eclipsesource.v8.V8;
+import com.eclipsesource.v8.V8Function;
+import com.eclipsesource.v8.V8Object;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps one bundle-loaded V8 runtime per coin code so that only the first
+ * sign for a coin pays the script evaluation cost.
+ * <p>
+ * J2V8 runtimes may only be touched by the thread that created them, so every
+ * runtime lives on a single dedicated thread and all work is submitted through
+ * {@link #execute(String, Task)}. Runtimes are evicted in LRU order once the
+ * estimated memory of the pool exceeds the budget, and all of them are
+ * released by {@link #releaseAll()} when the vault is locked.
+ */
+public class V8RuntimePool {
+
+    private static final String TAG = "V8RuntimePool";
+
+    //estimated heap bytes used per byte of bundle source once compiled and evaluated
+    private static final int HEAP_PER_SOURCE_BYTE = 4;
+    private static final long DEFAULT_MEMORY_BUDGET = 48 * 1024 * 1024;
+
+    public static final V8RuntimePool sInstance = new V8RuntimePool(DEFAULT_MEMORY_BUDGET);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            r -> new Thread(r, "v8-runtime"));
+    private final LinkedHashMap<String, Runtime> runtimes = new LinkedHashMap<>(16, 0.75f, true);
+    private final long memoryBudget;
+    private volatile Thread runtimeThread;
+    private long usedMemory;
+
+    private V8RuntimePool(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public interface Task<T> {
+        T run(Runtime runtime);
+    }
+
+    /**
+     * run a task against the pooled runtime of a coin, creating it if needed.
+     * if the task fails the runtime is released, so that a script error can not
+     * leave state behind for the next caller
+     *
+     * @param coinCode coin code of the bundle
+     * @param task     the work to do, invoked on the runtime thread
+     * @return result of the task
+     */
+    public <T> T execute(String coinCode, Task<T> task) {
+        if (Thread.currentThread() == runtimeThread) {
+            return runTask(coinCode, task);
+        }
+        return await(executor.submit(() -> {
+            bindThread();
+            return runTask(coinCode, task);
+        }));
+    }
+
+    /**
+     * load the runtime of a coin ahead of time, eg: when the confirm page is shown
+     *
+     * @param coinCode coin code of the bundle
+     */
+    public void prewarm(String coinCode) {
+        post(() -> acquire(coinCode));
+    }
+
+    /**
+     * release every pooled runtime, called when the vault is locked
+     */
+    public void releaseAll() {
+        post(() -> {
+            for (Runtime runtime : runtimes.values()) {
+                runtime.release();
+            }
+            runtimes.clear();
+            usedMemory = 0;
+        });
+    }
+
+    private void post(Runnable work) {
+        executor.execute(() -> {
+            bindThread();
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                // an uncaught exception would replace the runtime thread
+                Log.w(TAG, "runtime task failed", e);
+            }
+        });
+    }
+
+    private <T> T runTask(String coinCode, Task<T> task) {
+        Runtime runtime = acquire(coinCode);
+        try {
+            return task.run(runtime);
+        } catch (RuntimeException e) {
+            discard(runtime);
+            throw e;
+        }
+    }
+
+    // runtimes are bound to the thread that created them, they can not be used
+    // (nor released) from a replacement thread
+    private void bindThread() {
+        Thread current = Thread.currentThread();
+        if (runtimeThread == current) {
+            return;
+        }
+        if (runtimeThread != null && !runtimes.isEmpty()) {
+            Log.w(TAG, "runtime thread changed, dropping " + runtimes.size() + " runtimes");
+            runtimes.clear();
+            usedMemory = 0;
+        }
+        runtimeThread = current;
+    }
+
+    private Runtime acquire(String coinCode) {
+        Runtime runtime = runtimes.get(coinCode);
+        if (runtime != null && !runtime.v8.isReleased()) {
+            return runtime;
+        }
+        if (runtime != null) {
+            runtimes.remove(coinCode);
+            usedMemory -= runtime.footprint;
+        }
+
+        long footprint = ScriptLoader.sInstance.getBundleSize(coinCode) * HEAP_PER_SOURCE_BYTE;
+        evict(footprint);
+        runtime = new Runtime(coinCode, footprint);
+        runtimes.put(coinCode, runtime);
+        usedMemory += footprint;
+        return runtime;
+    }
+
+    private void discard(Runtime runtime) {
+        if (runtimes.get(runtime.coinCode) == runtime) {
+            runtimes.remove(runtime.coinCode);
+            usedMemory -= runtime.footprint;
+        }
+        Log.i(TAG, "discard runtime " + runtime.coinCode);
+        runtime.release();
+    }
+
+    private void evict(long required) {
+        Iterator<Map.Entry<String, Runtime>> iterator = runtimes.entrySet().iterator();
+        while (usedMemory + required > memoryBudget && iterator.hasNext()) {
+            Runtime eldest = iterator.next().getValue();
+            iterator.remove();
+            usedMemory -= eldest.footprint;
+            Log.i(TAG, "evict runtime " + eldest.coinCode);
+            eldest.release();
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    public static class Runtime {
+        final String coinCode;
+        final V8 v8;
+        final V8Object coin;
+        private final long footprint;
+        private final Map<String, V8Function> functions = new HashMap<>();
+
+        private Runtime(String coinCode, long footprint) {
+            this.coinCode = coinCode;
+            this.footprint = footprint;
+            this.v8 = ScriptLoader.sInstance.loadByCoinCode(coinCode);
+            this.coin = v8.executeObjectScript("new " + coinCode + "()");
+        }
+
+        V8Function function(String name) {
+            V8Function function = functions.get(name);
+            if (function == null || function.isReleased()) {
+                function = (V8Function) coin.get(name);
+                functions.put(name, function);
+            }
+            return function;
+        }
+
+        private void release() {
+            if (v8.isReleased()) {
+                return;
+            }
+            for (V8Function function : functions.values()) {
+                function.release();
+            }
+            functions.clear();
+            coin.release();
+            v8.release(false);
+        }
+    }
+}
@@ -17,6 +17,7 @@
 
 package com.cobo.coinlib;
 
+import com.cobo.coinlib.coins.AbsDeriver;
 import com.cobo.coinlib.exception.InvalidPathException;
 import com.cobo.coinlib.path.AddressIndex;
 import com.cobo.coinlib.path.CoinPath;
@@ -27,6 +28,9 @@ import org.junit.Test;
 import static com.cobo.coinlib.path.CoinPath.m;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class CoinsTest {
@@ -49,6 +53,19 @@ public class CoinsTest {
         assertEquals(1, CoinPath.parsePath(path1).getValue());
     }
 
+    @Test
+    public void testRegistry() {
+        for (Coins.Coin coin : Coins.SUPPORTED_COINS) {
+            assertSame(coin, Coins.ofCoinCode(coin.coinCode()));
+            assertSame(coin, Coins.ofCoinId(coin.coinId()));
+            assertSame(coin, Coins.ofCoinIndex(coin.coinIndex()));
+            assertNotNull(AbsDeriver.newInstance(coin.coinCode()));
+        }
+        assertNull(Coins.ofCoinCode("XTN"));
+        assertNull(AbsDeriver.newInstance("XTN"));
+        assertEquals("", Coins.coinCodeOfIndex(1));
+    }
+
     @Test
     public void testCurve() {
         assertEquals(Coins.CURVE.SECP256K1, Coins.curveFromCoinCode("BTC"));
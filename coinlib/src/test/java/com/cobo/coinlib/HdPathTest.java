@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib;
+
+import com.cobo.coinlib.exception.InvalidPathException;
+import com.cobo.coinlib.path.AddressIndex;
+import com.cobo.coinlib.path.HdPath;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HdPathTest {
+
+    @Test
+    public void parse() throws InvalidPathException {
+        HdPath path = HdPath.parse("M/44'/60'/0'/1/23");
+        assertEquals(5, path.depth());
+        assertEquals(44, path.get(HdPath.LEVEL_PURPOSE));
+        assertEquals(60, path.getCoinType());
+        assertEquals(0, path.get(HdPath.LEVEL_ACCOUNT));
+        assertEquals(1, path.getChange());
+        assertEquals(23, path.getAddressIndex());
+        assertTrue(path.isHardened(HdPath.LEVEL_ACCOUNT));
+        assertFalse(path.isHardened(HdPath.LEVEL_CHANGE));
+        assertFalse(path.isExternal());
+        assertEquals("M/44'/60'/0'/1/23", path.toString());
+        assertArrayEquals(new int[]{44 | HdPath.HARDENED_BIT, 60 | HdPath.HARDENED_BIT,
+                HdPath.HARDENED_BIT, 1, 23}, path.toArray());
+    }
+
+    @Test
+    public void interned() throws InvalidPathException {
+        HdPath path = HdPath.parse("M/49'/0'/0'/0/7");
+        assertSame(path, HdPath.parse("M/49'/0'/0'/0/7"));
+        AddressIndex addressIndex = path.toAddressIndex();
+        assertSame(addressIndex, HdPath.parse("M/49'/0'/0'/0/7").toAddressIndex());
+        assertEquals("m/49'/0'/0'/0/7", addressIndex.toString());
+    }
+
+    @Test
+    public void account() throws InvalidPathException {
+        HdPath path = HdPath.parse("M/44'/194'/0'");
+        assertEquals(3, path.depth());
+        assertEquals("M/44'/194'/0'", path.toAccount().toString());
+    }
+
+    @Test
+    public void equalsIgnorePrefix() throws InvalidPathException {
+        assertEquals(HdPath.parse("m/44'/0'/0'/0/0"), HdPath.parse("M/44'/0'/0'/0/0"));
+    }
+
+    @Test(expected = InvalidPathException.class)
+    public void overflow() throws InvalidPathException {
+        HdPath.parse("M/44'/0'/0'/0/2147483648");
+    }
+
+    @Test(expected = InvalidPathException.class)
+    public void trailingSlash() throws InvalidPathException {
+        HdPath.parse("M/44'/0'/");
+    }
+
+    @Test(expected = InvalidPathException.class)
+    public void illegalPrefix() throws InvalidPathException {
+        HdPath.parse("N/44'/0'/0'");
+    }
+
+    @Test(expected = InvalidPathException.class)
+    public void illegalCharacter() throws InvalidPathException {
+        HdPath.parse("M/44'/0x'/0'");
+    }
+
+    @Test(expected = InvalidPathException.class)
+    public void notAccount() throws InvalidPathException {
+        HdPath.parse("M/44'/0'/0'/0/0").toAccount();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WordIndexTest {
+
+    @Test
+    public void indexOf() {
+        for (int i = 0; i < WordList.words.length; i++) {
+            assertEquals(i, WordIndex.indexOf(WordList.words[i]));
+            assertEquals(WordList.words[i], WordIndex.word(i));
+        }
+        assertEquals(-1, WordIndex.indexOf(""));
+        assertEquals(-1, WordIndex.indexOf("aban"));
+        assertEquals(-1, WordIndex.indexOf("abandons"));
+        assertEquals(-1, WordIndex.indexOf("zzzz"));
+        assertEquals(-1, WordIndex.indexOf("bitcoin"));
+        assertTrue(WordIndex.contains("zoo"));
+        assertFalse(WordIndex.contains("zoo1"));
+    }
+
+    @Test
+    public void prefix() {
+        String[] prefixes = {"", "a", "ab", "abs", "zoo", "ZO", "Act", "actual", "qz", "abandonx"};
+        for (String prefix : prefixes) {
+            int first = -1;
+            int count = 0;
+            for (int i = 0; i < WordList.words.length; i++) {
+                if (WordList.words[i].startsWith(prefix.toLowerCase())) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    count++;
+                }
+            }
+            assertEquals(first, WordIndex.prefixStart(prefix));
+            assertEquals(count, WordIndex.prefixCount(prefix));
+        }
+    }
+}
@@ -21,6 +21,8 @@ import com.cobo.coinlib.coins.BTC.Btc;
 
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 
 @SuppressWarnings("ALL")
@@ -47,4 +49,18 @@ public class BtcTest {
         }
     }
 
+    @Test
+    public void deriveRange() {
+        String pubKey = "xpub6D3i46Y43SFfjEBYheBK3btYMRm9Cfb8Tt4M5Bv16tArNBw5ATNyJWjdcMyLxoCdHWTvm3ak7j2BWacq5Lw478aYUeARoYm4dvaQgJBAGsb";
+        Btc.Deriver deriver = new Btc.Deriver();
+        List<String> addresses = deriver.deriveRange(pubKey, 0, 2, 3);
+        assertEquals(3, addresses.size());
+        assertEquals("32Hhx9CM3gYwChY2ZRFtHTYpJCeUaoypkj", addresses.get(0));
+        assertEquals("3C5VmDeH3x6x9fPm4cft3qVhzvv8R4Ln7K", addresses.get(1));
+        assertEquals("38c8FFS9W4QEW55WXgo2wX8HZJCutH89VT", addresses.get(2));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(deriver.derive(pubKey, 0, i + 2), addresses.get(i));
+        }
+    }
+
 }
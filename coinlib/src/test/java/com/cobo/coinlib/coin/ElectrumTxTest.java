@@ -23,8 +23,11 @@ import com.cobo.coinlib.coins.BTC.Electrum.TxUtils;
 import org.bouncycastle.util.encoders.Hex;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ElectrumTxTest {
@@ -63,6 +66,22 @@ public class ElectrumTxTest {
         assertEquals("3Kd5rjiLtvpHv5nhYQNTTeRLgrz4om32PJ", tx.getOutputs().get(0).address);
     }
 
+    @Test
+    public void testParseBufferInPlace() throws ElectrumTx.SerializationException {
+        String electrumTxHex = "45505446ff0002000000000106bf345375d61738afe374872e92de093cbbcbc56494822186591772de26b91104000000001716001494cb85b5f8418d4c6b3dacdcd964ffaa2d104756fdffffffbf345375d61738afe374872e92de093cbbcbc56494822186591772de26b911040100000017160014f1951325a309dc91a5831092eff2887b449f42d9fdffffff023c272923e8abc0d8edd491d6986cec5d5c28204490bd55654122fc3abf2914000000001716001494cb85b5f8418d4c6b3dacdcd964ffaa2d104756fdffffff44ba6e8c09775353eb6ef2b3b25aaeaaa6b48741671bb7fd0cdcd1b0aab1d731000000001716001494cb85b5f8418d4c6b3dacdcd964ffaa2d104756fdffffff595bd8050cd602c686849c636afe7684c044f67297b404c9fa390f5f275f35a1000000001716001494cb85b5f8418d4c6b3dacdcd964ffaa2d104756fdffffff5e730b6805a00247d5d140b7e89efaa983978963d42310fbb198ec961e7cd5e4000000001716001494cb85b5f8418d4c6b3dacdcd964ffaa2d104756fdffffff013ccb00000000000017a914c4b3e26f1d2851ce097cc8943cc8d4c19d6202c387feffffffff1b0800000000000000000201ff53ff049d7cb203bddc6f0d80000000cd01dd05ef6eae22b5c2156fc38da40b925c62e5677352e6a9f9c2212b6dd45f0239c284493a8bf05e0723f001634fac452f6289e20c496f9bfcbf83917972f3b800000000feffffffff788f00000000000000000201ff53ff049d7cb203bddc6f0d80000000cd01dd05ef6eae22b5c2156fc38da40b925c62e5677352e6a9f9c2212b6dd45f0239c284493a8bf05e0723f001634fac452f6289e20c496f9bfcbf83917972f3b800000100fefffffffff00700000000000000000201ff53ff049d7cb203bddc6f0d80000000cd01dd05ef6eae22b5c2156fc38da40b925c62e5677352e6a9f9c2212b6dd45f0239c284493a8bf05e0723f001634fac452f6289e20c496f9bfcbf83917972f3b800000000feffffffff220800000000000000000201ff53ff049d7cb203bddc6f0d80000000cd01dd05ef6eae22b5c2156fc38da40b925c62e5677352e6a9f9c2212b6dd45f0239c284493a8bf05e0723f001634fac452f6289e20c496f9bfcbf83917972f3b800000000feffffffff220800000000000000000201ff53ff049d7cb203bddc6f0d80000000cd01dd05ef6eae22b5c2156fc38da40b925c62e5677352e6a9f9c2212b6dd45f0239c284493a8bf05e0723f001634fac452f6289e20c496f9bfcbf83917972f3b800000000feffffffff552b00000000000000000201ff53ff049d7cb203bddc6f0d80000000cd01dd05ef6eae22b5c2156fc38da40b925c62e5677352e6a9f9c2212b6dd45f0239c284493a8bf05e0723f001634fac452f6289e20c496f9bfcbf83917972f3b80000000056880900";
+        byte[] txBytes = Hex.decode("0000" + electrumTxHex);
+        ByteBuffer buffer = ByteBuffer.wrap(txBytes);
+        buffer.position(2);
+        ElectrumTx tx = ElectrumTx.parse(buffer);
+        assertEquals(2, buffer.position());
+        assertEquals(6, tx.getInputs().size());
+        assertEquals(36728, tx.getInputs().get(1).value.intValue());
+        // inputs spending the same address share one decoded placeholder
+        assertSame(tx.getInputs().get(0).pubKey, tx.getInputs().get(5).pubKey);
+        assertEquals("M/49'/0'/0'/0/1", tx.getInputs().get(1).pubKey.hdPath);
+        assertEquals("3Kd5rjiLtvpHv5nhYQNTTeRLgrz4om32PJ", tx.getOutputs().get(0).address);
+    }
+
     @Test
     public void testTxUtils() throws ElectrumTx.SerializationException {
         String rawHex = "ff049d7cb203bddc6f0d80000000cd01dd05ef6eae22b5c2156fc38da40b925c62e5677352e6a9f9c2212b6dd45f0239c284493a8bf05e0723f001634fac452f6289e20c496f9bfcbf83917972f3b800000100";
@@ -35,6 +35,9 @@ import com.cobo.cold.encryptioncore.job.JobSchedulerImpl;
 import com.cobo.cold.encryptioncore.serial.SerialManagerProxyImpl;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 public class EncryptionCore implements JobScheduler {
     private static EncryptionCore sInstance;
     private final JobScheduler mImpl;
@@ -78,4 +81,18 @@ public class EncryptionCore implements JobScheduler {
 
         mImpl.offer(packet, callback);
     }
+
+    @NonNull
+    @Override
+    public CompletableFuture<Packet> submit(@NonNull Packet packet, long deadline, @NonNull TimeUnit unit) {
+        Preconditions.checkNotNull(packet);
+        Preconditions.checkNotNull(unit);
+
+        return mImpl.submit(packet, deadline, unit);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return mImpl.getQueueDepth();
+    }
 }
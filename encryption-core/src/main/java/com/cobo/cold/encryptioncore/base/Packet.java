@@ -31,19 +31,27 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 public class Packet {
+    // scheduling lanes, a lower value is taken from the queue first
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_BULK = 2;
+
     private final int id;
     private final int retryTimes;
     private final int timeout;
+    private final int priority;
     @NonNull
     private final SparseArrayCompat<Payload> payloads;
 
     private Packet(int id, @NonNull SparseArrayCompat<Payload> payloads,
                    int retryTimes,
-                   int timeout) {
+                   int timeout,
+                   int priority) {
         this.id = id;
         this.payloads = payloads;
         this.retryTimes = retryTimes;
         this.timeout = timeout;
+        this.priority = priority;
     }
 
     public int getId() {
@@ -70,6 +78,11 @@ public class Packet {
         return timeout;
     }
 
+    @IntRange(from = PRIORITY_HIGH, to = PRIORITY_BULK)
+    public int getPriority() {
+        return priority;
+    }
+
     @NonNull
     @Override
     public String toString() {
@@ -107,10 +120,12 @@ public class Packet {
         private final SparseArrayCompat<Payload> payloads;
         private int retryTimes;
         private int timeout;
+        private int priority;
 
         public Builder(int id) {
             this.id = id;
             this.retryTimes = 0;
+            this.priority = PRIORITY_NORMAL;
             this.payloads = new SparseArrayCompat<>();
         }
 
@@ -124,6 +139,11 @@ public class Packet {
             return this;
         }
 
+        public Builder setPriority(@IntRange(from = PRIORITY_HIGH, to = PRIORITY_BULK) int priority) {
+            this.priority = priority;
+            return this;
+        }
+
         public Builder addBytePayload(int payloadId, int i) {
             final byte[] value = new byte[]{(byte) i};
             payloads.append(payloadId, new Payload(value));
@@ -160,6 +180,13 @@ public class Packet {
             return this;
         }
 
+        public Builder addPayload(int payloadId, @NonNull Payload payload) {
+            Preconditions.checkNotNull(payload);
+            payloads.append(payloadId, payload);
+
+            return this;
+        }
+
         public Builder addTextPayload(int payloadId, @NonNull String text) {
             Preconditions.checkNotNull(text);
             final byte[] value = ByteFormatter.utf82bytes(text);
@@ -169,7 +196,7 @@ public class Packet {
         }
 
         public Packet build() {
-            return new Packet(id, payloads, retryTimes, timeout);
+            return new Packet(id, payloads, retryTimes, timeout, priority);
         }
     }
 }
@@ -23,42 +23,91 @@ import com.cobo.cold.encryptioncore.exception.ByteFormatException;
 import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
+/**
+ * Value of one TLV field. A payload may be a view over a range of a larger
+ * array, eg: a received frame, so that deserializing does not copy each field.
+ */
 public class Payload {
     private final byte[] value;
+    private final int offset;
+    private final int length;
 
     public Payload(@NonNull byte[] value) {
         this.value = Preconditions.checkNotNull(value);
+        this.offset = 0;
+        this.length = value.length;
+    }
+
+    /**
+     * a view over part of an array, the array must not be modified afterwards
+     */
+    public Payload(@NonNull byte[] source, int offset, int length) {
+        Preconditions.checkNotNull(source);
+        Preconditions.checkArgument(offset >= 0 && length >= 0 && offset + length <= source.length,
+                "range out of bounds");
+        this.value = source;
+        this.offset = offset;
+        this.length = length;
     }
 
     @NonNull
     public byte[] getValue() {
-        return value.clone();
+        return Arrays.copyOfRange(value, offset, offset + length);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * copy the value into a buffer without an intermediate array
+     */
+    public void writeTo(@NonNull ByteBuffer buffer) {
+        buffer.put(value, offset, length);
     }
 
     public int toInt() {
-        if (value.length == 1) {
-            return value[0] & 0xFF;
-        } else if (value.length == 2) {
-            return ByteFormatter.bytes2short(value);
-        } else if (value.length == 4) {
-            return ByteFormatter.bytes2int(value);
+        if (length == 1) {
+            return value[offset] & 0xFF;
+        } else if (length == 2) {
+            return ((value[offset] & 0xFF) << 8)
+                    | (value[offset + 1] & 0xFF);
+        } else if (length == 4) {
+            return ((value[offset] & 0xFF) << 24)
+                    | ((value[offset + 1] & 0xFF) << 16)
+                    | ((value[offset + 2] & 0xFF) << 8)
+                    | (value[offset + 3] & 0xFF);
         } else {
             throw new ByteFormatException("the length of values must be [one, two, four]");
         }
     }
 
     public String toHex() {
-        return ByteFormatter.bytes2hex(value);
+        return ByteFormatter.bytes2hex(value, offset, length);
     }
 
     public String toUtf8() {
-        return ByteFormatter.bytes2utf8(value);
+        return new String(value, offset, length, StandardCharsets.UTF_8);
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj instanceof Payload && Arrays.equals(this.value, ((Payload) obj).value);
+        if (!(obj instanceof Payload)) {
+            return false;
+        }
+        final Payload other = (Payload) obj;
+        if (length != other.length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (value[offset + i] != other.value[other.offset + i]) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -22,24 +22,30 @@ import androidx.annotation.NonNull;
 import com.cobo.cold.encryptioncore.interfaces.Cipher;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
+import java.security.GeneralSecurityException;
+
 public class CipherImpl implements Cipher {
-    private final byte[] mKey;
-    private final byte[] mKeyIv;
+    private final DES mDes;
 
     public CipherImpl(@NonNull byte[] key, @NonNull byte[] keyIv) {
-        mKey = Preconditions.checkNotNull(key);
-        mKeyIv = Preconditions.checkNotNull(keyIv);
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(keyIv);
+        try {
+            mDes = new DES(key, keyIv);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("illegal des key", e);
+        }
     }
 
     @Override
     public byte[] encrypt(@NonNull byte[] data) throws Exception {
         Preconditions.checkNotNull(data);
-        return DES.encrypt(mKey, mKeyIv, data);
+        return mDes.encrypt(data);
     }
 
     @Override
     public byte[] decrypt(@NonNull byte[] encrypted) throws Exception {
         Preconditions.checkNotNull(encrypted);
-        return DES.decrypt(mKey, mKeyIv, encrypted);
+        return mDes.decrypt(encrypted);
     }
 }
@@ -35,43 +35,70 @@ import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.DESedeKeySpec;
 import javax.crypto.spec.IvParameterSpec;
 
+/**
+ * Triple DES in CBC mode with a fixed key and iv. The key schedule is derived
+ * once per instance and every thread keeps its own {@link Cipher}, which is
+ * only re-initialized per packet.
+ */
 class DES {
     private static final String ALGORITHM = "desede";
     private static final String PADDING = "/CBC/PKCS5Padding";
 
-    public static byte[] encrypt(@NonNull byte[] keyBytes, @NonNull byte[] keyIv, @NonNull byte[] data)
-            throws InvalidKeyException, NoSuchAlgorithmException, NoSuchPaddingException,
-            InvalidKeySpecException, InvalidAlgorithmParameterException, BadPaddingException,
-            IllegalBlockSizeException {
+    private final Key mKey;
+    private final IvParameterSpec mIv;
+    private final ThreadLocal<Cipher> mCipher = new ThreadLocal<>();
+
+    DES(@NonNull byte[] keyBytes, @NonNull byte[] keyIv) throws InvalidKeyException,
+            NoSuchAlgorithmException, InvalidKeySpecException {
         Preconditions.checkNotNull(keyBytes);
         Preconditions.checkNotNull(keyIv);
-        Preconditions.checkNotNull(data);
 
         final DESedeKeySpec spec = new DESedeKeySpec(keyBytes);
-        final Key desKey = SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec);
-
-        final Cipher cipher = Cipher.getInstance(ALGORITHM + PADDING);
-        final IvParameterSpec ips = new IvParameterSpec(keyIv);
-        cipher.init(Cipher.ENCRYPT_MODE, desKey, ips);
+        mKey = SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec);
+        mIv = new IvParameterSpec(keyIv);
+    }
 
-        return cipher.doFinal(data);
+    public static byte[] encrypt(@NonNull byte[] keyBytes, @NonNull byte[] keyIv, @NonNull byte[] data)
+            throws InvalidKeyException, NoSuchAlgorithmException, NoSuchPaddingException,
+            InvalidKeySpecException, InvalidAlgorithmParameterException, BadPaddingException,
+            IllegalBlockSizeException {
+        return new DES(keyBytes, keyIv).encrypt(data);
     }
 
     public static byte[] decrypt(@NonNull byte[] keyBytes, @NonNull byte[] keyIv, byte[] encrypted)
             throws InvalidKeyException, NoSuchAlgorithmException, InvalidKeySpecException,
             NoSuchPaddingException, InvalidAlgorithmParameterException, BadPaddingException,
             IllegalBlockSizeException {
-        Preconditions.checkNotNull(keyBytes);
-        Preconditions.checkNotNull(keyIv);
-        Preconditions.checkNotNull(encrypted);
+        return new DES(keyBytes, keyIv).decrypt(encrypted);
+    }
 
-        final DESedeKeySpec spec = new DESedeKeySpec(keyBytes);
-        final Key desKey = SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec);
+    byte[] encrypt(@NonNull byte[] data) throws NoSuchAlgorithmException, NoSuchPaddingException,
+            InvalidKeyException, InvalidAlgorithmParameterException, BadPaddingException,
+            IllegalBlockSizeException {
+        Preconditions.checkNotNull(data);
 
-        final Cipher cipher = Cipher.getInstance(ALGORITHM + PADDING);
-        final IvParameterSpec ips = new IvParameterSpec(keyIv);
-        cipher.init(Cipher.DECRYPT_MODE, desKey, ips);
+        final Cipher cipher = cipher();
+        cipher.init(Cipher.ENCRYPT_MODE, mKey, mIv);
+        return cipher.doFinal(data);
+    }
 
+    byte[] decrypt(@NonNull byte[] encrypted) throws NoSuchAlgorithmException, NoSuchPaddingException,
+            InvalidKeyException, InvalidAlgorithmParameterException, BadPaddingException,
+            IllegalBlockSizeException {
+        Preconditions.checkNotNull(encrypted);
+
+        final Cipher cipher = cipher();
+        cipher.init(Cipher.DECRYPT_MODE, mKey, mIv);
         return cipher.doFinal(encrypted);
     }
-}
\ No newline at end of file
+
+    @NonNull
+    private Cipher cipher() throws NoSuchAlgorithmException, NoSuchPaddingException {
+        Cipher cipher = mCipher.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(ALGORITHM + PADDING);
+            mCipher.set(cipher);
+        }
+        return cipher;
+    }
+}
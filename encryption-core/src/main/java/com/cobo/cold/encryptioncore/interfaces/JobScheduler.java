@@ -21,6 +21,26 @@ import androidx.annotation.NonNull;
 
 import com.cobo.cold.encryptioncore.base.Packet;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 public interface JobScheduler {
     void offer(@NonNull Packet packet, @NonNull Callback callback);
+
+    /**
+     * queue a packet in the lane of {@link Packet#getPriority()}
+     *
+     * @param packet   the request
+     * @param deadline time allowed for queueing and the exchange together, 0 for no deadline
+     * @param unit     unit of the deadline
+     * @return the response, completed with a {@link java.util.concurrent.TimeoutException} once the
+     * deadline is reached; cancelling it before the job starts removes the job from the queue
+     */
+    @NonNull
+    CompletableFuture<Packet> submit(@NonNull Packet packet, long deadline, @NonNull TimeUnit unit);
+
+    /**
+     * @return number of jobs waiting to be run
+     */
+    int getQueueDepth();
 }
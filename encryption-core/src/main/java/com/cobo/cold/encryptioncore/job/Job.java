@@ -18,44 +18,32 @@
 package com.cobo.cold.encryptioncore.job;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.VisibleForTesting;
 
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.interfaces.Callback;
 import com.cobo.cold.encryptioncore.interfaces.Packer;
 import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
 import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
-import com.cobo.cold.encryptioncore.utils.Preconditions;
+import com.cobo.cold.encryptioncore.serial.SerialSession;
 
-import java.io.IOException;
 import java.util.concurrent.Callable;
 
 class Job implements Runnable {
     private final SerialManagerProxy mManager;
+    private final SerialSession mSession;
     private final Packet mPacket;
     private final Callback mCallback;
     private final Packer mPacker;
 
-    Job(@NonNull SerialManagerProxy manager, @NonNull Packer packer,
+    Job(@NonNull SerialManagerProxy manager, @NonNull SerialSession session, @NonNull Packer packer,
         @NonNull Packet packet, @NonNull Callback callback) {
         mManager = manager;
+        mSession = session;
         mPacker = packer;
         mPacket = packet;
         mCallback = callback;
     }
 
-    @NonNull
-    @VisibleForTesting
-    static SerialPortProxy openPort(@NonNull SerialManagerProxy manager) throws IOException {
-        final String[] portNumbers = manager.getSerialPorts();
-        Preconditions.checkArgument(portNumbers != null && portNumbers.length > 0, "port not found");
-
-        final SerialPortProxy port = manager.openSerialPort(portNumbers[0]);
-        Preconditions.checkNotNull(port, String.format("can not open port %s", portNumbers[0]));
-
-        return port;
-    }
-
     @Override
     public void run() {
         mManager.acquireWakeLock();
@@ -88,21 +76,17 @@ class Job implements Runnable {
 
     @NonNull
     private Packet portCommunicate() throws Exception {
-        SerialPortProxy port = null;
+        final SerialPortProxy port = mSession.acquire();
 
         try {
-            port = openPort(mManager);
-            final Callable<Packet> callable = new Workshop(port, mPacker, mPacket);
+            final Callable<Packet> callable = new Workshop(port, mPacker, mPacket, mSession.getReader());
             return callable.call();
+        } catch (Exception e) {
+            // drop the connection so that the retry starts from a freshly opened port
+            mSession.invalidate();
+            throw e;
         } finally {
-            if (port != null) {
-                try {
-                    port.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+            mSession.release();
         }
-
     }
 }
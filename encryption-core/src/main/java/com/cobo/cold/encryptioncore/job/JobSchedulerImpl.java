@@ -17,32 +17,145 @@
 
 package com.cobo.cold.encryptioncore.job;
 
+import android.util.Log;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.cobo.cold.encryptioncore.BuildConfig;
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.interfaces.Callback;
 import com.cobo.cold.encryptioncore.interfaces.Cipher;
 import com.cobo.cold.encryptioncore.interfaces.JobScheduler;
 import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
+import com.cobo.cold.encryptioncore.serial.SerialSession;
+import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Runs jobs one at a time on the serial port. Waiting jobs are ordered by
+ * {@link Packet#getPriority()} and then by arrival, so a UI read queued behind
+ * a long run of update pages goes out after the page in flight.
+ */
 public class JobSchedulerImpl implements JobScheduler {
+    private static final String TAG = "EncryptionCore.JobScheduler";
+
     private final SerialManagerProxy mManager;
-    private final ExecutorService mExecutor;
-    private final Cipher mCipher;
+    private final SerialSession mSession;
+    private final ThreadPoolExecutor mExecutor;
+    private final ScheduledExecutorService mDeadlines;
+    private final PackerImpl mPacker;
+    private final AtomicLong mSequence = new AtomicLong();
 
     public JobSchedulerImpl(@NonNull SerialManagerProxy manager, @Nullable Cipher cipher) {
         mManager = Preconditions.checkNotNull(manager);
-        mCipher = cipher;
-        mExecutor = Executors.newSingleThreadExecutor();
+        // shared by every job, jobs never run concurrently
+        mPacker = new PackerImpl(cipher);
+        mSession = new SerialSession(mManager, SerialSession.DEFAULT_IDLE_TIMEOUT);
+        mExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>());
+        final ScheduledThreadPoolExecutor deadlines = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "EncryptionCore.Deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        deadlines.setRemoveOnCancelPolicy(true);
+        mDeadlines = deadlines;
     }
 
     @Override
     public void offer(@NonNull Packet packet, @NonNull Callback callback) {
-        mExecutor.submit(new Job(mManager, new PackerImpl(mCipher), packet, callback));
+        enqueue(packet, callback, null);
+    }
+
+    @NonNull
+    @Override
+    public CompletableFuture<Packet> submit(@NonNull Packet packet, long deadline, @NonNull TimeUnit unit) {
+        final CompletableFuture<Packet> future = new CompletableFuture<>();
+
+        if (deadline > 0) {
+            final ScheduledFuture<?> timer = mDeadlines.schedule(() -> future.completeExceptionally(
+                    new TimeoutException(ByteFormatter.addHexPrefix(packet.getId()) + " missed its deadline")),
+                    deadline, unit);
+            future.whenComplete((result, error) -> timer.cancel(false));
+        }
+
+        enqueue(packet, new Callback() {
+            @Override
+            public void onSuccess(@NonNull Packet result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFail(@NonNull Exception exception) {
+                future.completeExceptionally(exception);
+            }
+        }, future);
+
+        return future;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return mExecutor.getQueue().size();
+    }
+
+    private void enqueue(@NonNull Packet packet, @NonNull Callback callback,
+                         @Nullable CompletableFuture<Packet> future) {
+        final Job job = new Job(mManager, mSession, mPacker, packet, callback);
+        mExecutor.execute(new QueuedJob(job, packet, mSequence.getAndIncrement(), future));
+    }
+
+    private class QueuedJob implements Runnable, Comparable<QueuedJob> {
+        private final Job mJob;
+        private final int mId;
+        private final int mPriority;
+        private final long mSequence;
+        private final long mQueuedAt;
+        @Nullable
+        private final CompletableFuture<Packet> mFuture;
+
+        private QueuedJob(@NonNull Job job, @NonNull Packet packet, long sequence,
+                          @Nullable CompletableFuture<Packet> future) {
+            mJob = job;
+            mId = packet.getId();
+            mPriority = packet.getPriority();
+            mSequence = sequence;
+            mQueuedAt = System.nanoTime();
+            mFuture = future;
+        }
+
+        @Override
+        public void run() {
+            // cancelled or past its deadline while waiting, the port is not touched
+            if (mFuture != null && mFuture.isDone()) {
+                return;
+            }
+
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, ByteFormatter.addHexPrefix(mId) + " waited "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mQueuedAt)
+                        + "ms, queue depth " + getQueueDepth());
+            }
+            mJob.run();
+        }
+
+        @Override
+        public int compareTo(@NonNull QueuedJob other) {
+            if (mPriority != other.mPriority) {
+                return Integer.compare(mPriority, other.mPriority);
+            }
+            return Long.compare(mSequence, other.mSequence);
+        }
     }
 }
@@ -30,13 +30,22 @@ import com.cobo.cold.encryptioncore.interfaces.Packer;
 import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
+/**
+ * Encodes packets straight into a frame buffer that is reused between calls,
+ * and decodes payloads as views over the received frame. An instance must
+ * not be shared by threads, the scheduler runs one job at a time.
+ */
 class PackerImpl implements Packer {
+    private static final int TLV_HEADER_SIZE = 2 /*tag*/ + 2 /*length*/;
+    private static final int FRAME_HEADER_SIZE = 1 /*stx*/ + 1 /*encryption*/ + 2 /*length*/;
+
     private final Cipher mCipher;
+    private final ByteBuffer mFrame = ByteBuffer.allocate(CONSTANTS.MAX_BUFFER_SIZE);
+    private ByteBuffer mBody;
 
     PackerImpl(@Nullable Cipher cipher) {
         mCipher = cipher;
@@ -45,38 +54,74 @@ class PackerImpl implements Packer {
     @Override
     public byte[] serialize(@NonNull Packet packet) throws Exception {
         Preconditions.checkNotNull(packet);
-        byte[] body = serializeBody(packet);
-        body = mCipher != null ? mCipher.encrypt(body) : body;
-
-        if (body.length > CONSTANTS.MAX_BODY_SIZE) {
-            throw new IllegalArgumentException(String.format("the length of packet body [%s] is greater than %s",
-                    body.length, CONSTANTS.MAX_BODY_SIZE));
+        fitPayloads(packet);
+        final SparseArrayCompat<Payload> payloads = packet.getPayloads();
+        checkBodySize(bodySize(payloads));
+
+        mFrame.clear();
+        mFrame.put(CONSTANTS.STX);
+        mFrame.put((byte) (mCipher != null ?
+                CONSTANTS.ENCRYPTION_STATUS.ENABLED : CONSTANTS.ENCRYPTION_STATUS.DISABLED));
+
+        if (mCipher == null) {
+            // leave the length field empty and fill it once the body is written
+            mFrame.position(FRAME_HEADER_SIZE);
+            writePayloads(mFrame, payloads);
+            mFrame.putShort(2, (short) (mFrame.position() - FRAME_HEADER_SIZE));
+        } else {
+            final ByteBuffer plain = bodyBuffer();
+            plain.clear();
+            writePayloads(plain, payloads);
+            final byte[] body = mCipher.encrypt(Arrays.copyOf(plain.array(), plain.position()));
+            checkBodySize(body.length);
+            mFrame.putShort((short) body.length);
+            mFrame.put(body);
         }
 
-        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        mFrame.put(CONSTANTS.ETX);
+        mFrame.put(calculateLRC(mFrame.array(), 0, mFrame.position()));
 
-        outputStream.write(CONSTANTS.STX);
-        outputStream.write(mCipher != null ?
-                CONSTANTS.ENCRYPTION_STATUS.ENABLED : CONSTANTS.ENCRYPTION_STATUS.DISABLED
-        );
-        outputStream.write(ByteFormatter.short2bytes(body.length));
-        outputStream.write(body);
-        outputStream.write(CONSTANTS.ETX);
+        return Arrays.copyOf(mFrame.array(), mFrame.position());
+    }
+
+    private static void checkBodySize(int size) {
+        if (size > CONSTANTS.MAX_BODY_SIZE) {
+            throw new IllegalArgumentException(String.format("the length of packet body [%s] is greater than %s",
+                    size, CONSTANTS.MAX_BODY_SIZE));
+        }
+    }
 
-        final byte lrc = calculateLRC(outputStream.toByteArray());
-        outputStream.write(lrc);
+    private static int bodySize(@NonNull SparseArrayCompat<Payload> payloads) {
+        int size = 0;
+        for (int i = 0, count = payloads.size(); i < count; ++i) {
+            final Payload payload = payloads.valueAt(i);
+            if (payload != null) {
+                size += TLV_HEADER_SIZE + payload.length();
+            }
+        }
+        return size;
+    }
 
-        return outputStream.toByteArray();
+    @NonNull
+    private ByteBuffer bodyBuffer() {
+        if (mBody == null) {
+            mBody = ByteBuffer.allocate(CONSTANTS.MAX_BODY_SIZE);
+        }
+        return mBody;
     }
 
     @NonNull
     @VisibleForTesting
     byte[] serializeBody(@NonNull Packet packet) throws IOException {
+        fitPayloads(packet);
+        return serializePayloads(packet.getPayloads());
+    }
+
+    private void fitPayloads(@NonNull Packet packet) {
         fitPayload(packet, CONSTANTS.TAGS.PACKET_ID, ByteFormatter.short2bytes(packet.getId()));
         fitPayload(packet, CONSTANTS.TAGS.ENCRYPTION_STATUS, new byte[]{
                 (byte) (mCipher != null ?
                         CONSTANTS.ENCRYPTION_STATUS.ENABLED : CONSTANTS.ENCRYPTION_STATUS.DISABLED)});
-        return serializePayloads(packet.getPayloads());
     }
 
     private void fitPayload(@NonNull Packet packet, int id, @NonNull byte[] bytes) {
@@ -89,8 +134,13 @@ class PackerImpl implements Packer {
     @VisibleForTesting
     byte[] serializePayloads(@NonNull SparseArrayCompat<Payload> payloads) throws
             IOException {
-        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final ByteBuffer buffer = ByteBuffer.allocate(bodySize(payloads));
+        writePayloads(buffer, payloads);
+
+        return buffer.array();
+    }
 
+    private static void writePayloads(@NonNull ByteBuffer buffer, @NonNull SparseArrayCompat<Payload> payloads) {
         for (int i = 0, size = payloads.size(); i < size; ++i) {
             final int tag = payloads.keyAt(i);
             final Payload payload = payloads.valueAt(i);
@@ -99,21 +149,21 @@ class PackerImpl implements Packer {
                 continue;
             }
 
-            outputStream.write(serializeTLV(tag, payload.getValue()));
+            buffer.putShort((short) tag);
+            buffer.putShort((short) payload.length());
+            payload.writeTo(buffer);
         }
-
-        return outputStream.toByteArray();
     }
 
     @NonNull
     @VisibleForTesting
     byte[] serializeTLV(int tag, @NonNull byte[] value) {
-        final byte[] bytes = new byte[2 + 2 + value.length];
-        System.arraycopy(ByteFormatter.short2bytes(tag), 0, bytes, 0, 2);
-        System.arraycopy(ByteFormatter.short2bytes(value.length), 0, bytes, 2, 2);
-        System.arraycopy(value, 0, bytes, 4, value.length);
+        final ByteBuffer buffer = ByteBuffer.allocate(TLV_HEADER_SIZE + value.length);
+        buffer.putShort((short) tag);
+        buffer.putShort((short) value.length);
+        buffer.put(value);
 
-        return bytes;
+        return buffer.array();
     }
 
     @Override
@@ -123,11 +173,18 @@ class PackerImpl implements Packer {
 
         final boolean encrypt = bytes[1] == CONSTANTS.ENCRYPTION_STATUS.ENABLED;
         Preconditions.checkState(!(encrypt && mCipher == null), "encrypt disabled but got encrypted data");
-        final int lenOfBody = ByteFormatter.bytes2short(new byte[]{bytes[2], bytes[3]});
-        byte[] body = Arrays.copyOfRange(bytes, 4, 4 + lenOfBody);
-        body = encrypt ? mCipher.decrypt(body) : body;
-
-        final Packet.Builder builder = deserializeBody(body);
+        final int lenOfBody = ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+        Preconditions.checkArgument(FRAME_HEADER_SIZE + lenOfBody <= bytes.length - 2,
+                "the length of body is out of the frame");
+
+        final Packet.Builder builder;
+        if (encrypt) {
+            builder = deserializeBody(mCipher.decrypt(
+                    Arrays.copyOfRange(bytes, FRAME_HEADER_SIZE, FRAME_HEADER_SIZE + lenOfBody)));
+        } else {
+            // payloads are views over the received frame, which is not reused by the reader
+            builder = deserializeBody(bytes, FRAME_HEADER_SIZE, lenOfBody);
+        }
 
         return builder.build();
     }
@@ -135,7 +192,12 @@ class PackerImpl implements Packer {
     @NonNull
     @VisibleForTesting
     Packet.Builder deserializeBody(@NonNull byte[] bytes) {
-        final SparseArrayCompat<Payload> payloads = deserializePayloads(bytes);
+        return deserializeBody(bytes, 0, bytes.length);
+    }
+
+    @NonNull
+    private Packet.Builder deserializeBody(@NonNull byte[] bytes, int offset, int length) {
+        final SparseArrayCompat<Payload> payloads = deserializePayloads(bytes, offset, length);
 
         Preconditions.checkState(payloads.indexOfKey(CONSTANTS.TAGS.PACKET_ID) >= 0,
                 "deserialize data has no id which tag is %s");
@@ -147,7 +209,7 @@ class PackerImpl implements Packer {
             final int tag = payloads.keyAt(i);
             final Payload payload = Preconditions.checkNotNull(payloads.valueAt(i));
 
-            builder.addBytesPayload(tag, payload.getValue());
+            builder.addPayload(tag, payload);
         }
 
         return builder;
@@ -156,30 +218,24 @@ class PackerImpl implements Packer {
     @NonNull
     @VisibleForTesting
     SparseArrayCompat<Payload> deserializePayloads(@NonNull byte[] bytes) {
+        return deserializePayloads(bytes, 0, bytes.length);
+    }
+
+    @NonNull
+    private SparseArrayCompat<Payload> deserializePayloads(@NonNull byte[] bytes, int offset, int length) {
         final SparseArrayCompat<Payload> payloads = new SparseArrayCompat<>();
-        final ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
-        inputStream.reset();
-
-        int offset = 0;
-        int available = inputStream.available();
-
-        while (offset < available) {
-            final byte[] twoBytesBuffer = new byte[2];
-            inputStream.read(twoBytesBuffer, 0, 2);
-            offset += 2;
-            final int tag = ByteFormatter.bytes2short(twoBytesBuffer);
-
-            inputStream.read(twoBytesBuffer, 0, 2);
-            offset += 2;
-            final int lenOfVal = ByteFormatter.bytes2short(twoBytesBuffer);
-
-            final byte[] valueBuffer = new byte[lenOfVal];
-            inputStream.read(valueBuffer, 0, lenOfVal);
-            offset += lenOfVal;
-            payloads.put(tag, new Payload(valueBuffer));
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+
+        while (buffer.hasRemaining()) {
+            Preconditions.checkState(buffer.remaining() >= TLV_HEADER_SIZE, "illegal data");
+            final int tag = buffer.getShort() & 0xFFFF;
+            final int lenOfVal = buffer.getShort() & 0xFFFF;
+
+            Preconditions.checkState(buffer.remaining() >= lenOfVal, "illegal data");
+            payloads.put(tag, new Payload(bytes, buffer.position(), lenOfVal));
+            buffer.position(buffer.position() + lenOfVal);
         }
 
-        Preconditions.checkState(offset == available, "illegal data");
         return payloads;
     }
 
@@ -204,19 +260,23 @@ class PackerImpl implements Packer {
                 String.format("the second to last byte must be constant %s",
                         ByteFormatter.addHexPrefix(CONSTANTS.ETX)));
 
-        Preconditions.checkArgument(bytes[bytes.length - 1] ==
-                        calculateLRC(Arrays.copyOf(bytes, bytes.length - 1)),
-                String.format("lrc is not the same, expected %s, but actual is %s",
-                        bytes[bytes.length - 1],
-                        calculateLRC(Arrays.copyOf(bytes, bytes.length - 1))));
+        final byte lrc = calculateLRC(bytes, 0, bytes.length - 1);
+        if (bytes[bytes.length - 1] != lrc) {
+            throw new IllegalArgumentException(String.format("lrc is not the same, expected %s, but actual is %s",
+                    bytes[bytes.length - 1], lrc));
+        }
     }
 
     @VisibleForTesting
     byte calculateLRC(@NonNull byte[] bytes) {
+        return calculateLRC(bytes, 0, bytes.length);
+    }
+
+    private static byte calculateLRC(@NonNull byte[] bytes, int offset, int length) {
         byte lrc = 0x0;
 
-        for (byte b : bytes) {
-            lrc ^= b;
+        for (int i = offset, end = offset + length; i < end; ++i) {
+            lrc ^= bytes[i];
         }
 
         return lrc;
@@ -105,6 +105,9 @@ class SerialReader implements Callable<byte[]> {
         int read;
 
         while (looping) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("serial read cancelled");
+            }
             read = mPort.read(buffer, limit);
             if (read != 0) {
                 byte[] data = new byte[read];
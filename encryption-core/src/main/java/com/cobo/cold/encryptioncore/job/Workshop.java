@@ -31,22 +31,24 @@ import com.cobo.cold.encryptioncore.utils.Preconditions;
 import java.nio.ByteBuffer;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 class Workshop implements Callable<Packet> {
     private static final String TAG = "EncryptionCore.Workshop";
     private static final int DEFAULT_TIMEOUT = 60;
     private final SerialPortProxy mPort;
-    private final ExecutorService sExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService mReader;
     private final Packet mPacket;
     private final Packer mPacker;
 
-    Workshop(@NonNull SerialPortProxy port, @NonNull Packer packer, @NonNull Packet packet) {
+    Workshop(@NonNull SerialPortProxy port, @NonNull Packer packer, @NonNull Packet packet,
+             @NonNull ExecutorService reader) {
         mPort = Preconditions.checkNotNull(port);
         mPacker = packer;
         mPacket = Preconditions.checkNotNull(packet);
+        mReader = Preconditions.checkNotNull(reader);
     }
 
     private void logBytes(boolean isRequest, @NonNull String id, @NonNull byte[] bytes) {
@@ -78,9 +80,15 @@ class Workshop implements Callable<Packet> {
         logPacket(true, mPacket);
         mPort.write(ByteBuffer.wrap(outputBytes), outputBytes.length);
 
-        final Future<byte[]> future = sExecutor.submit(new SerialReader(mPort));
+        final Future<byte[]> future = mReader.submit(new SerialReader(mPort));
         int timeout = mPacket.getTimeout() == 0 ? DEFAULT_TIMEOUT : mPacket.getTimeout();
-        final byte[] inputBytes = future.get(timeout, TimeUnit.SECONDS);
+        final byte[] inputBytes;
+        try {
+            inputBytes = future.get(timeout, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        }
         logBytes(false, id, inputBytes);
 
         Packet packet = mPacker.deserialize(inputBytes);
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.serial;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
+import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
+import com.cobo.cold.encryptioncore.utils.Preconditions;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the serial port open across jobs. The port is opened on first use,
+ * closed after it has been idle for the idle timeout, and closed immediately
+ * by {@link #invalidate()} so that the next job reconnects after an error.
+ * Replies are read on one dedicated thread, see {@link #getReader()}.
+ */
+public class SerialSession {
+    public static final long DEFAULT_IDLE_TIMEOUT = 3000;
+
+    private final SerialManagerProxy mManager;
+    private final long mIdleTimeout;
+    private final ScheduledExecutorService mReader;
+    private SerialPortProxy mPort;
+    private ScheduledFuture<?> mIdleClose;
+    // bumped whenever the scheduled close is cancelled or replaced, a close that already
+    // started and is waiting for the monitor compares it and backs off
+    private long mIdleGeneration;
+
+    public SerialSession(@NonNull SerialManagerProxy manager, long idleTimeout) {
+        mManager = Preconditions.checkNotNull(manager);
+        mIdleTimeout = idleTimeout;
+        final ScheduledThreadPoolExecutor reader = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "EncryptionCore.SerialReader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reader.setRemoveOnCancelPolicy(true);
+        mReader = reader;
+    }
+
+    @NonNull
+    @VisibleForTesting
+    static SerialPortProxy openPort(@NonNull SerialManagerProxy manager) throws IOException {
+        final String[] portNumbers = manager.getSerialPorts();
+        Preconditions.checkArgument(portNumbers != null && portNumbers.length > 0, "port not found");
+
+        final SerialPortProxy port = manager.openSerialPort(portNumbers[0]);
+        Preconditions.checkNotNull(port, String.format("can not open port %s", portNumbers[0]));
+
+        return port;
+    }
+
+    /**
+     * @return the open port, opening it if needed; must be paired with {@link #release()}
+     */
+    @NonNull
+    public synchronized SerialPortProxy acquire() throws IOException {
+        cancelIdleClose();
+        if (mPort == null) {
+            mPort = openPort(mManager);
+        }
+        return mPort;
+    }
+
+    /**
+     * the caller is done with the port, it will be closed if nobody acquires it within the idle timeout
+     */
+    public synchronized void release() {
+        if (mPort != null && mIdleClose == null) {
+            final long generation = ++mIdleGeneration;
+            mIdleClose = mReader.schedule(() -> idleClose(generation), mIdleTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * close the port right away, eg: after a failed exchange the next acquire reconnects
+     */
+    public synchronized void invalidate() {
+        cancelIdleClose();
+        closePort();
+    }
+
+    @NonNull
+    public ExecutorService getReader() {
+        return mReader;
+    }
+
+    private void cancelIdleClose() {
+        if (mIdleClose != null) {
+            mIdleClose.cancel(false);
+            mIdleClose = null;
+        }
+        mIdleGeneration++;
+    }
+
+    private synchronized void idleClose(long generation) {
+        if (generation != mIdleGeneration) {
+            // superseded by an acquire or invalidate while this close waited for the monitor
+            return;
+        }
+        mIdleClose = null;
+        closePort();
+    }
+
+    private void closePort() {
+        if (mPort == null) {
+            return;
+        }
+        try {
+            mPort.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            mPort = null;
+        }
+    }
+}
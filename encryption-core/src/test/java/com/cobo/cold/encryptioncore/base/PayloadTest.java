@@ -21,6 +21,8 @@ import com.cobo.cold.encryptioncore.exception.ByteFormatException;
 
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
@@ -84,4 +86,30 @@ public class PayloadTest {
         assertEquals(new Payload(new byte[]{0x01, 0x02}), new Payload(new byte[]{0x01, 0x02}));
         assertNotEquals(new Payload(new byte[]{0x01}), new Payload(new byte[]{0x02}));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void view() {
+        final byte[] frame = new byte[]{0x00, 0x6D, 0x2F, 0x30, 0x27, 0x00};
+        final Payload payload = new Payload(frame, 1, 4);
+
+        assertEquals(4, payload.length());
+        assertEquals("m/0'", payload.toUtf8());
+        assertEquals("6d2f3027", payload.toHex());
+        assertArrayEquals(new byte[]{0x6D, 0x2F, 0x30, 0x27}, payload.getValue());
+        assertEquals(new Payload(new byte[]{0x6D, 0x2F, 0x30, 0x27}), payload);
+        assertEquals(0x2F30, new Payload(frame, 2, 2).toInt());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void view2() {
+        new Payload(new byte[2], 1, 2);
+    }
+
+    @Test
+    public void writeTo() {
+        final ByteBuffer buffer = ByteBuffer.allocate(3);
+        new Payload(new byte[]{0x01, 0x02, 0x03, 0x04}, 1, 3).writeTo(buffer);
+
+        assertArrayEquals(new byte[]{0x02, 0x03, 0x04}, buffer.array());
+    }
+}
@@ -58,4 +58,27 @@ public class CipherImplTest {
                 (byte) 0xBB, 0x66, (byte) 0xE8, (byte) 0xFE, (byte) 0xE7, 0x5B, (byte) 0xE0, 0x39
         }));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reuse() throws Exception {
+        final CipherImpl cipher = new CipherImpl(new byte[]{
+                0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAD, (byte) 0xCD, (byte) 0xEF,
+                0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAD, (byte) 0xCD, (byte) 0xEF,
+                0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAD, (byte) 0xCD, (byte) 0xEF,
+        }, new byte[]{
+                (byte) 0xFE, (byte) 0xDC, (byte) 0xBA, (byte) 0x98, 0x76, 0x54, 0x32, 0x10
+        });
+        final byte[] data = new byte[]{0x00, 0x01, 0x00, 0x02, 0x01, 0x03};
+
+        // the cached cipher is reset to the iv for every packet
+        final byte[] encrypted = cipher.encrypt(data);
+        assertArrayEquals(encrypted, cipher.encrypt(data));
+        assertArrayEquals(data, cipher.decrypt(encrypted));
+        assertArrayEquals(data, cipher.decrypt(encrypted));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalKey() {
+        new CipherImpl(new byte[8], new byte[8]);
+    }
+}
@@ -33,14 +33,22 @@ import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -51,8 +59,7 @@ public class JobSchedulerImplTest {
     @Mock
     private SerialPortProxy mPort;
 
-    @Test
-    public void offer() throws IOException, InterruptedException {
+    private void mockPort() throws IOException {
         when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
         when(mManager.openSerialPort(anyString())).thenReturn(mPort);
 
@@ -68,6 +75,27 @@ public class JobSchedulerImplTest {
 
             return inputBytes.length;
         });
+    }
+
+    // holds the scheduler thread inside the first job until the returned latch is released
+    private CountDownLatch blockFirstJob() {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final boolean[] blocked = new boolean[1];
+
+        doAnswer(invocation -> {
+            if (!blocked[0]) {
+                blocked[0] = true;
+                gate.await(10, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(mManager).acquireWakeLock();
+
+        return gate;
+    }
+
+    @Test
+    public void offer() throws IOException, InterruptedException {
+        mockPort();
 
         final Packet packet1 = new Packet.Builder(0x0103).build();
         final Callback callback1 = mock(Callback.class);
@@ -109,4 +137,93 @@ public class JobSchedulerImplTest {
         inOrder.verify(callback4).onSuccess(any(Packet.class));
         inOrder.verify(callback5).onSuccess(any(Packet.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void priority() throws IOException, InterruptedException {
+        mockPort();
+        final CountDownLatch gate = blockFirstJob();
+
+        final Callback first = mock(Callback.class);
+        final Callback bulk = mock(Callback.class);
+        final Callback normal = mock(Callback.class);
+        final Callback high = mock(Callback.class);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(bulk).onSuccess(any(Packet.class));
+
+        final JobScheduler jobScheduler = new JobSchedulerImpl(mManager, null);
+
+        jobScheduler.offer(new Packet.Builder(0x0103).build(), first);
+        jobScheduler.offer(new Packet.Builder(0x0103).setPriority(Packet.PRIORITY_BULK).build(), bulk);
+        jobScheduler.offer(new Packet.Builder(0x0103).build(), normal);
+        jobScheduler.offer(new Packet.Builder(0x0103).setPriority(Packet.PRIORITY_HIGH).build(), high);
+        gate.countDown();
+
+        latch.await(10, TimeUnit.SECONDS);
+
+        final InOrder inOrder = Mockito.inOrder(first, high, normal, bulk);
+
+        inOrder.verify(first).onSuccess(any(Packet.class));
+        inOrder.verify(high).onSuccess(any(Packet.class));
+        inOrder.verify(normal).onSuccess(any(Packet.class));
+        inOrder.verify(bulk).onSuccess(any(Packet.class));
+    }
+
+    @Test
+    public void submit() throws Exception {
+        mockPort();
+
+        final JobScheduler jobScheduler = new JobSchedulerImpl(mManager, null);
+        final Packet result = jobScheduler.submit(new Packet.Builder(0x0103).build(), 0, TimeUnit.SECONDS)
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(0x0103, result.getId());
+    }
+
+    @Test
+    public void submitDeadline() throws Exception {
+        mockPort();
+        final CountDownLatch gate = blockFirstJob();
+
+        final JobScheduler jobScheduler = new JobSchedulerImpl(mManager, null);
+        final CompletableFuture<Packet> first = jobScheduler.submit(new Packet.Builder(0x0103).build(),
+                0, TimeUnit.SECONDS);
+        final CompletableFuture<Packet> late = jobScheduler.submit(new Packet.Builder(0x0104).build(),
+                50, TimeUnit.MILLISECONDS);
+
+        try {
+            late.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        gate.countDown();
+        first.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void submitCancel() throws Exception {
+        mockPort();
+        final CountDownLatch gate = blockFirstJob();
+
+        final JobScheduler jobScheduler = new JobSchedulerImpl(mManager, null);
+        final CompletableFuture<Packet> first = jobScheduler.submit(new Packet.Builder(0x0103).build(),
+                0, TimeUnit.SECONDS);
+        final CompletableFuture<Packet> cancelled = jobScheduler.submit(new Packet.Builder(0x0103).build(),
+                0, TimeUnit.SECONDS);
+
+        cancelled.cancel(true);
+        gate.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        jobScheduler.submit(new Packet.Builder(0x0103).build(), 0, TimeUnit.SECONDS)
+                .get(10, TimeUnit.SECONDS);
+
+        // the cancelled job never wrote to the port
+        verify(mPort, times(2)).write(any(ByteBuffer.class), anyInt());
+    }
+}
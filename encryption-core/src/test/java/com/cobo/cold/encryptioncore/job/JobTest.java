@@ -21,6 +21,7 @@ import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.interfaces.Callback;
 import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
 import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
+import com.cobo.cold.encryptioncore.serial.SerialSession;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -57,37 +58,8 @@ public class JobTest {
     @Mock
     private Callback mCallback;
 
-    @Test
-    public void openPort() throws IOException {
-        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100", "2200"});
-        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
-
-        assertEquals(mPort, Job.openPort(mManager));
-        final ArgumentCaptor<String> argument = ArgumentCaptor.forClass(String.class);
-        verify(mManager, times(1)).openSerialPort(argument.capture());
-        assertEquals("1100", argument.getValue());
-    }
-
-    @Test(expected = IllegalArgumentException.class)
-    public void openPort2() throws IOException {
-        when(mManager.getSerialPorts()).thenReturn(null);
-
-        Job.openPort(mManager);
-    }
-
-    @Test(expected = IllegalArgumentException.class)
-    public void openPort3() throws IOException {
-        when(mManager.getSerialPorts()).thenReturn(new String[0]);
-
-        Job.openPort(mManager);
-    }
-
-    @Test(expected = NullPointerException.class)
-    public void openPort4() throws IOException {
-        when(mManager.getSerialPorts()).thenReturn(new String[]{"0001"});
-        when(mManager.openSerialPort(anyString())).thenReturn(null);
-
-        Job.openPort(mManager);
+    private SerialSession session() {
+        return new SerialSession(mManager, SerialSession.DEFAULT_IDLE_TIMEOUT);
     }
 
     @Test
@@ -110,7 +82,7 @@ public class JobTest {
 
         final Packet packet = new Packet.Builder(0x0103).build();
 
-        new Job(mManager, new PackerImpl(null), packet, mCallback).run();
+        new Job(mManager, session(), new PackerImpl(null), packet, mCallback).run();
 
         verify(mManager, times(1)).getSerialPorts();
         verify(mManager, times(1)).openSerialPort(anyString());
@@ -119,7 +91,7 @@ public class JobTest {
 
         verify(mPort, times(1)).read(any(ByteBuffer.class), anyInt());
         verify(mPort, times(1)).write(any(ByteBuffer.class), anyInt());
-        verify(mPort, times(1)).close();
+        verify(mPort, never()).close();
 
         verify(mCallback, never()).onFail(any(Exception.class));
 
@@ -155,7 +127,7 @@ public class JobTest {
 
         final Packet packet = new Packet.Builder(0x0103).setRetryTimes(2).build();
 
-        new Job(mManager, new PackerImpl(null), packet, mCallback).run();
+        new Job(mManager, session(), new PackerImpl(null), packet, mCallback).run();
 
         verify(mManager, times(3)).getSerialPorts();
         verify(mManager, times(3)).openSerialPort(anyString());
@@ -210,7 +182,7 @@ public class JobTest {
         });
 
         final Packet packet = new Packet.Builder(0x0103).setRetryTimes(3).build();
-        new Job(mManager, new PackerImpl(null), packet, mCallback).run();
+        new Job(mManager, session(), new PackerImpl(null), packet, mCallback).run();
 
         verify(mManager, times(3)).getSerialPorts();
         verify(mManager, times(3)).openSerialPort(anyString());
@@ -219,7 +191,7 @@ public class JobTest {
 
         verify(mPort, times(3)).read(any(ByteBuffer.class), anyInt());
         verify(mPort, times(3)).write(any(ByteBuffer.class), anyInt());
-        verify(mPort, times(3)).close();
+        verify(mPort, times(2)).close();
 
         verify(mCallback, never()).onFail(any(Exception.class));
 
@@ -228,4 +200,35 @@ public class JobTest {
 
         verifyNoMoreInteractions(mManager, mPort, mCallback);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reusePort() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        final byte[] inputBytes = new byte[]{
+                0x02, 0x00, 0x00, 0x11, 0x00, 0x01, 0x00, 0x02, 0x01, 0x03,
+                0x01, 0x02, 0x00, 0x01, (byte) 0xcb, 0x00, 0x02, 0x00, 0x02,
+                0x00, 0x00, 0x03, (byte) 0xd8
+        };
+
+        when(mPort.read(any(ByteBuffer.class), anyInt())).thenAnswer((Answer<Integer>) invocation -> {
+            final ByteBuffer buffer = invocation.getArgumentAt(0, ByteBuffer.class);
+            buffer.put(inputBytes);
+
+            return inputBytes.length;
+        });
+
+        final SerialSession session = session();
+        new Job(mManager, session, new PackerImpl(null), new Packet.Builder(0x0103).build(), mCallback).run();
+        new Job(mManager, session, new PackerImpl(null), new Packet.Builder(0x0103).build(), mCallback).run();
+
+        verify(mManager, times(1)).openSerialPort(anyString());
+        verify(mPort, times(2)).write(any(ByteBuffer.class), anyInt());
+        verify(mPort, never()).close();
+        verify(mCallback, times(2)).onSuccess(any(Packet.class));
+
+        session.invalidate();
+        verify(mPort, times(1)).close();
+    }
+}
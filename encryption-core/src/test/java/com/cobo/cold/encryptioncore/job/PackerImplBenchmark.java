@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.job;
+
+import androidx.collection.SparseArrayCompat;
+
+import com.cobo.cold.encryptioncore.base.Packet;
+import com.cobo.cold.encryptioncore.base.Payload;
+import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
+import com.cobo.cold.encryptioncore.utils.ByteFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link PackerImpl} with the stream based codec it replaced.
+ * Run with the main method from the unit test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackerImplBenchmark {
+    // size of the payload value, 2033 fills the 2048 byte body together with the id and encryption tags
+    @Param({"1", "64", "256", "1024", "2033"})
+    public int valueSize;
+
+    private PackerImpl mPacker;
+    private LegacyPacker mLegacy;
+    private Packet mPacket;
+    private byte[] mFrame;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PackerImplBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        mPacker = new PackerImpl(null);
+        mLegacy = new LegacyPacker();
+        final byte[] value = new byte[valueSize];
+        Arrays.fill(value, (byte) 0x5A);
+        mPacket = new Packet.Builder(0x0106).addBytesPayload(0x0109, value).build();
+        mFrame = mPacker.serialize(mPacket);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mPacker.serialize(mPacket);
+    }
+
+    @Benchmark
+    public byte[] serializeLegacy() throws Exception {
+        return mLegacy.serialize(mPacket);
+    }
+
+    @Benchmark
+    public Packet deserialize() throws Exception {
+        return mPacker.deserialize(mFrame);
+    }
+
+    @Benchmark
+    public Packet deserializeLegacy() {
+        return mLegacy.deserialize(mFrame);
+    }
+
+    /**
+     * the previous implementation without cipher support, kept as the baseline
+     */
+    private static class LegacyPacker {
+
+        byte[] serialize(Packet packet) throws IOException {
+            final SparseArrayCompat<Payload> payloads = packet.getPayloads();
+            final ByteArrayOutputStream bodyStream = new ByteArrayOutputStream();
+
+            for (int i = 0, size = payloads.size(); i < size; ++i) {
+                final Payload payload = payloads.valueAt(i);
+                if (payload == null) {
+                    continue;
+                }
+                final byte[] value = payload.getValue();
+                final byte[] tlv = new byte[4 + value.length];
+                System.arraycopy(ByteFormatter.short2bytes(payloads.keyAt(i)), 0, tlv, 0, 2);
+                System.arraycopy(ByteFormatter.short2bytes(value.length), 0, tlv, 2, 2);
+                System.arraycopy(value, 0, tlv, 4, value.length);
+                bodyStream.write(tlv);
+            }
+            final byte[] body = bodyStream.toByteArray();
+
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            outputStream.write(CONSTANTS.STX);
+            outputStream.write(CONSTANTS.ENCRYPTION_STATUS.DISABLED);
+            outputStream.write(ByteFormatter.short2bytes(body.length));
+            outputStream.write(body);
+            outputStream.write(CONSTANTS.ETX);
+            outputStream.write(lrc(outputStream.toByteArray()));
+
+            return outputStream.toByteArray();
+        }
+
+        Packet deserialize(byte[] bytes) {
+            // the message was formatted eagerly, copying the frame a second time
+            final String message = String.format("lrc is not the same, expected %s, but actual is %s",
+                    bytes[bytes.length - 1], lrc(Arrays.copyOf(bytes, bytes.length - 1)));
+            if (bytes[bytes.length - 1] != lrc(Arrays.copyOf(bytes, bytes.length - 1))) {
+                throw new IllegalArgumentException(message);
+            }
+            final int lenOfBody = ByteFormatter.bytes2short(new byte[]{bytes[2], bytes[3]});
+            final byte[] body = Arrays.copyOfRange(bytes, 4, 4 + lenOfBody);
+
+            final SparseArrayCompat<Payload> payloads = new SparseArrayCompat<>();
+            final ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            int offset = 0;
+            final int available = inputStream.available();
+
+            while (offset < available) {
+                final byte[] twoBytesBuffer = new byte[2];
+                inputStream.read(twoBytesBuffer, 0, 2);
+                final int tag = ByteFormatter.bytes2short(twoBytesBuffer);
+                inputStream.read(twoBytesBuffer, 0, 2);
+                final int lenOfVal = ByteFormatter.bytes2short(twoBytesBuffer);
+                final byte[] valueBuffer = new byte[lenOfVal];
+                inputStream.read(valueBuffer, 0, lenOfVal);
+                offset += 4 + lenOfVal;
+                payloads.put(tag, new Payload(valueBuffer));
+            }
+
+            final Packet.Builder builder = new Packet.Builder(
+                    payloads.get(CONSTANTS.TAGS.PACKET_ID).toInt());
+            for (int i = 0, size = payloads.size(); i < size; ++i) {
+                builder.addBytesPayload(payloads.keyAt(i), payloads.valueAt(i).getValue());
+            }
+            return builder.build();
+        }
+
+        private static byte lrc(byte[] bytes) {
+            byte lrc = 0x0;
+            for (byte b : bytes) {
+                lrc ^= b;
+            }
+            return lrc;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import androidx.collection.SparseArrayCompat;
 
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
+import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.interfaces.Cipher;
 
 import org.junit.Test;
@@ -52,6 +53,23 @@ public class PackerImplTest {
         }, new PackerImpl(null).serialize(new Packet.Builder(0x0208).addBytePayload(0x020F, 0x01).build()));
     }
 
+    @Test
+    public void serializeReuse() throws Exception {
+        final PackerImpl packer = new PackerImpl(null);
+        packer.serialize(new Packet.Builder(0x0106).addBytesPayload(0x0109, new byte[1024]).build());
+
+        // a shorter frame after a longer one must not carry any stale bytes
+        assertArrayEquals(new byte[]{
+                0x02, 0x00, 0x00, 0x0B, 0x00, 0x01, 0x00, 0x02, 0x01, 0x03, 0x00, 0x04, 0x00, 0x01, 0x00, 0x03, 0x0E
+        }, packer.serialize(new Packet.Builder(0x0103).build()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void serializeOversize() throws Exception {
+        new PackerImpl(null).serialize(new Packet.Builder(0x0106)
+                .addBytesPayload(0x0109, new byte[CONSTANTS.MAX_BODY_SIZE]).build());
+    }
+
     @Test
     public void serializeBody() throws IOException {
         assertArrayEquals(new byte[]{
@@ -29,6 +29,7 @@ import org.mockito.stubbing.Answer;
 
 import java.nio.ByteBuffer;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -69,7 +70,8 @@ public class WorkshopTest {
 
         final Packet packet = new Packet.Builder(0x0103).build();
 
-        final Callable<Packet> callable = new Workshop(mPort, new PackerImpl(null), packet);
+        final Callable<Packet> callable = new Workshop(mPort, new PackerImpl(null), packet,
+                Executors.newSingleThreadExecutor());
         final Packet result = callable.call();
 
         verify(mPort, times(1)).read(any(ByteBuffer.class), anyInt());
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.serial;
+
+import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
+import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SerialSessionTest {
+
+    @Mock
+    private SerialManagerProxy mManager;
+
+    @Mock
+    private SerialPortProxy mPort;
+
+    @Test
+    public void openPort() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100", "2200"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        assertEquals(mPort, SerialSession.openPort(mManager));
+        final ArgumentCaptor<String> argument = ArgumentCaptor.forClass(String.class);
+        verify(mManager, times(1)).openSerialPort(argument.capture());
+        assertEquals("1100", argument.getValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openPort2() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(null);
+
+        SerialSession.openPort(mManager);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openPort3() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[0]);
+
+        SerialSession.openPort(mManager);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void openPort4() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"0001"});
+        when(mManager.openSerialPort(anyString())).thenReturn(null);
+
+        SerialSession.openPort(mManager);
+    }
+
+    @Test
+    public void acquire() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        final SerialSession session = new SerialSession(mManager, SerialSession.DEFAULT_IDLE_TIMEOUT);
+        assertSame(mPort, session.acquire());
+        session.release();
+        assertSame(mPort, session.acquire());
+        session.release();
+
+        verify(mManager, times(1)).openSerialPort(anyString());
+        verify(mPort, never()).close();
+    }
+
+    @Test
+    public void idleClose() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        final SerialSession session = new SerialSession(mManager, 10);
+        session.acquire();
+        session.release();
+
+        verify(mPort, timeout(1000).times(1)).close();
+
+        session.acquire();
+        verify(mManager, times(2)).openSerialPort(anyString());
+    }
+
+    @Test
+    public void invalidate() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        final SerialSession session = new SerialSession(mManager, SerialSession.DEFAULT_IDLE_TIMEOUT);
+        session.acquire();
+        session.invalidate();
+        verify(mPort, times(1)).close();
+
+        session.acquire();
+        session.release();
+        verify(mManager, times(2)).openSerialPort(anyString());
+    }
+
+    @Test
+    public void idleCloseWaitingForMonitor() throws IOException, InterruptedException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        final SerialSession session = new SerialSession(mManager, 10);
+        session.acquire();
+        session.release();
+
+        // hold the monitor until the idle close has fired and is blocked on it,
+        // then hand the port to a new job before letting the close through
+        synchronized (session) {
+            assertTrue(awaitReaderBlocked(1000));
+            assertSame(mPort, session.acquire());
+        }
+
+        Thread.sleep(100);
+        verify(mPort, never()).close();
+        verify(mManager, times(1)).openSerialPort(anyString());
+
+        session.release();
+        verify(mPort, timeout(1000).times(1)).close();
+    }
+
+    private static boolean awaitReaderBlocked(long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if ("EncryptionCore.SerialReader".equals(thread.getName())
+                        && thread.getState() == Thread.State.BLOCKED) {
+                    return true;
+                }
+            }
+            Thread.sleep(1);
+        }
+        return false;
+    }
+}